@@ -2,8 +2,10 @@ package com.microservice.balance_service;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class BalanceServiceApplication {
 
 	public static void main(String[] args) {
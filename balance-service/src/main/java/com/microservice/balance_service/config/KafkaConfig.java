@@ -1,7 +1,12 @@
 package com.microservice.balance_service.config;
 
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.AdminClientConfig;
+import org.apache.kafka.clients.admin.TopicDescription;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.common.serialization.StringDeserializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -11,14 +16,31 @@ import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
 import org.springframework.kafka.support.serializer.JsonDeserializer;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 @Configuration
 public class KafkaConfig {
+    private static final Logger logger = LoggerFactory.getLogger(KafkaConfig.class);
+
+    public static final String BALANCE_UPDATE_TOPIC = "balance-update-topic";
 
     @Value("${spring.kafka.bootstrap-servers}")
     private String bootstrapServers;
 
+    // Верхняя граница пачки для batch-слушателя баланса
+    @Value("${balance.consumer.max-poll-records:500}")
+    private int maxPollRecords;
+
+    // 0 — по числу партиций топика: больше консьюмеров простаивают, меньше — недогружают партиции
+    @Value("${balance.consumer.concurrency:0}")
+    private int concurrency;
+
+    // Используется, если топик недоступен при старте (ещё не создан или брокер не отвечает)
+    @Value("${balance.consumer.fallback-concurrency:3}")
+    private int fallbackConcurrency;
+
     @Bean
     public ConsumerFactory<String, String> balanceConsumerFactory() {
         Map<String, Object> configProps = new HashMap<>();
@@ -27,15 +49,42 @@ public class KafkaConfig {
         configProps.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
         configProps.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
         configProps.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        configProps.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxPollRecords);
         return new DefaultKafkaConsumerFactory<>(configProps);
     }
 
+    // События с ключом userId: события одного пользователя идут по порядку в одной партиции,
+    // каждую партицию читает ровно один поток
     @Bean
     public ConcurrentKafkaListenerContainerFactory<String, String> kafkaListenerContainerFactory() {
         ConcurrentKafkaListenerContainerFactory<String, String> factory =
                 new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(balanceConsumerFactory());
-        factory.setConcurrency(3);
+        factory.setConcurrency(resolveConcurrency());
+        factory.setBatchListener(true);
         return factory;
     }
-}
\ No newline at end of file
+
+    private int resolveConcurrency() {
+        if (concurrency > 0) {
+            return concurrency;
+        }
+        Map<String, Object> adminProps = Map.of(
+                AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers,
+                AdminClientConfig.REQUEST_TIMEOUT_MS_CONFIG, 5_000,
+                AdminClientConfig.DEFAULT_API_TIMEOUT_MS_CONFIG, 5_000);
+        try (AdminClient admin = AdminClient.create(adminProps)) {
+            TopicDescription description = admin.describeTopics(List.of(BALANCE_UPDATE_TOPIC))
+                    .allTopicNames().get(5, TimeUnit.SECONDS).get(BALANCE_UPDATE_TOPIC);
+            int partitions = description.partitions().size();
+            logger.info("Balance listener concurrency set to {} (partitions of '{}')", partitions, BALANCE_UPDATE_TOPIC);
+            return partitions;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            logger.warn("Cannot describe topic '{}', using fallback concurrency {}: {}",
+                    BALANCE_UPDATE_TOPIC, fallbackConcurrency, e.getMessage());
+        }
+        return fallbackConcurrency;
+    }
+}
@@ -1,7 +1,6 @@
 package com.microservice.balance_service.config;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.microservice.balance_service.model.dto.UserBalanceResponse;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
@@ -12,17 +11,6 @@ import org.springframework.data.redis.serializer.StringRedisSerializer;
 @Configuration
 public class RedisConfig {
 
-    @Bean
-    public RedisTemplate<String, UserBalanceResponse> balanceRedisTemplate(RedisConnectionFactory connectionFactory) {
-        RedisTemplate<String, UserBalanceResponse> template = new RedisTemplate<>();
-        template.setConnectionFactory(connectionFactory);
-        template.setKeySerializer(new StringRedisSerializer());
-        Jackson2JsonRedisSerializer<UserBalanceResponse> serializer =
-                new Jackson2JsonRedisSerializer<>(UserBalanceResponse.class);
-        template.setValueSerializer(serializer);
-        return template;
-    }
-
     @Bean
     public RedisTemplate<String, Object> redisTemplate(RedisConnectionFactory connectionFactory) {
         RedisTemplate<String, Object> template = new RedisTemplate<>();
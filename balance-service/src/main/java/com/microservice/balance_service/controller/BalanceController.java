@@ -1,14 +1,19 @@
 package com.microservice.balance_service.controller;
 
+import com.microservice.balance_service.model.dto.BalanceAtResponse;
+import com.microservice.balance_service.model.dto.BalanceSeriesResponse;
 import com.microservice.balance_service.model.dto.UserBalanceResponse;
+import com.microservice.balance_service.service.BalanceHistoryService;
 import com.microservice.balance_service.service.BalanceService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.web.bind.annotation.GetMapping;
-import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.bind.annotation.*;
 
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Map;
 import java.util.UUID;
 
 @RestController
@@ -16,10 +21,33 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class BalanceController {
     private final BalanceService balanceService;
+    private final BalanceHistoryService balanceHistoryService;
 
     @GetMapping
     public ResponseEntity<UserBalanceResponse> getBalance(@AuthenticationPrincipal String userId) {
         UserBalanceResponse balance = balanceService.getUserBalanceResponse(UUID.fromString(userId));
         return ResponseEntity.ok(balance);
     }
-}
\ No newline at end of file
+
+    // Баланс на момент времени по журналу: ближайший снимок плюс записи после него
+    @GetMapping("/at")
+    public ResponseEntity<BalanceAtResponse> getBalanceAt(
+            @AuthenticationPrincipal String userId,
+            @RequestParam("at") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant at) {
+        return ResponseEntity.ok(balanceHistoryService.getBalanceAt(UUID.fromString(userId), at));
+    }
+
+    // Баланс на конец каждого дня (UTC) в диапазоне, включая обе границы
+    @GetMapping("/daily")
+    public ResponseEntity<BalanceSeriesResponse> getDailySeries(
+            @AuthenticationPrincipal String userId,
+            @RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(balanceHistoryService.getDailySeries(UUID.fromString(userId), from, to));
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, String>> handleBadRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+    }
+}
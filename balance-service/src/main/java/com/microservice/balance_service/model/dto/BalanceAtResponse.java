@@ -0,0 +1,22 @@
+package com.microservice.balance_service.model.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+public class BalanceAtResponse {
+    private UUID userId;
+    private Instant at;
+    private BigDecimal balance;
+
+    public BalanceAtResponse(UUID userId, Instant at, BigDecimal balance) {
+        this.userId = userId;
+        this.at = at;
+        this.balance = balance;
+    }
+}
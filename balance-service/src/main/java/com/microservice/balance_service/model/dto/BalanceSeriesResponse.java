@@ -0,0 +1,24 @@
+package com.microservice.balance_service.model.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+public class BalanceSeriesResponse {
+    private UUID userId;
+    private LocalDate from;
+    private LocalDate to;
+    private List<DailyBalance> points;
+
+    public BalanceSeriesResponse(UUID userId, LocalDate from, LocalDate to, List<DailyBalance> points) {
+        this.userId = userId;
+        this.from = from;
+        this.to = to;
+        this.points = points;
+    }
+}
@@ -0,0 +1,20 @@
+package com.microservice.balance_service.model.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+public class DailyBalance {
+    private LocalDate date;
+    // Баланс на конец дня (UTC)
+    private BigDecimal balance;
+
+    public DailyBalance(LocalDate date, BigDecimal balance) {
+        this.date = date;
+        this.balance = balance;
+    }
+}
@@ -8,6 +8,7 @@ import java.util.UUID;
 
 @Data
 public class TransactionEvent {
+    private String eventId;
     private String transactionId;
     private UUID userId;
     private BigDecimal amount;
@@ -16,6 +17,16 @@ public class TransactionEvent {
     private BigDecimal oldAmount;
     private String oldType;
 
+    // Ключ по eventId: повторные одинаковые правки (A→B, B→A, A→B) — разные события.
+    // Ключ из полей — только для событий, отправленных до появления eventId
+    public String dedupeKey() {
+        if (eventId != null) {
+            return "processed:" + eventId;
+        }
+        String key = "processed:" + transactionId + ":" + operation;
+        return "UPDATE".equals(operation) ? key + ":" + oldType + ":" + oldAmount + ":" + type + ":" + amount : key;
+    }
+
     public static TransactionEvent fromJson(String json) {
         try {
             return new ObjectMapper().readValue(json, TransactionEvent.class);
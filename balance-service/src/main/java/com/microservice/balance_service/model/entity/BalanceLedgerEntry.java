@@ -0,0 +1,44 @@
+package com.microservice.balance_service.model.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Append-only record of one applied transaction event and its signed effect on the balance.
+ */
+@Entity
+@Table(name = "balance_ledger", indexes = {
+        @Index(name = "idx_balance_ledger_user_recorded", columnList = "user_id, recorded_at"),
+        @Index(name = "idx_balance_ledger_recorded", columnList = "recorded_at")
+})
+@Data
+public class BalanceLedgerEntry {
+    // Записи вставляет BalanceLedgerRepositoryImpl одним INSERT ... SELECT unnest, id выдаёт БД
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Ключ дедупликации события (TransactionEvent.dedupeKey): повторная доставка не создаёт второй записи
+    @Column(name = "event_id", nullable = false, unique = true)
+    private String eventId;
+
+    @Column(name = "user_id", nullable = false)
+    private UUID userId;
+
+    @Column(name = "transaction_id", nullable = false)
+    private String transactionId;
+
+    @Column(nullable = false, length = 10)
+    private String operation;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal delta;
+
+    // Время применения события: история баланса строится по нему, а не по дате транзакции
+    @Column(name = "recorded_at", nullable = false)
+    private Instant recordedAt;
+}
@@ -0,0 +1,39 @@
+package com.microservice.balance_service.model.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Balance folded from all ledger entries recorded strictly before {@code asOf}.
+ */
+@Entity
+@Table(name = "balance_ledger_snapshots", indexes = @Index(name = "idx_balance_ledger_snapshots_as_of", columnList = "as_of"))
+@Data
+public class LedgerSnapshot {
+
+    @EmbeddedId
+    private Key id;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal balance;
+
+    @Embeddable
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+
+        @Column(name = "user_id", nullable = false)
+        private UUID userId;
+
+        @Column(name = "as_of", nullable = false)
+        private Instant asOf;
+    }
+}
@@ -20,4 +20,8 @@ public class UserBalance {
 
     @Column(name = "updated_at")
     private Instant updatedAt;
+
+    // Растёт на каждое применённое изменение; по нему кэш отбрасывает устаревшие записи
+    @Column(nullable = false, columnDefinition = "bigint not null default 0")
+    private long version;
 }
\ No newline at end of file
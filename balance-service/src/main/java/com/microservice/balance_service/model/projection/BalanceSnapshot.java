@@ -0,0 +1,15 @@
+package com.microservice.balance_service.model.projection;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Balance row as committed, with the version the cache compares against.
+ */
+public interface BalanceSnapshot {
+    UUID getUserId();
+
+    BigDecimal getBalance();
+
+    long getVersion();
+}
@@ -0,0 +1,13 @@
+package com.microservice.balance_service.model.projection;
+
+import java.math.BigDecimal;
+
+/**
+ * Sum of ledger deltas recorded during one UTC day.
+ */
+public interface DailyLedgerTotal {
+    // YYYY-MM-DD
+    String getDay();
+
+    BigDecimal getTotal();
+}
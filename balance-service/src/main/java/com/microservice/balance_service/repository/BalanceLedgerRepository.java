@@ -0,0 +1,29 @@
+package com.microservice.balance_service.repository;
+
+import com.microservice.balance_service.model.entity.BalanceLedgerEntry;
+import com.microservice.balance_service.model.projection.DailyLedgerTotal;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+public interface BalanceLedgerRepository extends JpaRepository<BalanceLedgerEntry, Long>, BalanceLedgerRepositoryCustom {
+
+    // Хвост после снимка: записи из [from, to]
+    @Query(value = "SELECT COALESCE(SUM(l.delta), 0) FROM balance_ledger l " +
+            "WHERE l.user_id = :userId AND l.recorded_at >= :from AND l.recorded_at <= :to",
+            nativeQuery = true)
+    BigDecimal sumBetween(@Param("userId") UUID userId, @Param("from") Instant from, @Param("to") Instant to);
+
+    // Одна строка на день с изменениями в [from, to), а не на каждую запись
+    @Query(value = "SELECT to_char(l.recorded_at AT TIME ZONE 'UTC', 'YYYY-MM-DD') AS day, SUM(l.delta) AS total " +
+            "FROM balance_ledger l " +
+            "WHERE l.user_id = :userId AND l.recorded_at >= :from AND l.recorded_at < :to " +
+            "GROUP BY 1 ORDER BY 1",
+            nativeQuery = true)
+    List<DailyLedgerTotal> dailyTotals(@Param("userId") UUID userId, @Param("from") Instant from, @Param("to") Instant to);
+}
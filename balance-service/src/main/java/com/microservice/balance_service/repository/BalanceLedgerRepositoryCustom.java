@@ -0,0 +1,14 @@
+package com.microservice.balance_service.repository;
+
+import com.microservice.balance_service.model.entity.BalanceLedgerEntry;
+
+import java.util.List;
+import java.util.Set;
+
+public interface BalanceLedgerRepositoryCustom {
+
+    /**
+     * Appends entries whose event id is not in the ledger yet and returns the event ids actually inserted.
+     */
+    Set<String> appendNew(List<BalanceLedgerEntry> entries);
+}
@@ -0,0 +1,49 @@
+package com.microservice.balance_service.repository;
+
+import com.microservice.balance_service.model.entity.BalanceLedgerEntry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+@RequiredArgsConstructor
+public class BalanceLedgerRepositoryImpl implements BalanceLedgerRepositoryCustom {
+
+    // Одна вставка на пачку; ON CONFLICT по event_id делает журнал источником дедупликации
+    // в той же транзакции, что и изменение баланса. RETURNING — только действительно новые события
+    private static final String APPEND_SQL = "INSERT INTO balance_ledger " +
+            "(event_id, user_id, transaction_id, operation, delta, recorded_at) " +
+            "SELECT e.event_id, e.user_id::uuid, e.transaction_id, e.operation, e.delta::numeric, e.recorded_at::timestamptz " +
+            "FROM unnest(?::text[], ?::text[], ?::text[], ?::text[], ?::text[], ?::text[]) " +
+            "AS e(event_id, user_id, transaction_id, operation, delta, recorded_at) " +
+            "ON CONFLICT (event_id) DO NOTHING RETURNING event_id";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public Set<String> appendNew(List<BalanceLedgerEntry> entries) {
+        if (entries.isEmpty()) {
+            return new HashSet<>();
+        }
+        List<String> inserted = jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(APPEND_SQL);
+            statement.setArray(1, connection.createArrayOf("text", column(entries, BalanceLedgerEntry::getEventId)));
+            statement.setArray(2, connection.createArrayOf("text", column(entries, BalanceLedgerEntry::getUserId)));
+            statement.setArray(3, connection.createArrayOf("text", column(entries, BalanceLedgerEntry::getTransactionId)));
+            statement.setArray(4, connection.createArrayOf("text", column(entries, BalanceLedgerEntry::getOperation)));
+            statement.setArray(5, connection.createArrayOf("text", column(entries, BalanceLedgerEntry::getDelta)));
+            statement.setArray(6, connection.createArrayOf("text", column(entries, BalanceLedgerEntry::getRecordedAt)));
+            return statement;
+        }, (resultSet, rowNum) -> resultSet.getString(1));
+        return new HashSet<>(inserted);
+    }
+
+    // Все значения передаются текстом и приводятся в SQL: время в ISO-8601, numeric понимает и 1E+3 из BigDecimal
+    private static String[] column(List<BalanceLedgerEntry> entries, Function<BalanceLedgerEntry, Object> getter) {
+        return entries.stream().map(getter).map(String::valueOf).toArray(String[]::new);
+    }
+}
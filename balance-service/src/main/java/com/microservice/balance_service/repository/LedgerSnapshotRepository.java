@@ -0,0 +1,51 @@
+package com.microservice.balance_service.repository;
+
+import com.microservice.balance_service.model.entity.LedgerSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface LedgerSnapshotRepository extends JpaRepository<LedgerSnapshot, LedgerSnapshot.Key> {
+
+    Optional<LedgerSnapshot> findTopByIdUserIdAndIdAsOfLessThanEqualOrderByIdAsOfDesc(UUID userId, Instant asOf);
+
+    // Начальный снимок на эпоху для пользователей без снимков: баланс до появления журнала.
+    // Баланс и сумма журнала читаются одним запросом, поэтому согласованы с параллельными пачками
+    @Modifying
+    @Query(value = "INSERT INTO balance_ledger_snapshots (user_id, as_of, balance) " +
+            "SELECT b.user_id, CAST('1970-01-01 00:00:00+00' AS timestamptz), " +
+            "       b.balance - COALESCE((SELECT SUM(l.delta) FROM balance_ledger l WHERE l.user_id = b.user_id), 0) " +
+            "FROM user_balances b " +
+            "WHERE NOT EXISTS (SELECT 1 FROM balance_ledger_snapshots s WHERE s.user_id = b.user_id) " +
+            "ON CONFLICT (user_id, as_of) DO NOTHING",
+            nativeQuery = true)
+    int seedOpeningBalances();
+
+    // Снимок на asOf для пользователей с записями после предыдущего прогона:
+    // последний снимок пользователя плюс его записи из [снимок, asOf).
+    // Повторный вызов пересчитывает снимок, подбирая пачки, зафиксированные после прошлого прогона
+    @Modifying
+    @Query(value = "WITH previous_run AS (" +
+            "  SELECT COALESCE(MAX(s.as_of), CAST('1970-01-01 00:00:00+00' AS timestamptz)) AS as_of " +
+            "  FROM balance_ledger_snapshots s WHERE s.as_of < :asOf" +
+            "), active AS (" +
+            "  SELECT DISTINCT l.user_id FROM balance_ledger l, previous_run p " +
+            "  WHERE l.recorded_at >= p.as_of AND l.recorded_at < :asOf" +
+            ") " +
+            "INSERT INTO balance_ledger_snapshots (user_id, as_of, balance) " +
+            "SELECT a.user_id, :asOf, COALESCE(last.balance, 0) + COALESCE(tail.total, 0) " +
+            "FROM active a " +
+            "LEFT JOIN LATERAL (SELECT s.as_of, s.balance FROM balance_ledger_snapshots s " +
+            "  WHERE s.user_id = a.user_id AND s.as_of < :asOf ORDER BY s.as_of DESC LIMIT 1) last ON true " +
+            "CROSS JOIN LATERAL (SELECT SUM(l.delta) AS total FROM balance_ledger l " +
+            "  WHERE l.user_id = a.user_id AND l.recorded_at < :asOf " +
+            "    AND l.recorded_at >= COALESCE(last.as_of, CAST('1970-01-01 00:00:00+00' AS timestamptz))) tail " +
+            "ON CONFLICT (user_id, as_of) DO UPDATE SET balance = EXCLUDED.balance",
+            nativeQuery = true)
+    int snapshotActiveUsers(@Param("asOf") Instant asOf);
+}
@@ -1,9 +1,39 @@
 package com.microservice.balance_service.repository;
 
 import com.microservice.balance_service.model.entity.UserBalance;
+import com.microservice.balance_service.model.projection.BalanceSnapshot;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.util.Optional;
 import java.util.UUID;
 
 public interface UserBalanceRepository extends JpaRepository<UserBalance, UUID> {
-}
\ No newline at end of file
+
+    // Атомарное приращение на стороне БД: параллельные события одного пользователя не теряют обновлений.
+    // RETURNING отдаёт новое значение и версию без отдельного чтения — их сразу пишет кэш.
+    // Без @Modifying: запрос возвращает строку, executeUpdate её бы отверг
+    @Transactional
+    @Query(value = "INSERT INTO user_balances (user_id, balance, updated_at, version) VALUES (:userId, :delta, now(), 1) " +
+            "ON CONFLICT (user_id) DO UPDATE SET balance = user_balances.balance + EXCLUDED.balance, " +
+            "updated_at = now(), version = user_balances.version + 1 " +
+            "RETURNING user_id AS \"userId\", balance AS balance, version AS version",
+            nativeQuery = true)
+    BalanceSnapshot applyDelta(@Param("userId") UUID userId, @Param("delta") BigDecimal delta);
+
+    @Query(value = "SELECT b.user_id AS \"userId\", b.balance AS balance, b.version AS version " +
+            "FROM user_balances b WHERE b.user_id = :userId",
+            nativeQuery = true)
+    Optional<BalanceSnapshot> findSnapshot(@Param("userId") UUID userId);
+
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO user_balances (user_id, balance, updated_at, version) VALUES (:userId, 0, now(), 0) " +
+            "ON CONFLICT (user_id) DO NOTHING",
+            nativeQuery = true)
+    int insertIfAbsent(@Param("userId") UUID userId);
+}
@@ -0,0 +1,13 @@
+package com.microservice.balance_service.service;
+
+import com.microservice.balance_service.model.dto.BalanceAtResponse;
+import com.microservice.balance_service.model.dto.BalanceSeriesResponse;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.UUID;
+
+public interface BalanceHistoryService {
+    BalanceAtResponse getBalanceAt(UUID userId, Instant at);
+    BalanceSeriesResponse getDailySeries(UUID userId, LocalDate from, LocalDate to);
+}
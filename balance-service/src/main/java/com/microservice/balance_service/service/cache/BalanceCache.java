@@ -0,0 +1,170 @@
+package com.microservice.balance_service.service.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microservice.balance_service.model.dto.UserBalanceResponse;
+import com.microservice.balance_service.model.projection.BalanceSnapshot;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Write-through balance cache. Entries carry the user_balances version, so a write older
+ * than the cached one is ignored regardless of the order in which writers reach Redis.
+ */
+@Component
+public class BalanceCache {
+    private static final Logger logger = LoggerFactory.getLogger(BalanceCache.class);
+
+    // Хэш {v, body} под новым префиксом: старые строковые ключи balance:user:* просто истекут
+    static final String KEY_PREFIX = "balance:snapshot:";
+
+    // Запись применяется, только если её версия строго новее сохранённой
+    static final String CAS_SCRIPT = """
+            local current = tonumber(redis.call('HGET', KEYS[1], 'v'))
+            if current and current >= tonumber(ARGV[1]) then
+              return 0
+            end
+            redis.call('HSET', KEYS[1], 'v', ARGV[1], 'body', ARGV[2])
+            redis.call('EXPIRE', KEYS[1], ARGV[3])
+            return 1
+            """;
+
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final long ttlSeconds;
+    private final RedisScript<Long> casScript = new DefaultRedisScript<>(CAS_SCRIPT, Long.class);
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter errors;
+    private final Counter applied;
+    private final Counter stale;
+
+    public BalanceCache(StringRedisTemplate redisTemplate,
+                        ObjectMapper objectMapper,
+                        MeterRegistry meterRegistry,
+                        @Value("${balance.cache.ttl-seconds:3600}") long ttlSeconds) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.ttlSeconds = ttlSeconds;
+        this.hits = meterRegistry.counter("balance.cache.requests", "result", "hit");
+        this.misses = meterRegistry.counter("balance.cache.requests", "result", "miss");
+        this.errors = meterRegistry.counter("balance.cache.requests", "result", "error");
+        this.applied = meterRegistry.counter("balance.cache.writes", "result", "applied");
+        this.stale = meterRegistry.counter("balance.cache.writes", "result", "stale");
+        Gauge.builder("balance.cache.hit.ratio", this, BalanceCache::hitRatio)
+                .description("Share of balance reads served from Redis since startup")
+                .register(meterRegistry);
+    }
+
+    // null — промах или недоступный Redis; вызывающий читает из БД
+    public UserBalanceResponse get(UUID userId) {
+        try {
+            Object body = redisTemplate.opsForHash().get(key(userId), "body");
+            if (body == null) {
+                misses.increment();
+                return null;
+            }
+            hits.increment();
+            return objectMapper.readValue(body.toString(), UserBalanceResponse.class);
+        } catch (Exception e) {
+            errors.increment();
+            logger.warn("Balance cache read failed for user {}: {}", userId, e.getMessage());
+            return null;
+        }
+    }
+
+    public boolean put(BalanceSnapshot snapshot) {
+        try {
+            Long result = redisTemplate.execute(casScript, List.of(key(snapshot.getUserId())),
+                    String.valueOf(snapshot.getVersion()), toJson(snapshot), String.valueOf(ttlSeconds));
+            return record(result);
+        } catch (Exception e) {
+            logger.warn("Balance cache write failed for user {}: {}", snapshot.getUserId(), e.getMessage());
+            return false;
+        }
+    }
+
+    // Пачка пользователей после коммита — один pipelined round trip
+    public void putAll(Collection<BalanceSnapshot> snapshots) {
+        if (snapshots.isEmpty()) {
+            return;
+        }
+        List<byte[][]> commands = new ArrayList<>(snapshots.size());
+        for (BalanceSnapshot snapshot : snapshots) {
+            commands.add(new byte[][]{
+                    bytes(key(snapshot.getUserId())),
+                    bytes(String.valueOf(snapshot.getVersion())),
+                    bytes(toJson(snapshot)),
+                    bytes(String.valueOf(ttlSeconds))});
+        }
+        byte[] script = bytes(CAS_SCRIPT);
+        try {
+            List<Object> results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (byte[][] keysAndArgs : commands) {
+                    connection.scriptingCommands().eval(script, ReturnType.INTEGER, 1, keysAndArgs);
+                }
+                return null;
+            });
+            results.forEach(result -> record((Long) result));
+        } catch (Exception e) {
+            // БД уже зафиксирована: лучше промах, чем устаревший баланс до конца TTL
+            logger.warn("Balance cache write failed for {} users, evicting: {}", snapshots.size(), e.getMessage());
+            evict(snapshots.stream().map(BalanceSnapshot::getUserId).toList());
+        }
+    }
+
+    public void evict(Collection<UUID> userIds) {
+        try {
+            redisTemplate.delete(userIds.stream().map(BalanceCache::key).toList());
+        } catch (Exception e) {
+            logger.error("Balance cache eviction failed for {} users: {}", userIds.size(), e.getMessage());
+        }
+    }
+
+    double hitRatio() {
+        double total = hits.count() + misses.count();
+        return total == 0 ? 0 : hits.count() / total;
+    }
+
+    private boolean record(Long result) {
+        if (result != null && result == 1L) {
+            applied.increment();
+            return true;
+        }
+        stale.increment();
+        return false;
+    }
+
+    private String toJson(BalanceSnapshot snapshot) {
+        try {
+            return objectMapper.writeValueAsString(new UserBalanceResponse(snapshot.getUserId(), snapshot.getBalance()));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize balance for user " + snapshot.getUserId(), e);
+        }
+    }
+
+    static String key(UUID userId) {
+        return KEY_PREFIX + userId;
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,52 @@
+package com.microservice.balance_service.service.impl;
+
+import com.microservice.balance_service.model.dto.TransactionEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Balance impact of transaction events: INCOME adds, EXPENSE subtracts, UPDATE swaps the old impact for the new one.
+ */
+public final class BalanceDeltas {
+    private static final Logger logger = LoggerFactory.getLogger(BalanceDeltas.class);
+
+    private BalanceDeltas() {
+    }
+
+    public static BigDecimal impact(TransactionEvent event) {
+        return switch (event.getOperation()) {
+            case "CREATE" -> signed(event.getAmount(), event.getType());
+            case "UPDATE" -> signed(event.getAmount(), event.getType())
+                    .subtract(signed(event.getOldAmount(), event.getOldType()));
+            case "DELETE" -> signed(event.getAmount(), event.getType()).negate();
+            default -> throw new IllegalArgumentException("Unsupported operation: " + event.getOperation());
+        };
+    }
+
+    // Сумма всех дельт пачки по пользователю: сложение коммутативно, порядок событий внутри пачки не важен
+    public static Map<UUID, BigDecimal> foldByUser(List<TransactionEvent> events) {
+        Map<UUID, BigDecimal> deltas = new LinkedHashMap<>();
+        for (TransactionEvent event : events) {
+            try {
+                deltas.merge(event.getUserId(), impact(event), BigDecimal::add);
+            } catch (RuntimeException e) {
+                logger.error("Skipping balance event {} for user {}: {}", event.getTransactionId(), event.getUserId(),
+                        e.getMessage());
+            }
+        }
+        return deltas;
+    }
+
+    private static BigDecimal signed(BigDecimal amount, String type) {
+        if (amount == null || type == null) {
+            throw new IllegalArgumentException("amount and type are required");
+        }
+        return "INCOME".equals(type) ? amount : amount.negate();
+    }
+}
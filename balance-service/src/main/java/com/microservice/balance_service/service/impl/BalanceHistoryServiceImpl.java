@@ -0,0 +1,103 @@
+package com.microservice.balance_service.service.impl;
+
+import com.microservice.balance_service.model.dto.BalanceAtResponse;
+import com.microservice.balance_service.model.dto.BalanceSeriesResponse;
+import com.microservice.balance_service.model.dto.DailyBalance;
+import com.microservice.balance_service.model.entity.LedgerSnapshot;
+import com.microservice.balance_service.model.projection.DailyLedgerTotal;
+import com.microservice.balance_service.repository.BalanceLedgerRepository;
+import com.microservice.balance_service.repository.LedgerSnapshotRepository;
+import com.microservice.balance_service.service.BalanceHistoryService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Point-in-time balances from the ledger: the nearest snapshot plus the deltas recorded after it.
+ */
+@Service
+public class BalanceHistoryServiceImpl implements BalanceHistoryService {
+
+    private final BalanceLedgerRepository ledgerRepository;
+    private final LedgerSnapshotRepository snapshotRepository;
+    private final int maxSeriesDays;
+
+    public BalanceHistoryServiceImpl(BalanceLedgerRepository ledgerRepository,
+                                     LedgerSnapshotRepository snapshotRepository,
+                                     @Value("${balance.ledger.max-series-days:366}") int maxSeriesDays) {
+        this.ledgerRepository = ledgerRepository;
+        this.snapshotRepository = snapshotRepository;
+        this.maxSeriesDays = maxSeriesDays;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public BalanceAtResponse getBalanceAt(UUID userId, Instant at) {
+        if (at == null) {
+            throw new IllegalArgumentException("at is required");
+        }
+        LedgerSnapshot base = nearestSnapshot(userId, at);
+        BigDecimal balance = balanceOf(base).add(ledgerRepository.sumBetween(userId, asOf(base), at));
+        return new BalanceAtResponse(userId, at, balance);
+    }
+
+    // Баланс на конец каждого дня: снимок на начало диапазона и по одной сумме на день после него
+    @Override
+    @Transactional(readOnly = true)
+    public BalanceSeriesResponse getDailySeries(UUID userId, LocalDate from, LocalDate to) {
+        if (from == null || to == null || to.isBefore(from)) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+        long days = ChronoUnit.DAYS.between(from, to) + 1;
+        if (days > maxSeriesDays) {
+            throw new IllegalArgumentException("Range must not exceed " + maxSeriesDays + " days");
+        }
+
+        Instant rangeStart = from.atStartOfDay(ZoneOffset.UTC).toInstant();
+        Instant rangeEnd = to.plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant();
+        LedgerSnapshot base = nearestSnapshot(userId, rangeStart);
+
+        // Дни между снимком и началом диапазона сворачиваются в стартовое значение
+        BigDecimal running = balanceOf(base);
+        Map<LocalDate, BigDecimal> totals = new HashMap<>();
+        for (DailyLedgerTotal total : ledgerRepository.dailyTotals(userId, asOf(base), rangeEnd)) {
+            LocalDate day = LocalDate.parse(total.getDay());
+            if (day.isBefore(from)) {
+                running = running.add(total.getTotal());
+            } else {
+                totals.put(day, total.getTotal());
+            }
+        }
+
+        List<DailyBalance> points = new ArrayList<>((int) days);
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            running = running.add(totals.getOrDefault(day, BigDecimal.ZERO));
+            points.add(new DailyBalance(day, running));
+        }
+        return new BalanceSeriesResponse(userId, from, to, points);
+    }
+
+    private LedgerSnapshot nearestSnapshot(UUID userId, Instant at) {
+        return snapshotRepository.findTopByIdUserIdAndIdAsOfLessThanEqualOrderByIdAsOfDesc(userId, at).orElse(null);
+    }
+
+    // Без снимка история начинается с нуля: все изменения пользователя есть в журнале
+    private static BigDecimal balanceOf(LedgerSnapshot snapshot) {
+        return snapshot != null ? snapshot.getBalance() : BigDecimal.ZERO;
+    }
+
+    private static Instant asOf(LedgerSnapshot snapshot) {
+        return snapshot != null ? snapshot.getId().getAsOf() : Instant.EPOCH;
+    }
+}
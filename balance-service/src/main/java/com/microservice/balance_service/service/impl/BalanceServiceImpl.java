@@ -1,22 +1,30 @@
 package com.microservice.balance_service.service.impl;
 
+import com.microservice.balance_service.config.KafkaConfig;
 import com.microservice.balance_service.model.dto.*;
+import com.microservice.balance_service.model.entity.BalanceLedgerEntry;
 import com.microservice.balance_service.model.entity.SavingsGoal;
-import com.microservice.balance_service.model.entity.UserBalance;
+import com.microservice.balance_service.model.projection.BalanceSnapshot;
+import com.microservice.balance_service.repository.BalanceLedgerRepository;
 import com.microservice.balance_service.repository.SavingsGoalRepository;
 import com.microservice.balance_service.repository.UserBalanceRepository;
 import com.microservice.balance_service.service.BalanceService;
+import com.microservice.balance_service.service.cache.BalanceCache;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
-import java.util.List;
-import java.util.UUID;
+import java.util.*;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
@@ -24,36 +32,33 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class BalanceServiceImpl implements BalanceService {
     private static final Logger logger = LoggerFactory.getLogger(BalanceServiceImpl.class);
-    private static final String BALANCE_CACHE_PREFIX = "balance:user:";
 
     private final UserBalanceRepository userBalanceRepository;
     private final SavingsGoalRepository savingsGoalRepository;
-    private final RedisTemplate<String, UserBalanceResponse> balanceRedisTemplate;
     private final RedisTemplate<String, Object> redisTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final BalanceCache balanceCache;
+    private final BalanceLedgerRepository balanceLedgerRepository;
 
 
+    // Кэш наполняет потребитель событий; в БД идут только пользователи без недавних изменений
     @Override
     public UserBalanceResponse getUserBalanceResponse(UUID userId) {
-        String cacheKey = BALANCE_CACHE_PREFIX + userId;
-
-        UserBalanceResponse cached = balanceRedisTemplate.opsForValue().get(cacheKey);
+        UserBalanceResponse cached = balanceCache.get(userId);
         if (cached != null) {
-            logger.info("Balance retrieved from cache for user: {}", userId);
             return cached;
         }
 
-        UserBalance userBalance = userBalanceRepository.findById(userId)
+        BalanceSnapshot snapshot = userBalanceRepository.findSnapshot(userId)
                 .orElseGet(() -> {
-                    UserBalance newBalance = new UserBalance();
-                    newBalance.setUserId(userId);
-                    newBalance.setBalance(BigDecimal.ZERO);
-                    newBalance.setUpdatedAt(Instant.now());
-                    return userBalanceRepository.save(newBalance);
+                    // Вставка без перезаписи: строку мог одновременно создать потребитель событий
+                    userBalanceRepository.insertIfAbsent(userId);
+                    return userBalanceRepository.findSnapshot(userId).orElseThrow();
                 });
 
-        UserBalanceResponse response = new UserBalanceResponse(userBalance.getUserId(), userBalance.getBalance());
-        balanceRedisTemplate.opsForValue().set(cacheKey, response, 10, TimeUnit.MINUTES);
-        return response;
+        // Прочитанная версия могла устареть, пока шёл запрос: тогда CAS её не запишет
+        balanceCache.put(snapshot);
+        return new UserBalanceResponse(snapshot.getUserId(), snapshot.getBalance());
     }
 
     @Override
@@ -77,75 +82,119 @@ public class BalanceServiceImpl implements BalanceService {
                 .collect(Collectors.toList());
     }
 
-    @KafkaListener(topics = "balance-update-topic", groupId = "balance-group", containerFactory = "kafkaListenerContainerFactory")
-    public void updateBalance(String eventJson) {
-        try {
-            TransactionEvent event = TransactionEvent.fromJson(eventJson);
-            String transactionId = event.getTransactionId();
-
-            if (redisTemplate.opsForValue().get("processed:" + transactionId) != null) {
-                logger.info("Transaction {} already processed", transactionId);
-                return;
-            }
-
-            UUID userId = event.getUserId();
-            UserBalance balance = userBalanceRepository.findById(userId)
-                    .orElseGet(() -> initializeBalance(userId));
-
-            switch (event.getOperation()) {
-                case "CREATE":
-                    updateBalanceForCreate(balance, event.getAmount(), event.getType());
-                    break;
-                case "UPDATE":
-                    updateBalanceForUpdate(balance, event.getAmount(), event.getType(),
-                            event.getOldAmount(), event.getOldType());
-                    break;
-                case "DELETE":
-                    updateBalanceForDelete(balance, event.getAmount(), event.getType());
-                    break;
+    // Пачка событий: Redis отсеивает заведомо обработанные, а решающая дедупликация — вставка в журнал
+    // с ON CONFLICT в той же транзакции, что и баланс: упавшая или прерванная пачка не оставляет отметок
+    // и при повторной доставке применяется заново. На пользователя — одна запись user_balances.
+    // Новые балансы после коммита сразу пишутся в кэш, а не вытесняются из него
+    @KafkaListener(topics = KafkaConfig.BALANCE_UPDATE_TOPIC, groupId = "balance-group", containerFactory = "kafkaListenerContainerFactory")
+    public void updateBalances(List<String> eventsJson) {
+        Map<String, TransactionEvent> unique = new LinkedHashMap<>();
+        for (String eventJson : eventsJson) {
+            try {
+                TransactionEvent event = TransactionEvent.fromJson(eventJson);
+                unique.putIfAbsent(event.dedupeKey(), event);
+            } catch (Exception e) {
+                logger.error("Skipping malformed balance update: {}", eventJson, e);
+                // TODO: Отправка в DLQ
             }
+        }
+        if (unique.isEmpty()) {
+            return;
+        }
 
-            userBalanceRepository.save(balance);
-            redisTemplate.opsForValue().set("processed:" + transactionId, "true", 1, TimeUnit.HOURS);
-            invalidateCache(userId);
-        } catch (Exception e) {
-            logger.error("Failed to process balance update: {}", eventJson, e);
-            // TODO: Отправка в DLQ
+        List<String> candidateKeys = filterUnmarked(new ArrayList<>(unique.keySet()));
+        if (candidateKeys.isEmpty()) {
+            logger.info("All {} balance events in batch were already processed", unique.size());
+            return;
         }
+        List<BalanceLedgerEntry> entries = toLedgerEntries(candidateKeys.stream().map(unique::get).toList(), Instant.now());
+
+        AppliedBatch applied = transactionTemplate.execute(status -> {
+            Set<String> inserted = balanceLedgerRepository.appendNew(entries);
+            Map<UUID, BigDecimal> deltas = BalanceDeltas.foldByUser(inserted.stream().map(unique::get).toList());
+            return new AppliedBatch(inserted.size(), applyDeltas(deltas));
+        });
+
+        markProcessed(entries.stream().map(BalanceLedgerEntry::getEventId).toList());
+        balanceCache.putAll(applied.snapshots());
+        logger.info("Applied {} balance events ({} duplicate or malformed skipped) to {} users",
+                applied.events(), eventsJson.size() - applied.events(), applied.snapshots().size());
     }
 
-    private UserBalance initializeBalance(UUID userId) {
-        UserBalance balance = new UserBalance();
-        balance.setUserId(userId);
-        balance.setBalance(BigDecimal.ZERO);
-        balance.setUpdatedAt(Instant.now());
-        return balance;
+    // Быстрый отсев по отметкам прошлых пачек одним pipelined EXISTS; при недоступном Redis решает журнал
+    private List<String> filterUnmarked(List<String> keys) {
+        try {
+            List<Object> results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (String key : keys) {
+                    connection.keyCommands().exists(key.getBytes(StandardCharsets.UTF_8));
+                }
+                return null;
+            });
+            List<String> unmarked = new ArrayList<>(keys.size());
+            for (int i = 0; i < keys.size(); i++) {
+                if (!Boolean.TRUE.equals(results.get(i))) {
+                    unmarked.add(keys.get(i));
+                }
+            }
+            return unmarked;
+        } catch (RuntimeException e) {
+            logger.warn("Processed-event pre-filter unavailable, relying on the ledger: {}", e.getMessage());
+            return keys;
+        }
     }
 
-    private void updateBalanceForCreate(UserBalance balance, BigDecimal amount, String type) {
-        balance.setBalance(type.equals("INCOME") ?
-                balance.getBalance().add(amount) :
-                balance.getBalance().subtract(amount));
-        balance.setUpdatedAt(Instant.now());
+    // Отметки ставятся только после коммита; потерянная отметка стоит лишь лишнего ON CONFLICT в журнале
+    private void markProcessed(List<String> keys) {
+        byte[] marker = "true".getBytes(StandardCharsets.UTF_8);
+        Expiration ttl = Expiration.from(1, TimeUnit.HOURS);
+        try {
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (String key : keys) {
+                    connection.stringCommands().set(key.getBytes(StandardCharsets.UTF_8), marker, ttl,
+                            RedisStringCommands.SetOption.upsert());
+                }
+                return null;
+            });
+        } catch (RuntimeException e) {
+            logger.warn("Failed to mark {} balance events as processed: {}", keys.size(), e.getMessage());
+        }
     }
 
-    private void updateBalanceForUpdate(UserBalance balance, BigDecimal newAmount, String newType,
-                                        BigDecimal oldAmount, String oldType) {
-        BigDecimal oldImpact = oldType.equals("INCOME") ? oldAmount : oldAmount.negate();
-        BigDecimal newImpact = newType.equals("INCOME") ? newAmount : newAmount.negate();
-        balance.setBalance(balance.getBalance().subtract(oldImpact).add(newImpact));
-        balance.setUpdatedAt(Instant.now());
+    // Нулевые события тоже попадают в журнал: это и аудит, и отметка об обработке
+    private static List<BalanceLedgerEntry> toLedgerEntries(List<TransactionEvent> events, Instant recordedAt) {
+        List<BalanceLedgerEntry> entries = new ArrayList<>(events.size());
+        for (TransactionEvent event : events) {
+            BigDecimal delta;
+            try {
+                delta = BalanceDeltas.impact(event);
+            } catch (RuntimeException e) {
+                logger.error("Skipping balance event {} for user {}: {}", event.getTransactionId(), event.getUserId(),
+                        e.getMessage());
+                continue;
+            }
+            BalanceLedgerEntry entry = new BalanceLedgerEntry();
+            entry.setEventId(event.dedupeKey());
+            entry.setUserId(event.getUserId());
+            entry.setTransactionId(event.getTransactionId());
+            entry.setOperation(event.getOperation());
+            entry.setDelta(delta);
+            entry.setRecordedAt(recordedAt);
+            entries.add(entry);
+        }
+        return entries;
     }
 
-    private void updateBalanceForDelete(UserBalance balance, BigDecimal amount, String type) {
-        balance.setBalance(type.equals("INCOME") ?
-                balance.getBalance().subtract(amount) :
-                balance.getBalance().add(amount));
-        balance.setUpdatedAt(Instant.now());
+    // Пользователи идут в одном порядке во всех потребителях, поэтому пересекающиеся пачки не взаимоблокируются
+    private List<BalanceSnapshot> applyDeltas(Map<UUID, BigDecimal> deltas) {
+        List<BalanceSnapshot> snapshots = new ArrayList<>(deltas.size());
+        new TreeMap<>(deltas).forEach((userId, delta) -> {
+            if (delta.signum() != 0) {
+                snapshots.add(userBalanceRepository.applyDelta(userId, delta));
+            }
+        });
+        return snapshots;
     }
 
-    private void invalidateCache(UUID userId) {
-        String cacheKey = BALANCE_CACHE_PREFIX + userId;
-        redisTemplate.delete(cacheKey);
+    private record AppliedBatch(int events, List<BalanceSnapshot> snapshots) {
     }
-}
\ No newline at end of file
+}
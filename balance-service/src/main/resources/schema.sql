@@ -3,7 +3,9 @@ CREATE EXTENSION IF NOT EXISTS pgcrypto;
 CREATE TABLE user_balances (
                                user_id UUID PRIMARY KEY,
                                balance DECIMAL(15, 2) NOT NULL DEFAULT 0.0,
-                               updated_at TIMESTAMP WITH TIME ZONE DEFAULT CURRENT_TIMESTAMP
+                               updated_at TIMESTAMP WITH TIME ZONE DEFAULT CURRENT_TIMESTAMP,
+                               -- растёт на каждое применённое изменение; по нему кэш отбрасывает устаревшие записи
+                               version BIGINT NOT NULL DEFAULT 0
 );
 
 CREATE TABLE savings_goals (
@@ -17,7 +19,29 @@ CREATE TABLE savings_goals (
                                FOREIGN KEY (user_id) REFERENCES user_balances(user_id)
 );
 
+-- Журнал применённых событий: event_id — ключ дедупликации, вставка с ON CONFLICT (event_id) DO NOTHING
+CREATE TABLE balance_ledger (
+                               id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+                               event_id VARCHAR(255) NOT NULL UNIQUE,
+                               user_id UUID NOT NULL,
+                               transaction_id VARCHAR(255) NOT NULL,
+                               operation VARCHAR(10) NOT NULL,
+                               delta DECIMAL(19, 2) NOT NULL,
+                               recorded_at TIMESTAMP WITH TIME ZONE NOT NULL
+);
+
+-- Баланс по всем записям журнала с recorded_at < as_of
+CREATE TABLE balance_ledger_snapshots (
+                               user_id UUID NOT NULL,
+                               as_of TIMESTAMP WITH TIME ZONE NOT NULL,
+                               balance DECIMAL(19, 2) NOT NULL,
+                               PRIMARY KEY (user_id, as_of)
+);
+
 CREATE INDEX idx_user_balances_user_id ON user_balances (user_id);
+CREATE INDEX idx_balance_ledger_user_recorded ON balance_ledger (user_id, recorded_at);
+CREATE INDEX idx_balance_ledger_recorded ON balance_ledger (recorded_at);
+CREATE INDEX idx_balance_ledger_snapshots_as_of ON balance_ledger_snapshots (as_of);
 CREATE INDEX idx_savings_goals_user_id ON savings_goals (user_id);
 
 CREATE OR REPLACE FUNCTION update_timestamp()
@@ -0,0 +1,131 @@
+package com.microservice.balance_service.integration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microservice.balance_service.model.dto.UserBalanceResponse;
+import com.microservice.balance_service.model.projection.BalanceSnapshot;
+import com.microservice.balance_service.service.cache.BalanceCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Версионная запись в кэш на живом Redis: устаревшая запись не перетирает более новую.
+ */
+@Testcontainers
+class BalanceCacheTest {
+
+    @Container
+    static final GenericContainer<?> redis = new GenericContainer<>("redis:7-alpine").withExposedPorts(6379);
+
+    private static LettuceConnectionFactory connectionFactory;
+    private static StringRedisTemplate redisTemplate;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @BeforeAll
+    static void connect() {
+        connectionFactory = new LettuceConnectionFactory(
+                new RedisStandaloneConfiguration(redis.getHost(), redis.getMappedPort(6379)));
+        connectionFactory.afterPropertiesSet();
+        redisTemplate = new StringRedisTemplate(connectionFactory);
+    }
+
+    @AfterAll
+    static void disconnect() {
+        connectionFactory.destroy();
+    }
+
+    @Test
+    void put_OlderVersionAfterNewer_IsRejected() {
+        // Arrange
+        BalanceCache cache = new BalanceCache(redisTemplate, new ObjectMapper(), meterRegistry, 60);
+        UUID userId = UUID.randomUUID();
+
+        // Act: читатель с версией 3 опоздал относительно потребителя с версией 5
+        boolean newer = cache.put(new Snapshot(userId, new BigDecimal("150.00"), 5));
+        boolean older = cache.put(new Snapshot(userId, new BigDecimal("90.00"), 3));
+
+        // Assert
+        assertTrue(newer);
+        assertFalse(older);
+        UserBalanceResponse cached = cache.get(userId);
+        assertEquals(0, new BigDecimal("150.00").compareTo(cached.getBalance()));
+        assertEquals(1.0, meterRegistry.counter("balance.cache.writes", "result", "stale").count());
+    }
+
+    @Test
+    void putAll_ConcurrentOutOfOrderWrites_KeepHighestVersion() throws Exception {
+        // Arrange
+        BalanceCache cache = new BalanceCache(redisTemplate, new ObjectMapper(), meterRegistry, 60);
+        UUID userId = UUID.randomUUID();
+        List<Integer> versions = new ArrayList<>();
+        for (int v = 1; v <= 200; v++) {
+            versions.add(v);
+        }
+        Collections.shuffle(versions);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        // Act: баланс равен версии, чтобы по значению было видно, какая запись победила
+        List<Future<?>> writes = new ArrayList<>();
+        for (int version : versions) {
+            writes.add(executor.submit(() ->
+                    cache.putAll(List.of(new Snapshot(userId, BigDecimal.valueOf(version), version)))));
+        }
+        for (Future<?> write : writes) {
+            write.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        // Assert
+        assertEquals(0, BigDecimal.valueOf(200).compareTo(cache.get(userId).getBalance()));
+        assertEquals("200", redisTemplate.opsForHash().get("balance:snapshot:" + userId, "v"));
+    }
+
+    @Test
+    void get_MissThenHit_ReportsHitRatio() {
+        // Arrange
+        BalanceCache cache = new BalanceCache(redisTemplate, new ObjectMapper(), meterRegistry, 60);
+        UUID userId = UUID.randomUUID();
+
+        // Act
+        assertNull(cache.get(userId));
+        cache.put(new Snapshot(userId, BigDecimal.TEN, 1));
+        assertNotNull(cache.get(userId));
+
+        // Assert
+        assertEquals(0.5, meterRegistry.get("balance.cache.hit.ratio").gauge().value());
+    }
+
+    private record Snapshot(UUID userId, BigDecimal balance, long version) implements BalanceSnapshot {
+        @Override
+        public UUID getUserId() {
+            return userId;
+        }
+
+        @Override
+        public BigDecimal getBalance() {
+            return balance;
+        }
+
+        @Override
+        public long getVersion() {
+            return version;
+        }
+    }
+}
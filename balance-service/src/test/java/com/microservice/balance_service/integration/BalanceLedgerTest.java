@@ -0,0 +1,179 @@
+package com.microservice.balance_service.integration;
+
+import com.microservice.balance_service.model.dto.BalanceSeriesResponse;
+import com.microservice.balance_service.model.dto.DailyBalance;
+import com.microservice.balance_service.model.entity.BalanceLedgerEntry;
+import com.microservice.balance_service.model.entity.LedgerSnapshot;
+import com.microservice.balance_service.repository.BalanceLedgerRepository;
+import com.microservice.balance_service.repository.LedgerSnapshotRepository;
+import com.microservice.balance_service.repository.UserBalanceRepository;
+import com.microservice.balance_service.service.impl.BalanceHistoryServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Журнал с начальным и дневным снимками: баланс на момент и дневной ряд совпадают с полным повтором дельт.
+ */
+@DataJpaTest
+@Testcontainers
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(BalanceHistoryServiceImpl.class)
+class BalanceLedgerTest {
+
+    @Container
+    static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15")
+            .withDatabaseName("balances_db")
+            .withUsername("postgres")
+            .withPassword("postgres");
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    @Autowired
+    private UserBalanceRepository userBalanceRepository;
+    @Autowired
+    private BalanceLedgerRepository ledgerRepository;
+    @Autowired
+    private LedgerSnapshotRepository snapshotRepository;
+    @Autowired
+    private BalanceHistoryServiceImpl historyService;
+
+    private final UUID userId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        // 100.00 накоплено до появления журнала, затем три события: +50 (1 марта), -30 (2 марта), +20 (4 марта)
+        userBalanceRepository.applyDelta(userId, new BigDecimal("100.00"));
+        record("2024-03-01T10:00:00Z", "50.00");
+        record("2024-03-02T12:00:00Z", "-30.00");
+        record("2024-03-04T09:00:00Z", "20.00");
+        ledgerRepository.flush();
+        snapshotRepository.seedOpeningBalances();
+    }
+
+    @Test
+    void snapshotActiveUsers_FoldsOpeningBalanceAndDeltasBeforeAsOf() {
+        // Act
+        snapshotRepository.snapshotActiveUsers(Instant.parse("2024-03-03T00:00:00Z"));
+
+        // Assert
+        LedgerSnapshot snapshot = snapshotRepository.findTopByIdUserIdAndIdAsOfLessThanEqualOrderByIdAsOfDesc(
+                userId, Instant.parse("2024-03-03T00:00:00Z")).orElseThrow();
+        assertEquals(Instant.parse("2024-03-03T00:00:00Z"), snapshot.getId().getAsOf());
+        assertEquals(0, new BigDecimal("120.00").compareTo(snapshot.getBalance()));
+    }
+
+    @Test
+    void snapshotActiveUsers_Rerun_PicksUpBatchCommittedAfterSnapshot() {
+        // Arrange: пачка с recorded_at до полуночи зафиксировалась уже после снимка
+        snapshotRepository.snapshotActiveUsers(Instant.parse("2024-03-03T00:00:00Z"));
+        record("2024-03-02T23:59:00Z", "7.00");
+
+        // Act: следующий прогон пересчитывает вчерашний снимок
+        snapshotRepository.snapshotActiveUsers(Instant.parse("2024-03-03T00:00:00Z"));
+
+        // Assert
+        assertBalance("127.00", historyService.getBalanceAt(userId, Instant.parse("2024-03-03T12:00:00Z")).getBalance());
+    }
+
+    @Test
+    void getBalanceAt_UsesNearestSnapshotPlusTail() {
+        // Arrange
+        snapshotRepository.snapshotActiveUsers(Instant.parse("2024-03-03T00:00:00Z"));
+
+        // Act & Assert
+        assertBalance("100.00", historyService.getBalanceAt(userId, Instant.parse("2024-02-28T00:00:00Z")).getBalance());
+        assertBalance("150.00", historyService.getBalanceAt(userId, Instant.parse("2024-03-02T00:00:00Z")).getBalance());
+        assertBalance("120.00", historyService.getBalanceAt(userId, Instant.parse("2024-03-03T12:00:00Z")).getBalance());
+        assertBalance("140.00", historyService.getBalanceAt(userId, Instant.parse("2024-03-05T00:00:00Z")).getBalance());
+    }
+
+    @Test
+    void getDailySeries_CarriesBalanceAcrossDaysWithoutEntries() {
+        // Arrange
+        snapshotRepository.snapshotActiveUsers(Instant.parse("2024-03-03T00:00:00Z"));
+
+        // Act
+        BalanceSeriesResponse series = historyService.getDailySeries(userId,
+                LocalDate.parse("2024-03-01"), LocalDate.parse("2024-03-05"));
+
+        // Assert
+        List<String> expected = List.of("150.00", "120.00", "120.00", "140.00", "140.00");
+        List<DailyBalance> points = series.getPoints();
+        assertEquals(expected.size(), points.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(LocalDate.parse("2024-03-01").plusDays(i), points.get(i).getDate());
+            assertBalance(expected.get(i), points.get(i).getBalance());
+        }
+    }
+
+    @Test
+    void appendNew_RedeliveredEvent_IsInsertedOnce() {
+        // Arrange
+        BalanceLedgerEntry entry = new BalanceLedgerEntry();
+        entry.setEventId("processed:" + UUID.randomUUID());
+        entry.setUserId(userId);
+        entry.setTransactionId(UUID.randomUUID().toString());
+        entry.setOperation("UPDATE");
+        entry.setDelta(new BigDecimal("-12.50"));
+        entry.setRecordedAt(Instant.parse("2024-03-05T08:00:00Z"));
+
+        // Act
+        Set<String> first = ledgerRepository.appendNew(List.of(entry));
+        Set<String> redelivered = ledgerRepository.appendNew(List.of(entry));
+
+        // Assert
+        assertEquals(Set.of(entry.getEventId()), first);
+        assertTrue(redelivered.isEmpty());
+        assertBalance("127.50", historyService.getBalanceAt(userId, Instant.parse("2024-03-06T00:00:00Z")).getBalance());
+    }
+
+    @Test
+    void getDailySeries_InvalidRange_Throws() {
+        assertThrows(IllegalArgumentException.class, () -> historyService.getDailySeries(userId,
+                LocalDate.parse("2024-03-05"), LocalDate.parse("2024-03-01")));
+        assertThrows(IllegalArgumentException.class, () -> historyService.getDailySeries(userId,
+                LocalDate.parse("2023-01-01"), LocalDate.parse("2024-12-31")));
+    }
+
+    // Журнал и user_balances меняются вместе, как в потребителе событий
+    private void record(String recordedAt, String delta) {
+        BalanceLedgerEntry entry = new BalanceLedgerEntry();
+        entry.setEventId("processed:" + UUID.randomUUID());
+        entry.setUserId(userId);
+        entry.setTransactionId(UUID.randomUUID().toString());
+        entry.setOperation("CREATE");
+        entry.setDelta(new BigDecimal(delta));
+        entry.setRecordedAt(Instant.parse(recordedAt));
+        ledgerRepository.save(entry);
+        userBalanceRepository.applyDelta(userId, new BigDecimal(delta));
+    }
+
+    private static void assertBalance(String expected, BigDecimal actual) {
+        assertEquals(0, new BigDecimal(expected).compareTo(actual), "Expected " + expected + " but was " + actual);
+    }
+}
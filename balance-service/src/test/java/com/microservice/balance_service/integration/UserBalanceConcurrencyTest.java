@@ -0,0 +1,116 @@
+package com.microservice.balance_service.integration;
+
+import com.microservice.balance_service.model.entity.UserBalance;
+import com.microservice.balance_service.repository.UserBalanceRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 16 потоков одновременно применяют дельты к одному пользователю: итог должен совпасть до копейки.
+ */
+@DataJpaTest
+@Testcontainers
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class UserBalanceConcurrencyTest {
+
+    private static final int THREADS = 16;
+    private static final int DELTAS_PER_THREAD = 500;
+
+    @Container
+    static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15")
+            .withDatabaseName("balances_db")
+            .withUsername("postgres")
+            .withPassword("postgres");
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.datasource.hikari.maximum-pool-size", () -> THREADS + 2);
+    }
+
+    @Autowired
+    private UserBalanceRepository userBalanceRepository;
+
+    @Test
+    void applyDelta_SixteenThreadsOnOneUser_LosesNoUpdates() throws Exception {
+        // Arrange: строки ещё нет — первые вставки тоже конкурируют между собой
+        UUID userId = UUID.randomUUID();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> workers = new ArrayList<>();
+
+        // Act: каждый поток чередует доход +1.25 и расход -0.50
+        for (int t = 0; t < THREADS; t++) {
+            workers.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < DELTAS_PER_THREAD; i++) {
+                    userBalanceRepository.applyDelta(userId, i % 2 == 0 ? new BigDecimal("1.25") : new BigDecimal("-0.50"));
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> worker : workers) {
+            worker.get(2, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+
+        // Assert: 16 · 250 · (1.25 - 0.50) = 3000.00
+        UserBalance balance = userBalanceRepository.findById(userId).orElseThrow();
+        assertEquals(0, new BigDecimal("3000.00").compareTo(balance.getBalance()),
+                "Expected 3000.00 but was " + balance.getBalance());
+        // Каждая дельта — ровно одна новая версия, по ним кэш упорядочивает записи
+        assertEquals((long) THREADS * DELTAS_PER_THREAD, balance.getVersion());
+    }
+
+    @Test
+    void insertIfAbsent_ConcurrentWithDeltas_DoesNotResetBalance() throws Exception {
+        // Arrange
+        UUID userId = UUID.randomUUID();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> workers = new ArrayList<>();
+
+        // Act: половина потоков пишет дельты, половина — "первое чтение" баланса
+        for (int t = 0; t < THREADS; t++) {
+            boolean writer = t % 2 == 0;
+            workers.add(executor.submit(() -> {
+                for (int i = 0; i < DELTAS_PER_THREAD; i++) {
+                    if (writer) {
+                        userBalanceRepository.applyDelta(userId, BigDecimal.ONE);
+                    } else {
+                        userBalanceRepository.insertIfAbsent(userId);
+                    }
+                }
+                return null;
+            }));
+        }
+        for (Future<?> worker : workers) {
+            worker.get(2, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+
+        // Assert
+        BigDecimal expected = BigDecimal.valueOf((long) THREADS / 2 * DELTAS_PER_THREAD);
+        assertEquals(0, expected.compareTo(userBalanceRepository.findById(userId).orElseThrow().getBalance()));
+    }
+}
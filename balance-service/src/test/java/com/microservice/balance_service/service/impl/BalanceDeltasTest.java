@@ -0,0 +1,91 @@
+package com.microservice.balance_service.service.impl;
+
+import com.microservice.balance_service.model.dto.TransactionEvent;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BalanceDeltasTest {
+
+    private final UUID alice = UUID.randomUUID();
+    private final UUID bob = UUID.randomUUID();
+
+    @Test
+    void foldByUser_SumsCreateUpdateDeletePerUser() {
+        // Arrange: документ из нескольких позиций плюс правка и удаление
+        List<TransactionEvent> events = List.of(
+                event(alice, "CREATE", "100.00", "INCOME", null, null),
+                event(alice, "CREATE", "30.00", "EXPENSE", null, null),
+                event(alice, "UPDATE", "45.00", "EXPENSE", "30.00", "EXPENSE"),
+                event(bob, "CREATE", "10.00", "EXPENSE", null, null),
+                event(alice, "DELETE", "100.00", "INCOME", null, null));
+
+        // Act
+        Map<UUID, BigDecimal> deltas = BalanceDeltas.foldByUser(events);
+
+        // Assert
+        assertEquals(new BigDecimal("-45.00"), deltas.get(alice));
+        assertEquals(new BigDecimal("-10.00"), deltas.get(bob));
+    }
+
+    @Test
+    void foldByUser_UpdateChangingType_SwapsSign() {
+        // Act
+        Map<UUID, BigDecimal> deltas = BalanceDeltas.foldByUser(List.of(
+                event(alice, "UPDATE", "20.00", "INCOME", "20.00", "EXPENSE")));
+
+        // Assert
+        assertEquals(new BigDecimal("40.00"), deltas.get(alice));
+    }
+
+    @Test
+    void foldByUser_UnknownOperation_IsSkipped() {
+        // Act
+        Map<UUID, BigDecimal> deltas = BalanceDeltas.foldByUser(List.of(
+                event(alice, "ARCHIVE", "20.00", "INCOME", null, null),
+                event(alice, "CREATE", "5.00", "INCOME", null, null)));
+
+        // Assert
+        assertEquals(new BigDecimal("5.00"), deltas.get(alice));
+    }
+
+    @Test
+    void dedupeKey_RepeatedIdenticalUpdates_AreDistinctEvents() {
+        // Arrange: правки A→B, B→A, A→B — первая и третья совпадают по полям, но это разные события
+        TransactionEvent first = event(alice, "UPDATE", "20.00", "EXPENSE", "10.00", "EXPENSE");
+        TransactionEvent third = event(alice, "UPDATE", "20.00", "EXPENSE", "10.00", "EXPENSE");
+        third.setTransactionId(first.getTransactionId());
+        first.setEventId(UUID.randomUUID().toString());
+        third.setEventId(UUID.randomUUID().toString());
+
+        // Act & Assert
+        assertNotEquals(first.dedupeKey(), third.dedupeKey());
+        assertEquals("processed:" + first.getEventId(), first.dedupeKey());
+    }
+
+    @Test
+    void dedupeKey_LegacyEventWithoutId_FallsBackToPayload() {
+        // Arrange
+        TransactionEvent create = event(alice, "CREATE", "1.00", "INCOME", null, null);
+
+        // Act & Assert
+        assertEquals("processed:" + create.getTransactionId() + ":CREATE", create.dedupeKey());
+    }
+
+    private TransactionEvent event(UUID userId, String operation, String amount, String type, String oldAmount, String oldType) {
+        TransactionEvent event = new TransactionEvent();
+        event.setTransactionId(UUID.randomUUID().toString());
+        event.setUserId(userId);
+        event.setOperation(operation);
+        event.setAmount(new BigDecimal(amount));
+        event.setType(type);
+        event.setOldAmount(oldAmount != null ? new BigDecimal(oldAmount) : null);
+        event.setOldType(oldType);
+        return event;
+    }
+}
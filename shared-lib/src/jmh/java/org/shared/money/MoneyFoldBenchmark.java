@@ -0,0 +1,77 @@
+package org.shared.money;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Million-row fold: current BigDecimal reduce chain vs. primitive minor-unit sums.
+ * Run with {@code ./gradlew jmh}; results land in {@code build/results/jmh/results.json}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class MoneyFoldBenchmark {
+
+    private static final int ROWS = 1_000_000;
+
+    private BigDecimal[] decimals;
+    private long[] minorUnits;
+    private String[] types;
+
+    @Setup
+    public void setUp() {
+        // Фиксированный seed: одинаковые данные между запусками и коммитами
+        Random random = new Random(42);
+        decimals = new BigDecimal[ROWS];
+        minorUnits = new long[ROWS];
+        types = new String[ROWS];
+        for (int i = 0; i < ROWS; i++) {
+            long cents = 1 + random.nextInt(5_000_000);
+            decimals[i] = BigDecimal.valueOf(cents, 2);
+            minorUnits[i] = cents;
+            types[i] = random.nextInt(5) == 0 ? "INCOME" : "EXPENSE";
+        }
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimalReduce() {
+        BigDecimal income = BigDecimal.ZERO;
+        BigDecimal expense = BigDecimal.ZERO;
+        for (int i = 0; i < ROWS; i++) {
+            if ("INCOME".equals(types[i])) {
+                income = income.add(decimals[i]);
+            } else {
+                expense = expense.add(decimals[i]);
+            }
+        }
+        return income.subtract(expense);
+    }
+
+    @Benchmark
+    public BigDecimal minorUnitsFold() {
+        long income = 0;
+        long expense = 0;
+        for (int i = 0; i < ROWS; i++) {
+            if ("INCOME".equals(types[i])) {
+                income += minorUnits[i];
+            } else {
+                expense += minorUnits[i];
+            }
+        }
+        return Money.toDecimal(income - expense);
+    }
+
+    // Входные данные остаются BigDecimal (как из JDBC), конвертация идёт на каждой строке
+    @Benchmark
+    public BigDecimal convertingFold() {
+        MoneySum income = new MoneySum();
+        MoneySum expense = new MoneySum();
+        for (int i = 0; i < ROWS; i++) {
+            (("INCOME".equals(types[i])) ? income : expense).add(decimals[i]);
+        }
+        return Money.toDecimal(income.getMinorUnits() - expense.getMinorUnits());
+    }
+}
@@ -9,6 +9,8 @@ import java.util.UUID;
 
 @Data
 public class TransactionEvent {
+    // Уникален для каждого события; по нему balance-service отбрасывает повторные доставки
+    private String eventId;
     private String transactionId;
     private UUID userId;
     private BigDecimal amount;
@@ -18,6 +20,7 @@ public class TransactionEvent {
     private String oldType; // Для UPDATE
 
     public TransactionEvent(String transactionId, UUID userId, BigDecimal amount, String type, String operation) {
+        this.eventId = UUID.randomUUID().toString();
         this.transactionId = transactionId;
         this.userId = userId;
         this.amount = amount;
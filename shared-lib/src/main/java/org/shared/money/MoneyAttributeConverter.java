@@ -0,0 +1,24 @@
+// org/shared/money/MoneyAttributeConverter.java
+package org.shared.money;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.math.BigDecimal;
+
+/**
+ * Maps {@link Money} to an existing {@code DECIMAL(p, 2)} column; apply with {@code @Convert}.
+ */
+@Converter
+public class MoneyAttributeConverter implements AttributeConverter<Money, BigDecimal> {
+
+    @Override
+    public BigDecimal convertToDatabaseColumn(Money attribute) {
+        return attribute != null ? attribute.toBigDecimal() : null;
+    }
+
+    @Override
+    public Money convertToEntityAttribute(BigDecimal dbData) {
+        return dbData != null ? Money.of(dbData) : null;
+    }
+}
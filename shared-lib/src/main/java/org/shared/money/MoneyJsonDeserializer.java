@@ -0,0 +1,31 @@
+// org/shared/money/MoneyJsonDeserializer.java
+package org.shared.money;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+
+/**
+ * Reads {@link Money} from a JSON number or numeric string in the default currency.
+ */
+public class MoneyJsonDeserializer extends StdDeserializer<Money> {
+
+    public MoneyJsonDeserializer() {
+        super(Money.class);
+    }
+
+    @Override
+    public Money deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+        BigDecimal amount = parser.currentToken().isNumeric()
+                ? parser.getDecimalValue()
+                : new BigDecimal(parser.getValueAsString().trim());
+        try {
+            return Money.of(amount);
+        } catch (ArithmeticException e) {
+            return (Money) context.handleWeirdNumberValue(Money.class, amount, "Amount does not fit into minor units");
+        }
+    }
+}
@@ -0,0 +1,40 @@
+// org/shared/money/MoneySum.java
+package org.shared.money;
+
+import java.math.BigDecimal;
+
+/**
+ * Mutable running total in minor units for aggregation loops: adding does not allocate.
+ */
+public final class MoneySum {
+    private long minorUnits;
+    private long count;
+
+    public MoneySum add(long minor) {
+        minorUnits = Math.addExact(minorUnits, minor);
+        count++;
+        return this;
+    }
+
+    public MoneySum add(BigDecimal amount) {
+        return add(Money.toMinor(amount));
+    }
+
+    public MoneySum merge(MoneySum other) {
+        minorUnits = Math.addExact(minorUnits, other.minorUnits);
+        count += other.count;
+        return this;
+    }
+
+    public long getMinorUnits() {
+        return minorUnits;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public BigDecimal toBigDecimal() {
+        return Money.toDecimal(minorUnits);
+    }
+}
@@ -31,20 +31,38 @@ public class KafkaUtils {
     @Retryable(value = RuntimeException.class, maxAttempts = 3, backoff = @Backoff(delay = 1000))
     public static <T> CompletableFuture<SendResult<String, String>> sendMessage(
             KafkaTemplate<String, String> kafkaTemplate, String topic, T message) {
+        return sendMessage(kafkaTemplate, topic, null, message);
+    }
+
+    /**
+     * Sends a keyed message: records with the same key land in the same partition,
+     * so consumers see them in the order they were produced.
+     *
+     * @param kafkaTemplate The KafkaTemplate instance to use for sending the message.
+     * @param topic         The Kafka topic to send the message to.
+     * @param key           The partition key (e.g. userId or documentId); null falls back to the default partitioner.
+     * @param message       The message object to send (must be serializable to JSON).
+     * @param <T>           The type of the message.
+     * @return CompletableFuture<SendResult<String, String>> representing the send operation.
+     */
+    @Retryable(value = RuntimeException.class, maxAttempts = 3, backoff = @Backoff(delay = 1000))
+    public static <T> CompletableFuture<SendResult<String, String>> sendMessage(
+            KafkaTemplate<String, String> kafkaTemplate, String topic, String key, T message) {
         try {
             String json = objectMapper.writeValueAsString(message);
-            ProducerRecord<String, String> record = new ProducerRecord<>(topic, json);
+            ProducerRecord<String, String> record = new ProducerRecord<>(topic, key, json);
 
             CompletableFuture<SendResult<String, String>> future = kafkaTemplate.send(record);
 
             future.whenComplete((result, ex) -> {
                 if (ex == null) {
-                    logger.info("Message sent successfully to topic '{}': message={}, offset={}",
-                            topic, message, result.getRecordMetadata().offset());
+                    logger.info("Message sent successfully to topic '{}': key={}, partition={}, offset={}, message={}",
+                            topic, key, result.getRecordMetadata().partition(),
+                            result.getRecordMetadata().offset(), message);
                 } else {
                     logger.error("Failed to send message to topic '{}': message={}, error={}",
                             topic, message, ex.getMessage(), ex);
-                    sendToDeadLetterQueue(kafkaTemplate, topic, json, message);
+                    sendToDeadLetterQueue(kafkaTemplate, topic, key, json, message);
                     throw new RuntimeException("Failed to send message to Kafka, sent to DLQ", ex);
                 }
             });
@@ -62,14 +80,15 @@ public class KafkaUtils {
      *
      * @param kafkaTemplate The KafkaTemplate instance to use.
      * @param originalTopic The original topic the message was sent to.
+     * @param key           The original partition key, kept so the DLQ preserves per-key ordering.
      * @param json          The serialized message content.
      * @param message       The original message for logging purposes.
      */
     private static <T> void sendToDeadLetterQueue(KafkaTemplate<String, String> kafkaTemplate, String originalTopic,
-                                                  String json, T message) {
+                                                  String key, String json, T message) {
         String dlqTopic = originalTopic + DLQ_SUFFIX;
         try {
-            ProducerRecord<String, String> dlqRecord = new ProducerRecord<>(dlqTopic, json);
+            ProducerRecord<String, String> dlqRecord = new ProducerRecord<>(dlqTopic, key, json);
             CompletableFuture<SendResult<String, String>> dlqFuture = kafkaTemplate.send(dlqRecord);
 
             dlqFuture.whenComplete((dlqResult, dlqEx) -> {
@@ -90,6 +109,7 @@ public class KafkaUtils {
     @Deprecated
     public static CompletableFuture<SendResult<String, String>> sendFeedback(
             KafkaTemplate<String, String> kafkaTemplate, String topic, FeedbackMessage message) {
-        return sendMessage(kafkaTemplate, topic, message);
+        // Фидбек по одному документу попадает в одну партицию и читается по порядку
+        return sendMessage(kafkaTemplate, topic, message.getDocumentId(), message);
     }
 }
\ No newline at end of file
@@ -0,0 +1,60 @@
+package org.shared.money;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoneyTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void toMinor_RoundsLikeNumericColumn() {
+        assertEquals(12345, Money.toMinor(new BigDecimal("123.45")));
+        assertEquals(1200, Money.toMinor(new BigDecimal("12")));
+        assertEquals(101, Money.toMinor(new BigDecimal("1.005")));
+        assertEquals(-101, Money.toMinor(new BigDecimal("-1.005")));
+        assertThrows(ArithmeticException.class, () -> Money.toMinor(new BigDecimal("1e30")));
+    }
+
+    @Test
+    void arithmetic_IsExactAndChecksCurrency() {
+        Money a = Money.of(new BigDecimal("10.10"));
+        Money b = Money.of(new BigDecimal("0.20"));
+
+        assertEquals(new BigDecimal("10.30"), a.plus(b).toBigDecimal());
+        assertEquals(new BigDecimal("-9.90"), b.minus(a).toBigDecimal());
+        assertThrows(IllegalArgumentException.class, () -> a.plus(Money.ofMinor(1, "EUR")));
+        assertThrows(ArithmeticException.class, () -> Money.ofMinor(Long.MAX_VALUE).plus(Money.ofMinor(1)));
+    }
+
+    @Test
+    void json_KeepsBigDecimalWireFormat() throws Exception {
+        Money money = Money.of(new BigDecimal("65.00"));
+
+        assertEquals("65.00", objectMapper.writeValueAsString(money));
+        assertEquals(money, objectMapper.readValue("65.00", Money.class));
+        assertEquals(money, objectMapper.readValue("\"65\"", Money.class));
+    }
+
+    @Test
+    void converter_RoundTripsDecimalColumn() {
+        MoneyAttributeConverter converter = new MoneyAttributeConverter();
+
+        assertEquals(new BigDecimal("7.50"), converter.convertToDatabaseColumn(Money.ofMinor(750)));
+        assertEquals(Money.ofMinor(750), converter.convertToEntityAttribute(new BigDecimal("7.5")));
+        assertNull(converter.convertToEntityAttribute(null));
+    }
+
+    @Test
+    void moneySum_AccumulatesMinorUnits() {
+        MoneySum sum = new MoneySum().add(new BigDecimal("1.10")).add(250);
+
+        assertEquals(360, sum.getMinorUnits());
+        assertEquals(2, sum.getCount());
+        assertEquals(new BigDecimal("3.60"), sum.toBigDecimal());
+    }
+}
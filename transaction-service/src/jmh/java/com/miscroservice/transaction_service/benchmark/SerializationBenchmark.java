@@ -0,0 +1,83 @@
+package com.miscroservice.transaction_service.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.miscroservice.transaction_service.config.RedisConfig;
+import com.miscroservice.transaction_service.model.dto.TransactionResponse;
+import com.miscroservice.transaction_service.model.dto.TransactionStatsResponse;
+import com.miscroservice.transaction_service.model.entity.Transaction;
+import com.miscroservice.transaction_service.service.mapper.TransactionMapper;
+import com.miscroservice.transaction_service.service.stats.TransactionStatsAggregator;
+import org.openjdk.jmh.annotations.*;
+import org.shared.dto.TransactionEvent;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Redis value round trips through the configured serializer (including the convertValue step TwoTierCache
+ * does on L2 hits) and the Kafka balance event JSON.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SerializationBenchmark {
+    private static final TypeReference<List<TransactionResponse>> TRANSACTION_LIST_TYPE = new TypeReference<>() {};
+
+    @Param({"10", "100"})
+    private int pageSize;
+
+    private final RedisSerializer<Object> serializer = RedisConfig.valueSerializer();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private List<TransactionResponse> page;
+    private byte[] pageBytes;
+    private TransactionStatsResponse stats;
+    private byte[] statsBytes;
+    private TransactionEvent event;
+    private String eventJson;
+
+    @Setup
+    public void setUp() {
+        page = SyntheticData.transactions(pageSize).stream().map(TransactionMapper::toResponse).toList();
+        pageBytes = serializer.serialize(page);
+        stats = TransactionStatsAggregator.aggregate(SyntheticData.aggregates(12));
+        statsBytes = serializer.serialize(stats);
+
+        Transaction transaction = SyntheticData.transactions(1).get(0);
+        event = new TransactionEvent(transaction.getId().toString(), transaction.getUserId(), transaction.getAmount(),
+                transaction.getType(), "UPDATE", transaction.getAmount().add(java.math.BigDecimal.TEN), "EXPENSE");
+        eventJson = event.toJson();
+    }
+
+    @Benchmark
+    public byte[] redisSerializePage() {
+        return serializer.serialize(page);
+    }
+
+    @Benchmark
+    public List<TransactionResponse> redisDeserializePage() {
+        return objectMapper.convertValue(serializer.deserialize(pageBytes), TRANSACTION_LIST_TYPE);
+    }
+
+    @Benchmark
+    public byte[] redisSerializeStats() {
+        return serializer.serialize(stats);
+    }
+
+    @Benchmark
+    public TransactionStatsResponse redisDeserializeStats() {
+        return objectMapper.convertValue(serializer.deserialize(statsBytes), TransactionStatsResponse.class);
+    }
+
+    @Benchmark
+    public String eventToJson() {
+        return event.toJson();
+    }
+
+    @Benchmark
+    public TransactionEvent eventFromJson() {
+        return TransactionEvent.fromJson(eventJson);
+    }
+}
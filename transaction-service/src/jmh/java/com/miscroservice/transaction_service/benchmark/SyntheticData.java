@@ -0,0 +1,99 @@
+package com.miscroservice.transaction_service.benchmark;
+
+import com.miscroservice.transaction_service.model.entity.Transaction;
+import com.miscroservice.transaction_service.model.projection.TransactionAggregate;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Deterministic generators: the same seed yields identical data on every run and every commit.
+ */
+final class SyntheticData {
+    static final long SEED = 42L;
+    static final Instant EPOCH = Instant.parse("2024-06-01T00:00:00Z");
+    static final String[] EXPENSE_CATEGORIES = {"Groceries", "Restaurants", "Transport", "Rent", "Utilities",
+            "Shopping", "Healthcare", "Travel", "Subscriptions", "Entertainment"};
+    static final String[] INCOME_CATEGORIES = {"Salary", "Freelance", "Investments", "Bonuses", "Cashback"};
+
+    private SyntheticData() {
+    }
+
+    static List<Transaction> transactions(int count) {
+        Random random = new Random(SEED);
+        UUID userId = new UUID(random.nextLong(), random.nextLong());
+        List<Transaction> transactions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            boolean income = random.nextInt(5) == 0;
+            Transaction transaction = new Transaction();
+            transaction.setId(new UUID(random.nextLong(), random.nextLong()));
+            transaction.setUserId(userId);
+            transaction.setAmount(BigDecimal.valueOf(1 + random.nextInt(500_000), 2));
+            transaction.setType(income ? "INCOME" : "EXPENSE");
+            transaction.setCategory(income
+                    ? INCOME_CATEGORIES[random.nextInt(INCOME_CATEGORIES.length)]
+                    : EXPENSE_CATEGORIES[random.nextInt(EXPENSE_CATEGORIES.length)]);
+            transaction.setDescription("Synthetic transaction #" + i);
+            transaction.setDate(EPOCH.minus(random.nextInt(3 * 365 * 24), ChronoUnit.HOURS));
+            transaction.setPaymentMethod(random.nextBoolean() ? "Card" : "Cash");
+            transaction.setCreatedAt(transaction.getDate());
+            transaction.setUpdatedAt(transaction.getDate());
+            transactions.add(transaction);
+        }
+        return transactions;
+    }
+
+    // Строки grouped-запроса: тип × категория × месяц, как их отдаёт БД/роллапы
+    static List<TransactionAggregate> aggregates(int months) {
+        Random random = new Random(SEED);
+        YearMonth first = YearMonth.from(EPOCH.atZone(java.time.ZoneOffset.UTC)).minusMonths(months - 1L);
+        List<TransactionAggregate> aggregates = new ArrayList<>();
+        for (int m = 0; m < months; m++) {
+            String month = first.plusMonths(m).toString();
+            for (String category : INCOME_CATEGORIES) {
+                aggregates.add(aggregate("INCOME", category, month, random));
+            }
+            for (String category : EXPENSE_CATEGORIES) {
+                aggregates.add(aggregate("EXPENSE", category, month, random));
+            }
+        }
+        return aggregates;
+    }
+
+    private static TransactionAggregate aggregate(String type, String category, String month, Random random) {
+        BigDecimal total = BigDecimal.valueOf(100 + random.nextInt(10_000_000), 2);
+        long count = 1 + random.nextInt(300);
+        return new TransactionAggregate() {
+            @Override
+            public String getType() {
+                return type;
+            }
+
+            @Override
+            public String getCategory() {
+                return category;
+            }
+
+            @Override
+            public String getMonth() {
+                return month;
+            }
+
+            @Override
+            public BigDecimal getTotal() {
+                return total;
+            }
+
+            @Override
+            public Long getCount() {
+                return count;
+            }
+        };
+    }
+}
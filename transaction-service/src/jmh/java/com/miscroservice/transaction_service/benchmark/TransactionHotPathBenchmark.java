@@ -0,0 +1,75 @@
+package com.miscroservice.transaction_service.benchmark;
+
+import com.miscroservice.transaction_service.model.dto.TransactionResponse;
+import com.miscroservice.transaction_service.model.dto.TransactionStatsResponse;
+import com.miscroservice.transaction_service.model.entity.Transaction;
+import com.miscroservice.transaction_service.model.projection.TransactionAggregate;
+import com.miscroservice.transaction_service.service.cache.CacheKeys;
+import com.miscroservice.transaction_service.service.mapper.TransactionMapper;
+import com.miscroservice.transaction_service.service.stats.TransactionStatsAggregator;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pure-CPU request paths: entity mapping, the stats fold and cache key construction.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TransactionHotPathBenchmark {
+
+    // Размер страницы листинга
+    @Param({"10", "100", "500"})
+    private int pageSize;
+
+    // Глубина статистики в месяцах: 15 бакетов (тип × категория) на месяц
+    @Param({"12", "60"})
+    private int statsMonths;
+
+    private List<Transaction> page;
+    private List<TransactionAggregate> aggregates;
+    private UUID userId;
+    private Instant startDate;
+    private Instant endDate;
+
+    @Setup
+    public void setUp() {
+        page = SyntheticData.transactions(pageSize);
+        aggregates = SyntheticData.aggregates(statsMonths);
+        userId = page.get(0).getUserId();
+        startDate = SyntheticData.EPOCH.minusSeconds(86_400 * 30L);
+        endDate = SyntheticData.EPOCH;
+    }
+
+    @Benchmark
+    public void mapToResponse(Blackhole blackhole) {
+        for (Transaction transaction : page) {
+            blackhole.consume(TransactionMapper.toResponse(transaction));
+        }
+    }
+
+    @Benchmark
+    public List<TransactionResponse> mapPage() {
+        return page.stream().map(TransactionMapper::toResponse).toList();
+    }
+
+    @Benchmark
+    public TransactionStatsResponse statsAggregation() {
+        return TransactionStatsAggregator.aggregate(aggregates);
+    }
+
+    @Benchmark
+    public String transactionsCacheKey() {
+        return CacheKeys.transactions(userId, 17L, startDate, endDate, "Groceries", "EXPENSE", 3, pageSize);
+    }
+
+    @Benchmark
+    public String statsCacheKey() {
+        return CacheKeys.stats(userId, 17L, startDate.toString(), endDate.toString());
+    }
+}
@@ -1,16 +1,30 @@
 package com.miscroservice.transaction_service.config;
 
 import com.miscroservice.transaction_service.model.dto.TransactionItemDto;
+import com.miscroservice.transaction_service.service.TransactionService;
+import org.apache.kafka.clients.admin.NewTopic;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.TopicPartition;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.thread.Threading;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.config.TopicBuilder;
 import org.springframework.kafka.core.*;
+import org.springframework.kafka.listener.ConsumerRecordRecoverer;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.listener.DefaultErrorHandler;
 import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+import org.springframework.util.backoff.FixedBackOff;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -21,6 +35,12 @@ public class KafkaConfig {
     @Value("${spring.kafka.bootstrap-servers}")
     private String bootstrapServers;
 
+    private final Environment environment;
+
+    public KafkaConfig(Environment environment) {
+        this.environment = environment;
+    }
+
     @Bean
     public ConsumerFactory<String, TransactionItemDto> transactionConsumerFactory() {
         Map<String, Object> configProps = new HashMap<>();
@@ -38,14 +58,78 @@ public class KafkaConfig {
     }
 
     @Bean
-    public ConcurrentKafkaListenerContainerFactory<String, TransactionItemDto> kafkaListenerContainerFactory() {
+    public ConcurrentKafkaListenerContainerFactory<String, TransactionItemDto> kafkaListenerContainerFactory(
+            DefaultErrorHandler transactionIngestErrorHandler) {
         ConcurrentKafkaListenerContainerFactory<String, TransactionItemDto> factory =
                 new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(transactionConsumerFactory());
         factory.setConcurrency(3); // Adjust based on load
+        factory.setCommonErrorHandler(transactionIngestErrorHandler);
+        applyThreading(factory, "transaction-listener-");
+        return factory;
+    }
+
+    // Пакетный режим для transactions-topic: одна транзакция БД и один flush продюсера на poll
+    @Bean
+    public ConsumerFactory<String, TransactionItemDto> batchTransactionConsumerFactory(
+            @Value("${transactions.ingest.batch.max-poll-records:500}") int maxPollRecords) {
+        Map<String, Object> configProps = new HashMap<>();
+        configProps.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        configProps.put(ConsumerConfig.GROUP_ID_CONFIG, "transaction-group");
+        configProps.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        configProps.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxPollRecords);
+
+        JsonDeserializer<TransactionItemDto> deserializer = new JsonDeserializer<>(TransactionItemDto.class, false);
+        deserializer.addTrustedPackages("com.miscroservice.transaction_service.model.dto");
+
+        return new DefaultKafkaConsumerFactory<>(configProps, new StringDeserializer(), deserializer);
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, TransactionItemDto> batchKafkaListenerContainerFactory(
+            ConsumerFactory<String, TransactionItemDto> batchTransactionConsumerFactory,
+            DefaultErrorHandler transactionIngestErrorHandler) {
+        ConcurrentKafkaListenerContainerFactory<String, TransactionItemDto> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(batchTransactionConsumerFactory);
+        factory.setBatchListener(true);
+        factory.setConcurrency(3);
+        factory.setCommonErrorHandler(transactionIngestErrorHandler);
+        applyThreading(factory, "transaction-batch-listener-");
         return factory;
     }
 
+    // Слушатель пачки сообщает индекс упавшей записи (BatchListenerFailedException): записи до неё фиксируются,
+    // она повторяется max-retries раз, затем уходит в <topic>-dlq, и только после этого документ получает FAILED —
+    // один раз, а не на каждой повторной доставке. Остаток пачки доставляется заново
+    @Bean
+    public DefaultErrorHandler transactionIngestErrorHandler(
+            KafkaTemplate<String, Object> ingestDlqKafkaTemplate,
+            @Lazy TransactionService transactionService,
+            @Value("${transactions.ingest.retry.interval-ms:1000}") long retryIntervalMs,
+            @Value("${transactions.ingest.retry.max-retries:3}") long maxRetries) {
+        DeadLetterPublishingRecoverer deadLetter = new DeadLetterPublishingRecoverer(ingestDlqKafkaTemplate,
+                (record, ex) -> new TopicPartition(record.topic() + "-dlq", -1));
+        ConsumerRecordRecoverer recoverer = (record, ex) -> {
+            deadLetter.accept(record, ex);
+            if (record.value() instanceof TransactionItemDto item) {
+                transactionService.reportTransactionItemFailed(item,
+                        NestedExceptionUtils.getMostSpecificCause(ex).getMessage());
+            }
+        };
+        return new DefaultErrorHandler(recoverer, new FixedBackOff(retryIntervalMs, maxRetries));
+    }
+
+    @Bean
+    public KafkaTemplate<String, Object> ingestDlqKafkaTemplate() {
+        Map<String, Object> configProps = new HashMap<>();
+        configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
+        configProps.put(JsonSerializer.ADD_TYPE_INFO_HEADERS, false);
+        return new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(configProps));
+    }
+
     @Bean
     public ProducerFactory<String, String> feedbackProducerFactory() {
         Map<String, Object> configProps = new HashMap<>();
@@ -60,12 +144,16 @@ public class KafkaConfig {
         return new KafkaTemplate<>(feedbackProducerFactory());
     }
 
+    // Идемпотентный продюсер: внутренние повторы не переставляют и не дублируют события одной партиции
     @Bean
     public ProducerFactory<String, String> balanceProducerFactory() {
         Map<String, Object> configProps = new HashMap<>();
         configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
         configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        configProps.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        configProps.put(ProducerConfig.ACKS_CONFIG, "all");
+        configProps.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, 5);
         return new DefaultKafkaProducerFactory<>(configProps);
     }
 
@@ -74,6 +162,16 @@ public class KafkaConfig {
         return new KafkaTemplate<>(balanceProducerFactory());
     }
 
+    // События баланса идут с ключом userId: события одного пользователя упорядочены внутри партиции,
+    // а разные пользователи обрабатываются параллельно. Число партиций = потолок параллелизма balance-service.
+    // KafkaAdmin только добавляет партиции; после увеличения часть пользователей переедет в новые партиции
+    @Bean
+    public NewTopic balanceUpdateTopic(@Value("${kafka.topic.balance-update}") String topic,
+                                       @Value("${kafka.topic.balance-update.partitions:6}") int partitions,
+                                       @Value("${kafka.topic.balance-update.replicas:1}") short replicas) {
+        return TopicBuilder.name(topic).partitions(partitions).replicas(replicas).build();
+    }
+
 
     @Bean
     public ConsumerFactory<String, String> dlqConsumerFactory() {
@@ -92,7 +190,17 @@ public class KafkaConfig {
                 new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(dlqConsumerFactory());
         factory.setConcurrency(1); // Одна нить для DLQ
+        applyThreading(factory, "transaction-dlq-listener-");
         return factory;
     }
 
+    // При spring.threads.virtual.enabled=true на JDK 21+ потоки консьюмеров — виртуальные, как и у Tomcat
+    private void applyThreading(ConcurrentKafkaListenerContainerFactory<?, ?> factory, String threadNamePrefix) {
+        if (Threading.VIRTUAL.isActive(environment)) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(threadNamePrefix);
+            executor.setVirtualThreads(true);
+            factory.getContainerProperties().setListenerTaskExecutor(executor);
+        }
+    }
+
 }
\ No newline at end of file
@@ -1,11 +1,16 @@
 package com.miscroservice.transaction_service.config;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.miscroservice.transaction_service.service.cache.CacheInvalidationListener;
+import com.miscroservice.transaction_service.service.cache.TwoTierCache;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
 @Configuration
@@ -16,11 +21,23 @@ public class RedisConfig {
         RedisTemplate<String, Object> template = new RedisTemplate<>();
         template.setConnectionFactory(connectionFactory);
         template.setKeySerializer(new StringRedisSerializer());
-
-        ObjectMapper objectMapper = new ObjectMapper();
-        Jackson2JsonRedisSerializer<Object> serializer = new Jackson2JsonRedisSerializer<>(objectMapper, Object.class);
-        template.setValueSerializer(serializer);
+        template.setValueSerializer(valueSerializer());
 
         return template;
     }
-}
\ No newline at end of file
+
+    // Общий для шаблона и JMH-бенчмарков, чтобы замеры шли через тот же сериализатор
+    public static RedisSerializer<Object> valueSerializer() {
+        return new Jackson2JsonRedisSerializer<>(new ObjectMapper(), Object.class);
+    }
+
+    // Межсервисная инвалидация L1: каждая реплика подписана на канал и сбрасывает локальные копии
+    @Bean
+    public RedisMessageListenerContainer cacheInvalidationListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                            CacheInvalidationListener listener) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(listener, new ChannelTopic(TwoTierCache.INVALIDATION_CHANNEL));
+        return container;
+    }
+}
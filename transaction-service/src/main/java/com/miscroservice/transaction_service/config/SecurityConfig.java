@@ -1,7 +1,9 @@
 package com.miscroservice.transaction_service.config;
 
+import com.miscroservice.transaction_service.security.IdempotencyFilter;
 import com.miscroservice.transaction_service.security.JwtAuthFilter;
 import com.miscroservice.transaction_service.security.JwtUtil;
+import com.miscroservice.transaction_service.service.idempotency.IdempotencyStore;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
@@ -17,6 +19,7 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 public class SecurityConfig {
 
     private final JwtUtil jwtUtil;
+    private final IdempotencyStore idempotencyStore;
 
     @Bean
     public JwtAuthFilter jwtAuthFilter() {
@@ -34,6 +37,8 @@ public class SecurityConfig {
                         .anyRequest().authenticated()
                 )
                 .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class)
+                // Не бин: иначе контейнер зарегистрирует фильтр ещё раз, до аутентификации
+                .addFilterAfter(new IdempotencyFilter(idempotencyStore), UsernamePasswordAuthenticationFilter.class)
                 .exceptionHandling().authenticationEntryPoint((request, response, authException) -> {
                     response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Authentication required");
                 });
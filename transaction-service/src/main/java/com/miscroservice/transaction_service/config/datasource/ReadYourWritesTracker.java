@@ -0,0 +1,60 @@
+package com.miscroservice.transaction_service.config.datasource;
+
+import com.miscroservice.transaction_service.service.cache.CacheRegion;
+import com.miscroservice.transaction_service.service.cache.TwoTierCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-user write fences: after a commit, the user's reads stay on the primary until a replica has replayed
+ * the primary's WAL position taken at that commit (or the fence expires).
+ */
+@Component
+public class ReadYourWritesTracker {
+    private static final Logger logger = LoggerFactory.getLogger(ReadYourWritesTracker.class);
+    private static final String FENCE_PREFIX = "ryw:fence:user:";
+
+    private final TwoTierCache twoTierCache;
+    private final ReplicaSet replicaSet;
+
+    // Верхняя граница прилипания к primary, даже если реплика так и не догнала
+    @Value("${transactions.datasource.max-stickiness-seconds:30}")
+    private long maxStickinessSeconds;
+
+    public ReadYourWritesTracker(TwoTierCache twoTierCache, ReplicaSet replicaSet) {
+        this.twoTierCache = twoTierCache;
+        this.replicaSet = replicaSet;
+    }
+
+    // Вызывается после коммита записи пользователя
+    public void recordWrite(UUID userId) {
+        if (!replicaSet.isEnabled()) {
+            return;
+        }
+        String key = FENCE_PREFIX + userId;
+        try {
+            twoTierCache.put(CacheRegion.READ_FENCES, key, replicaSet.currentPrimaryLsn(), maxStickinessSeconds, TimeUnit.SECONDS);
+            // Сбрасывает отрицательные L1-записи на остальных репликах сервиса
+            twoTierCache.evict(CacheRegion.READ_FENCES, key);
+        } catch (Exception e) {
+            logger.warn("Failed to record write fence for user: {}", userId, e);
+        }
+    }
+
+    public boolean isCaughtUp(UUID userId, String replica) {
+        String key = FENCE_PREFIX + userId;
+        try {
+            long fence = twoTierCache.getOrDefault(CacheRegion.READ_FENCES, key, Long.class, 0L);
+            return fence == 0L || replicaSet.replayedLsn(replica) >= fence;
+        } catch (Exception e) {
+            // Без информации о последней записи безопаснее читать из primary
+            logger.warn("Failed to read write fence for user: {}", userId, e);
+            return false;
+        }
+    }
+}
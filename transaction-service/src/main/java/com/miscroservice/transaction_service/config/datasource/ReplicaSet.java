@@ -0,0 +1,103 @@
+package com.miscroservice.transaction_service.config.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Read-replica pools and how far each has replayed the primary's WAL.
+ */
+public class ReplicaSet {
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaSet.class);
+    // На primary pg_last_wal_replay_lsn() = NULL, поэтому реплика, указывающая на primary, всегда "догнала"
+    private static final String REPLAY_LSN_SQL =
+            "SELECT COALESCE(pg_last_wal_replay_lsn(), pg_current_wal_lsn())::text";
+    private static final String CURRENT_LSN_SQL = "SELECT pg_current_wal_lsn()::text";
+
+    private final JdbcTemplate primary;
+    private final Map<String, HikariDataSource> replicas;
+    private final Map<String, Long> replayedLsn = new ConcurrentHashMap<>();
+    private volatile long primaryLsn;
+
+    public ReplicaSet(DataSource primaryDataSource, Map<String, HikariDataSource> replicas, MeterRegistry meterRegistry) {
+        this.primary = new JdbcTemplate(primaryDataSource);
+        this.replicas = new LinkedHashMap<>(replicas);
+        this.replicas.keySet().forEach(name -> {
+            replayedLsn.put(name, 0L);
+            Gauge.builder("datasource.replica.lag.bytes", this, set -> set.lagBytes(name))
+                    .tag("replica", name)
+                    .description("Primary WAL position minus the replica's replayed position")
+                    .register(meterRegistry);
+        });
+    }
+
+    public boolean isEnabled() {
+        return !replicas.isEmpty();
+    }
+
+    public List<String> names() {
+        return List.copyOf(replicas.keySet());
+    }
+
+    public Map<String, HikariDataSource> dataSources() {
+        return replicas;
+    }
+
+    public long currentPrimaryLsn() {
+        return parseLsn(primary.queryForObject(CURRENT_LSN_SQL, String.class));
+    }
+
+    public long replayedLsn(String replica) {
+        return replayedLsn.getOrDefault(replica, 0L);
+    }
+
+    @Scheduled(fixedDelayString = "${transactions.datasource.lag-poll-ms:200}")
+    public void poll() {
+        if (replicas.isEmpty()) {
+            return;
+        }
+        try {
+            primaryLsn = currentPrimaryLsn();
+        } catch (Exception e) {
+            logger.warn("Failed to read primary WAL position", e);
+        }
+        replicas.forEach((name, dataSource) -> {
+            try {
+                replayedLsn.put(name, parseLsn(new JdbcTemplate(dataSource).queryForObject(REPLAY_LSN_SQL, String.class)));
+            } catch (Exception e) {
+                // Недоступная реплика считается отставшей: чтения с ограждением уйдут в primary
+                replayedLsn.put(name, 0L);
+                logger.warn("Failed to read replay position of replica {}", name, e);
+            }
+        });
+    }
+
+    private double lagBytes(String replica) {
+        return Math.max(0, primaryLsn - replayedLsn(replica));
+    }
+
+    // pg_lsn в текстовом виде — "XXXXXXXX/XXXXXXXX" (старшие и младшие 32 бита)
+    static long parseLsn(String lsn) {
+        if (lsn == null) {
+            return 0L;
+        }
+        int slash = lsn.indexOf('/');
+        return (Long.parseLong(lsn.substring(0, slash), 16) << 32) | Long.parseLong(lsn.substring(slash + 1), 16);
+    }
+
+    @PreDestroy
+    public void close() {
+        replicas.values().forEach(HikariDataSource::close);
+    }
+}
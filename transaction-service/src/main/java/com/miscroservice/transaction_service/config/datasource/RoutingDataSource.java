@@ -0,0 +1,92 @@
+package com.miscroservice.transaction_service.config.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Sends read-only transactions to replicas (round robin) and everything else to the primary.
+ * Must sit behind a LazyConnectionDataSourceProxy so the key is resolved after the transaction's
+ * read-only flag is set.
+ */
+public class RoutingDataSource extends AbstractRoutingDataSource {
+    public static final String PRIMARY = "primary";
+    private static final ThreadLocal<UUID> CURRENT_USER = new ThreadLocal<>();
+
+    private final List<String> replicas;
+    private final ReadYourWritesTracker tracker;
+    private final AtomicInteger next = new AtomicInteger();
+    private final Counter primaryRoutes;
+    private final Counter fencedRoutes;
+    private final Counter replicaRoutes;
+
+    public RoutingDataSource(List<String> replicas, ReadYourWritesTracker tracker, MeterRegistry meterRegistry) {
+        this.replicas = List.copyOf(replicas);
+        this.tracker = tracker;
+        this.primaryRoutes = route(meterRegistry, "primary");
+        this.fencedRoutes = route(meterRegistry, "primary_fenced");
+        this.replicaRoutes = route(meterRegistry, "replica");
+    }
+
+    // Для потоков без SecurityContext (асинхронная выгрузка, слушатели)
+    public static <T> T callAs(UUID userId, Supplier<T> action) {
+        UUID previous = CURRENT_USER.get();
+        CURRENT_USER.set(userId);
+        try {
+            return action.get();
+        } finally {
+            if (previous != null) {
+                CURRENT_USER.set(previous);
+            } else {
+                CURRENT_USER.remove();
+            }
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (replicas.isEmpty() || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            primaryRoutes.increment();
+            return PRIMARY;
+        }
+        String replica = replicas.get(Math.floorMod(next.getAndIncrement(), replicas.size()));
+        UUID userId = currentUser();
+        if (userId != null && !tracker.isCaughtUp(userId, replica)) {
+            fencedRoutes.increment();
+            return PRIMARY;
+        }
+        replicaRoutes.increment();
+        return replica;
+    }
+
+    private static UUID currentUser() {
+        UUID explicit = CURRENT_USER.get();
+        if (explicit != null) {
+            return explicit;
+        }
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !(authentication.getPrincipal() instanceof String principal)) {
+            return null;
+        }
+        try {
+            return UUID.fromString(principal);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static Counter route(MeterRegistry meterRegistry, String route) {
+        return Counter.builder("datasource.routes")
+                .tag("route", route)
+                .description("Connections handed out per routing decision")
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,38 @@
+package com.miscroservice.transaction_service.controller;
+
+import com.miscroservice.transaction_service.model.projection.RollupDrift;
+import com.miscroservice.transaction_service.service.StatsRollupService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Admin operations for stats rollups, available as the {@code rollups} actuator endpoint.
+ * Not exposed over HTTP unless listed in {@code management.endpoints.web.exposure.include}.
+ */
+@Component
+@Endpoint(id = "rollups")
+@RequiredArgsConstructor
+public class RollupAdminEndpoint {
+
+    private final StatsRollupService statsRollupService;
+
+    @ReadOperation
+    public Map<String, Object> verify(@Nullable UUID userId) {
+        List<RollupDrift> drift = statsRollupService.verify(userId);
+        return Map.of("driftedBuckets", drift.size(), "drift", drift);
+    }
+
+    @WriteOperation
+    public Map<String, Object> rebuild(@Nullable UUID userId) {
+        int buckets = statsRollupService.rebuild(userId);
+        return Map.of("rebuiltBuckets", buckets);
+    }
+}
@@ -1,8 +1,16 @@
 package com.miscroservice.transaction_service.controller;
 
+import com.miscroservice.transaction_service.model.dto.BulkTransactionRequest;
+import com.miscroservice.transaction_service.model.dto.BulkTransactionResponse;
+import com.miscroservice.transaction_service.model.dto.ExportFormat;
+import com.miscroservice.transaction_service.model.dto.StatsRange;
+import com.miscroservice.transaction_service.model.dto.TransactionCursorPage;
 import com.miscroservice.transaction_service.model.dto.TransactionRequest;
 import com.miscroservice.transaction_service.model.dto.TransactionResponse;
+import com.miscroservice.transaction_service.model.dto.TransactionSearchResponse;
 import com.miscroservice.transaction_service.model.dto.TransactionStatsResponse;
+import com.miscroservice.transaction_service.service.TransactionExportService;
+import com.miscroservice.transaction_service.service.TransactionSearchService;
 import com.miscroservice.transaction_service.service.TransactionService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -10,11 +18,14 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.Instant;
 import java.util.List;
@@ -26,6 +37,8 @@ import java.util.UUID;
 public class TransactionController {
 
     private final TransactionService transactionService;
+    private final TransactionExportService transactionExportService;
+    private final TransactionSearchService transactionSearchService;
 
 
     @PostMapping
@@ -37,6 +50,15 @@ public class TransactionController {
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
+    // Пакет операций (CREATE/UPDATE/DELETE) одной транзакцией; результат возвращается по каждой позиции
+    @PostMapping("/bulk")
+    public ResponseEntity<BulkTransactionResponse> applyBulk(
+            @Valid @RequestBody BulkTransactionRequest request,
+            @AuthenticationPrincipal String userId) {
+        BulkTransactionResponse response = transactionService.applyBulk(request.getOperations(), UUID.fromString(userId));
+        return ResponseEntity.ok(response);
+    }
+
     @GetMapping
     public ResponseEntity<Page<TransactionResponse>> getTransactions(
             @AuthenticationPrincipal String userId,
@@ -52,6 +74,57 @@ public class TransactionController {
         return ResponseEntity.ok(transactions);
     }
 
+    // Keyset-пагинация для глубокой прокрутки: без OFFSET и без COUNT(*), если includeTotal=false
+    @GetMapping("/cursor")
+    public ResponseEntity<TransactionCursorPage> getTransactionsByCursor(
+            @AuthenticationPrincipal String userId,
+            @RequestParam(value = "startDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant startDate,
+            @RequestParam(value = "endDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant endDate,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+        TransactionCursorPage transactions = transactionService.getTransactionsAfter(
+                UUID.fromString(userId), startDate, endDate, category, type, cursor, size, includeTotal);
+        return ResponseEntity.ok(transactions);
+    }
+
+    // Поиск по описанию и категории: полнотекстовый с префиксами плюс триграммы для опечаток
+    @GetMapping("/search")
+    public ResponseEntity<TransactionSearchResponse> searchTransactions(
+            @AuthenticationPrincipal String userId,
+            @RequestParam("q") String query,
+            @RequestParam(value = "startDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant startDate,
+            @RequestParam(value = "endDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant endDate,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) String type,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        TransactionSearchResponse response = transactionSearchService.search(
+                UUID.fromString(userId), query, startDate, endDate, category, type, page, size);
+        return ResponseEntity.ok(response);
+    }
+
+    // Потоковая выгрузка без пагинации: ответ пишется чанками по мере чтения курсора БД
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportTransactions(
+            @AuthenticationPrincipal String userId,
+            @RequestParam(value = "startDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant startDate,
+            @RequestParam(value = "endDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant endDate,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) String type,
+            @RequestParam(defaultValue = "ndjson") String format) {
+        ExportFormat exportFormat = ExportFormat.fromParameter(format);
+        UUID user = UUID.fromString(userId);
+        StreamingResponseBody body = out ->
+                transactionExportService.export(user, startDate, endDate, category, type, exportFormat, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"transactions." + exportFormat.getExtension() + "\"")
+                .body(body);
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<TransactionResponse> updateTransaction(
             @PathVariable UUID id,
@@ -74,8 +147,12 @@ public class TransactionController {
     public ResponseEntity<TransactionStatsResponse> getStats(
             @AuthenticationPrincipal String userId,
             @RequestParam(required = false) String startDate,
-            @RequestParam(required = false) String endDate) {
-        TransactionStatsResponse stats = transactionService.getStats(UUID.fromString(userId), startDate, endDate);
+            @RequestParam(required = false) String endDate,
+            @RequestParam(required = false) String range) {
+        // Типовые диапазоны (current-month, last-30-days, year-to-date) пересчитываются заранее после записей
+        TransactionStatsResponse stats = range != null
+                ? transactionService.getStats(UUID.fromString(userId), StatsRange.fromParameter(range))
+                : transactionService.getStats(UUID.fromString(userId), startDate, endDate);
         return ResponseEntity.ok(stats);
     }
 }
\ No newline at end of file
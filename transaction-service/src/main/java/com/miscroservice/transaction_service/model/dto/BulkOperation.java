@@ -0,0 +1,15 @@
+package com.miscroservice.transaction_service.model.dto;
+
+import lombok.Data;
+
+import java.util.UUID;
+
+@Data
+public class BulkOperation {
+    // CREATE, UPDATE или DELETE
+    private String op;
+    // Обязателен для UPDATE и DELETE
+    private UUID id;
+    // Обязателен для CREATE и UPDATE
+    private TransactionRequest transaction;
+}
@@ -0,0 +1,19 @@
+package com.miscroservice.transaction_service.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkOperationResult {
+    // Позиция операции во входном массиве
+    private int index;
+    // CREATED, UPDATED, DELETED или REJECTED
+    private String status;
+    private UUID id;
+    private String error;
+}
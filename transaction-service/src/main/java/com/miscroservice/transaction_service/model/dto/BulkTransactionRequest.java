@@ -0,0 +1,13 @@
+package com.miscroservice.transaction_service.model.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BulkTransactionRequest {
+
+    @NotEmpty(message = "Operations cannot be empty")
+    private List<BulkOperation> operations;
+}
@@ -0,0 +1,16 @@
+package com.miscroservice.transaction_service.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkTransactionResponse {
+    private List<BulkOperationResult> results;
+    private int applied;
+    private int rejected;
+}
@@ -0,0 +1,49 @@
+package com.miscroservice.transaction_service.model.dto;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+
+/**
+ * Dashboard ranges with day-granular bounds (UTC), so every request during a day maps to the same
+ * cache key and can be served from the precomputed entry.
+ */
+public enum StatsRange {
+    CURRENT_MONTH("current-month"),
+    LAST_30_DAYS("last-30-days"),
+    YEAR_TO_DATE("year-to-date");
+
+    private final String parameter;
+
+    StatsRange(String parameter) {
+        this.parameter = parameter;
+    }
+
+    public String getParameter() {
+        return parameter;
+    }
+
+    public String startDate(LocalDate today) {
+        LocalDate start = switch (this) {
+            case CURRENT_MONTH -> today.withDayOfMonth(1);
+            case LAST_30_DAYS -> today.minusDays(29);
+            case YEAR_TO_DATE -> today.withDayOfYear(1);
+        };
+        return start.atStartOfDay(ZoneOffset.UTC).toInstant().toString();
+    }
+
+    // Включительная граница: последняя секунда сегодняшнего дня
+    public String endDate(LocalDate today) {
+        Instant endOfDay = today.plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant().minusSeconds(1);
+        return endOfDay.toString();
+    }
+
+    public static StatsRange fromParameter(String value) {
+        for (StatsRange range : values()) {
+            if (range.parameter.equalsIgnoreCase(value) || range.name().equalsIgnoreCase(value)) {
+                return range;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported stats range: " + value);
+    }
+}
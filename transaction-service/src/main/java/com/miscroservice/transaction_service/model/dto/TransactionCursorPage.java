@@ -0,0 +1,19 @@
+package com.miscroservice.transaction_service.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionCursorPage {
+    private List<TransactionResponse> content;
+    // Непрозрачный токен следующей страницы; null, если страниц больше нет
+    private String nextCursor;
+    private boolean hasNext;
+    // Заполняется только при includeTotal=true
+    private Long totalElements;
+}
@@ -0,0 +1,17 @@
+package com.miscroservice.transaction_service.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionSearchResponse {
+    private List<TransactionSearchResult> results;
+    private int page;
+    private int size;
+    private boolean hasNext;
+}
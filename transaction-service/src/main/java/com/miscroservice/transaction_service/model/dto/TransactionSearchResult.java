@@ -0,0 +1,16 @@
+package com.miscroservice.transaction_service.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionSearchResult {
+    private TransactionResponse transaction;
+    // ts_rank_cd + word_similarity: больше — релевантнее
+    private double rank;
+    // Фрагмент описания с найденными словами в <mark>...</mark>
+    private String highlight;
+}
@@ -1,10 +1,12 @@
 package com.miscroservice.transaction_service.model.entity;
 
+import com.miscroservice.transaction_service.service.category.CategoryChangeListener;
 import jakarta.persistence.*;
 import lombok.Data;
 
 @Entity
 @Table(name = "categories")
+@EntityListeners(CategoryChangeListener.class)
 @Data
 public class Category {
 
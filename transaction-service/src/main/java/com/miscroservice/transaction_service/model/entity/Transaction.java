@@ -7,8 +7,12 @@ import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.UUID;
 
+// Таблица секционирована по месяцам date (db/migration/V2), первичный ключ в БД — (id, date)
 @Entity
-@Table(name = "transactions")
+@Table(name = "transactions", indexes = {
+        @Index(name = "idx_transactions_user_date_id", columnList = "user_id, date DESC, id DESC"),
+        @Index(name = "idx_transactions_user_category_date", columnList = "user_id, category, date")
+})
 @Data
 public class Transaction {
 
@@ -0,0 +1,51 @@
+package com.miscroservice.transaction_service.model.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.shared.money.Money;
+import org.shared.money.MoneyAttributeConverter;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Materialized per-user monthly totals, maintained by applying deltas on every transaction write.
+ */
+@Entity
+@Table(name = "user_monthly_rollup")
+@Data
+public class UserMonthlyRollup {
+
+    @EmbeddedId
+    private Key id;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    @Convert(converter = MoneyAttributeConverter.class)
+    private Money total;
+
+    @Column(nullable = false)
+    private long count;
+
+    @Embeddable
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+
+        @Column(name = "user_id", nullable = false)
+        private UUID userId;
+
+        // Первый день месяца (UTC)
+        @Column(nullable = false)
+        private LocalDate month;
+
+        @Column(nullable = false)
+        private String category;
+
+        @Column(nullable = false)
+        private String type;
+    }
+}
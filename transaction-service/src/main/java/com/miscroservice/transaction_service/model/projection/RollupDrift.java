@@ -0,0 +1,25 @@
+package com.miscroservice.transaction_service.model.projection;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * A rollup bucket whose stored total or count differs from the raw transactions.
+ */
+public interface RollupDrift {
+    UUID getUserId();
+
+    String getMonth();
+
+    String getCategory();
+
+    String getType();
+
+    BigDecimal getExpectedTotal();
+
+    BigDecimal getActualTotal();
+
+    Long getExpectedCount();
+
+    Long getActualCount();
+}
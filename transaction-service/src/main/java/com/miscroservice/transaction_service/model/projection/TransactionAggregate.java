@@ -0,0 +1,19 @@
+package com.miscroservice.transaction_service.model.projection;
+
+import java.math.BigDecimal;
+
+/**
+ * One row of a grouped stats query: the sum and count of a user's transactions
+ * for a single (type, category, month) bucket. Month is formatted as {@code yyyy-MM} (UTC).
+ */
+public interface TransactionAggregate {
+    String getType();
+
+    String getCategory();
+
+    String getMonth();
+
+    BigDecimal getTotal();
+
+    Long getCount();
+}
@@ -0,0 +1,27 @@
+package com.miscroservice.transaction_service.model.projection;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * One search match: the transaction columns shown in results, its relevance score and a highlighted
+ * description fragment ({@code <mark>}-wrapped terms, null when the row has no description).
+ */
+public interface TransactionSearchHit {
+    UUID getId();
+
+    BigDecimal getAmount();
+
+    String getType();
+
+    String getCategory();
+
+    String getDescription();
+
+    Instant getDate();
+
+    Double getRank();
+
+    String getHighlight();
+}
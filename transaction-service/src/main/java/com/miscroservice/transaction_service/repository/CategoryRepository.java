@@ -2,6 +2,7 @@ package com.miscroservice.transaction_service.repository;
 
 import com.miscroservice.transaction_service.model.entity.Category;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 import java.util.List;
 import java.util.Optional;
@@ -9,4 +10,9 @@ import java.util.Optional;
 public interface CategoryRepository extends JpaRepository<Category, Integer> {
     Optional<Category> findByName(String name);
     List<Category> findAllByType(String type);
+
+    // Дешёвый отпечаток содержимого таблицы для периодической проверки изменений
+    @Query(value = "SELECT COALESCE(md5(string_agg(id || ':' || name || ':' || type, ',' ORDER BY id)), '') FROM categories",
+            nativeQuery = true)
+    String fingerprint();
 }
\ No newline at end of file
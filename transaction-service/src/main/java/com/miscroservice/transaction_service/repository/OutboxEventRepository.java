@@ -0,0 +1,49 @@
+package com.miscroservice.transaction_service.repository;
+
+import com.miscroservice.transaction_service.model.entity.OutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    // Ключи из головы очереди, захваченные advisory-блокировкой до конца транзакции. Ключ, который уже
+    // разбирает другая реплика, пропускается: события одного ключа публикует только один relay и по порядку.
+    // MATERIALIZED: блокировка берётся ровно по одному разу на ключ из выборки, а не при каждом чтении CTE
+    @Query(value = """
+            WITH candidate_keys AS MATERIALIZED (
+                SELECT DISTINCT COALESCE(event_key, '') AS event_key
+                FROM (SELECT event_key FROM outbox_events WHERE sent_at IS NULL ORDER BY id LIMIT :limit) head
+            )
+            SELECT event_key FROM candidate_keys
+            WHERE pg_try_advisory_xact_lock(hashtext('outbox_events'), hashtext(event_key))
+            """, nativeQuery = true)
+    List<String> lockPendingKeys(@Param("limit") int limit);
+
+    // Отдельный запрос после захвата ключей: в READ COMMITTED его снимок уже видит коммит предыдущего владельца
+    @Query(value = """
+            SELECT * FROM outbox_events
+            WHERE sent_at IS NULL AND COALESCE(event_key, '') IN (:keys)
+            ORDER BY id
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<OutboxEvent> findUnsentByKeys(@Param("keys") List<String> keys, @Param("limit") int limit);
+
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.sentAt = :sentAt WHERE e.id IN :ids")
+    int markSent(@Param("ids") List<Long> ids, @Param("sentAt") Instant sentAt);
+
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.attempts = e.attempts + 1 WHERE e.id IN :ids")
+    int incrementAttempts(@Param("ids") List<Long> ids);
+
+    @Modifying
+    @Query("DELETE FROM OutboxEvent e WHERE e.sentAt < :before")
+    int deleteSentBefore(@Param("before") Instant before);
+
+    long countBySentAtIsNull();
+}
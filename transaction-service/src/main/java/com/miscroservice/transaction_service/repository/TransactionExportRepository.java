@@ -0,0 +1,14 @@
+package com.miscroservice.transaction_service.repository;
+
+import com.miscroservice.transaction_service.model.entity.Transaction;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.stream.Stream;
+
+/**
+ * Forward-only reads for exports. Must be consumed inside a transaction and closed by the caller.
+ */
+public interface TransactionExportRepository {
+
+    Stream<Transaction> streamAll(Specification<Transaction> spec, int fetchSize);
+}
@@ -0,0 +1,34 @@
+package com.miscroservice.transaction_service.repository;
+
+import com.miscroservice.transaction_service.model.entity.Transaction;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.stream.Stream;
+
+class TransactionExportRepositoryImpl implements TransactionExportRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Stream<Transaction> streamAll(Specification<Transaction> spec, int fetchSize) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Transaction> query = cb.createQuery(Transaction.class);
+        Root<Transaction> root = query.from(Transaction.class);
+        query.where(spec.toPredicate(root, query, cb));
+        query.orderBy(cb.asc(root.get("date")), cb.asc(root.get("id")));
+
+        // Fetch size > 0 внутри транзакции включает серверный курсор pgjdbc вместо загрузки всего результата
+        return entityManager.createQuery(query)
+                .setHint(AvailableHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(AvailableHints.HINT_READ_ONLY, true)
+                .setHint(AvailableHints.HINT_CACHEABLE, false)
+                .getResultStream();
+    }
+}
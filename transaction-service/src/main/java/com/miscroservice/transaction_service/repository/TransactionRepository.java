@@ -1,9 +1,14 @@
 package com.miscroservice.transaction_service.repository;
 
 import com.miscroservice.transaction_service.model.entity.Transaction;
+import com.miscroservice.transaction_service.model.projection.TransactionAggregate;
+import com.miscroservice.transaction_service.model.projection.TransactionSearchHit;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
@@ -12,19 +17,93 @@ import java.time.LocalDate;
 import java.util.List;
 import java.util.UUID;
 
-public interface TransactionRepository extends JpaRepository<Transaction, UUID> {
+public interface TransactionRepository extends JpaRepository<Transaction, UUID>, JpaSpecificationExecutor<Transaction>,
+        TransactionExportRepository {
     List<Transaction> findByUserId(UUID userId);
-    @Query("SELECT t FROM Transaction t WHERE t.userId = :userId " +
-            "AND (COALESCE(:startDate, t.date) = t.date OR t.date >= :startDate) " +
-            "AND (COALESCE(:endDate, t.date) = t.date OR t.date <= :endDate) " +
-            "AND (COALESCE(:category, t.category) = t.category) " +
-            "AND (COALESCE(:type, t.type) = t.type)")
-    Page<Transaction> findByFilters(
+
+    // Фильтры собираются динамически: в SQL попадают только переданные условия
+    default Page<Transaction> findByFilters(UUID userId, Instant startDate, Instant endDate,
+                                            String category, String type, Pageable pageable) {
+        Pageable ordered = pageable.getSort().isSorted()
+                ? pageable
+                : PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), TransactionSpecifications.NEWEST_FIRST);
+        return findAll(TransactionSpecifications.filter(userId, startDate, endDate, category, type), ordered);
+    }
+
+    // Keyset-пагинация: первая страница без курсора, дальше — поиск строго после (date, id)
+    default List<Transaction> findFirstByFilters(UUID userId, Instant startDate, Instant endDate,
+                                                 String category, String type, int limit) {
+        return findBy(TransactionSpecifications.filter(userId, startDate, endDate, category, type),
+                query -> query.sortBy(TransactionSpecifications.NEWEST_FIRST).limit(limit).all());
+    }
+
+    default List<Transaction> findNextByFilters(UUID userId, Instant startDate, Instant endDate,
+                                                String category, String type,
+                                                Instant cursorDate, UUID cursorId, int limit) {
+        Specification<Transaction> spec = TransactionSpecifications.filter(userId, startDate, endDate, category, type)
+                .and(TransactionSpecifications.after(cursorDate, cursorId));
+        return findBy(spec,
+                query -> query.sortBy(TransactionSpecifications.NEWEST_FIRST).limit(limit).all());
+    }
+
+    default long countByFilters(UUID userId, Instant startDate, Instant endDate, String category, String type) {
+        return count(TransactionSpecifications.filter(userId, startDate, endDate, category, type));
+    }
+
+    // Агрегация статистики на стороне БД: одна строка на (type, category, month)
+    @Query(value = "SELECT t.type AS type, t.category AS category, " +
+            "to_char(date_trunc('month', t.date AT TIME ZONE 'UTC'), 'YYYY-MM') AS month, " +
+            "SUM(t.amount) AS total, COUNT(*) AS count " +
+            "FROM transactions t " +
+            "WHERE t.user_id = :userId AND t.date >= :startDate AND t.date <= :endDate " +
+            "GROUP BY t.type, t.category, date_trunc('month', t.date AT TIME ZONE 'UTC')",
+            nativeQuery = true)
+    List<TransactionAggregate> aggregateByUserBetween(
+            @Param("userId") UUID userId,
+            @Param("startDate") Instant startDate,
+            @Param("endDate") Instant endDate);
+
+    // Полуоткрытый интервал [startDate, endDate) — для краёв диапазона, не покрытых роллапами
+    @Query(value = "SELECT t.type AS type, t.category AS category, " +
+            "to_char(date_trunc('month', t.date AT TIME ZONE 'UTC'), 'YYYY-MM') AS month, " +
+            "SUM(t.amount) AS total, COUNT(*) AS count " +
+            "FROM transactions t " +
+            "WHERE t.user_id = :userId AND t.date >= :startDate AND t.date < :endDate " +
+            "GROUP BY t.type, t.category, date_trunc('month', t.date AT TIME ZONE 'UTC')",
+            nativeQuery = true)
+    List<TransactionAggregate> aggregateByUserInRange(
             @Param("userId") UUID userId,
             @Param("startDate") Instant startDate,
-            @Param("endDate") Instant endDate,
-            @Param("category") String category,
-            @Param("type") String type,
-            Pageable pageable);
+            @Param("endDate") Instant endDate);
 
-}
\ No newline at end of file
+    // Совпадение по tsvector (префиксный tsquery) или по триграммам описания — для опечаток.
+    // ts_headline дорогой, поэтому считается только для строк уже отобранной страницы.
+    // Колонки ответа возвращаются сразу: повторное чтение по id без даты обошло бы все партиции
+    @Query(value = "WITH matches AS (" +
+            "  SELECT t.id, t.amount, t.type, t.category, t.date, t.description, " +
+            "         ts_rank_cd(t.search_vector, to_tsquery('simple', :tsQuery)) " +
+            "           + word_similarity(:text, coalesce(t.description, '')) AS rank " +
+            "  FROM transactions t " +
+            "  WHERE t.user_id = :userId AND t.date >= :startDate AND t.date <= :endDate " +
+            "    AND (CAST(:category AS varchar) IS NULL OR t.category = CAST(:category AS varchar)) " +
+            "    AND (CAST(:type AS varchar) IS NULL OR t.type = CAST(:type AS varchar)) " +
+            "    AND (t.search_vector @@ to_tsquery('simple', :tsQuery) OR :text <% t.description) " +
+            "  ORDER BY rank DESC, t.date DESC, t.id " +
+            "  LIMIT :limit OFFSET :offset" +
+            ") " +
+            "SELECT m.id AS id, m.amount AS amount, m.type AS type, m.category AS category, " +
+            "       m.description AS description, m.date AS date, m.rank AS rank, " +
+            "       ts_headline('simple', m.description, to_tsquery('simple', :tsQuery), " +
+            "                   'StartSel=<mark>, StopSel=</mark>, MaxFragments=2, MinWords=3, MaxWords=12') AS highlight " +
+            "FROM matches m ORDER BY m.rank DESC, m.date DESC, m.id",
+            nativeQuery = true)
+    List<TransactionSearchHit> search(@Param("userId") UUID userId,
+                                      @Param("text") String text,
+                                      @Param("tsQuery") String tsQuery,
+                                      @Param("startDate") Instant startDate,
+                                      @Param("endDate") Instant endDate,
+                                      @Param("category") String category,
+                                      @Param("type") String type,
+                                      @Param("limit") int limit,
+                                      @Param("offset") int offset);
+}
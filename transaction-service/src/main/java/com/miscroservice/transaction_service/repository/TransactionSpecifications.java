@@ -0,0 +1,54 @@
+package com.miscroservice.transaction_service.repository;
+
+import com.miscroservice.transaction_service.model.entity.Transaction;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Builds transaction filters so that only the supplied predicates reach the SQL,
+ * letting Postgres use the (user_id, date DESC, id DESC) and (user_id, category, date) indexes.
+ */
+public final class TransactionSpecifications {
+
+    // Порядок совпадает с индексом idx_transactions_user_date_id (user_id, date DESC, id DESC): без отдельной сортировки
+    public static final Sort NEWEST_FIRST = Sort.by(Sort.Order.desc("date"), Sort.Order.desc("id"));
+
+    private TransactionSpecifications() {
+    }
+
+    public static Specification<Transaction> filter(UUID userId, Instant startDate, Instant endDate,
+                                                    String category, String type) {
+        Specification<Transaction> spec = belongsTo(userId);
+        if (startDate != null) {
+            spec = spec.and((root, query, cb) -> cb.greaterThanOrEqualTo(root.get("date"), startDate));
+        }
+        if (endDate != null) {
+            spec = spec.and((root, query, cb) -> cb.lessThanOrEqualTo(root.get("date"), endDate));
+        }
+        if (category != null) {
+            spec = spec.and((root, query, cb) -> cb.equal(root.get("category"), category));
+        }
+        if (type != null) {
+            spec = spec.and((root, query, cb) -> cb.equal(root.get("type"), type));
+        }
+        return spec;
+    }
+
+    // Строго после позиции курсора в порядке NEWEST_FIRST: date < :date OR (date = :date AND id < :id).
+    // OR сам по себе не превращается в диапазон индекса, поэтому рядом избыточное date <= :date —
+    // с ним скан начинается с позиции курсора, а не с самых новых строк
+    public static Specification<Transaction> after(Instant cursorDate, UUID cursorId) {
+        return (root, query, cb) -> cb.and(
+                cb.lessThanOrEqualTo(root.get("date"), cursorDate),
+                cb.or(
+                        cb.lessThan(root.get("date"), cursorDate),
+                        cb.and(cb.equal(root.get("date"), cursorDate), cb.lessThan(root.get("id"), cursorId))));
+    }
+
+    private static Specification<Transaction> belongsTo(UUID userId) {
+        return (root, query, cb) -> cb.equal(root.get("userId"), userId);
+    }
+}
@@ -0,0 +1,100 @@
+package com.miscroservice.transaction_service.repository;
+
+import com.miscroservice.transaction_service.model.entity.UserMonthlyRollup;
+import com.miscroservice.transaction_service.model.projection.RollupDrift;
+import com.miscroservice.transaction_service.model.projection.TransactionAggregate;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+public interface UserMonthlyRollupRepository extends JpaRepository<UserMonthlyRollup, UserMonthlyRollup.Key> {
+
+    @Modifying
+    @Query(value = "INSERT INTO user_monthly_rollup (user_id, month, category, type, total, count) " +
+            "VALUES (:userId, :month, :category, :type, :amount, :count) " +
+            "ON CONFLICT (user_id, month, category, type) DO UPDATE SET " +
+            "total = user_monthly_rollup.total + EXCLUDED.total, " +
+            "count = user_monthly_rollup.count + EXCLUDED.count",
+            nativeQuery = true)
+    void applyDelta(@Param("userId") UUID userId,
+                    @Param("month") LocalDate month,
+                    @Param("category") String category,
+                    @Param("type") String type,
+                    @Param("amount") BigDecimal amount,
+                    @Param("count") long count);
+
+    @Query(value = "SELECT r.type AS type, r.category AS category, to_char(r.month, 'YYYY-MM') AS month, " +
+            "r.total AS total, r.count AS count " +
+            "FROM user_monthly_rollup r WHERE r.user_id = :userId AND r.count <> 0",
+            nativeQuery = true)
+    List<TransactionAggregate> findAggregates(@Param("userId") UUID userId);
+
+    @Query(value = "SELECT r.type AS type, r.category AS category, to_char(r.month, 'YYYY-MM') AS month, " +
+            "r.total AS total, r.count AS count " +
+            "FROM user_monthly_rollup r " +
+            "WHERE r.user_id = :userId AND r.month >= :fromMonth AND r.month <= :toMonth AND r.count <> 0",
+            nativeQuery = true)
+    List<TransactionAggregate> findAggregatesBetween(@Param("userId") UUID userId,
+                                                     @Param("fromMonth") LocalDate fromMonth,
+                                                     @Param("toMonth") LocalDate toMonth);
+
+    // Месяцы из отсоединённых секций пересчитать не из чего, поэтому их бакеты сохраняются
+    @Modifying
+    @Query(value = "DELETE FROM user_monthly_rollup WHERE user_id = :userId " +
+            "AND month NOT IN (SELECT a.month FROM transaction_partition_archive a)", nativeQuery = true)
+    int deleteByUserId(@Param("userId") UUID userId);
+
+    @Modifying
+    @Query(value = "INSERT INTO user_monthly_rollup (user_id, month, category, type, total, count) " +
+            "SELECT t.user_id, CAST(date_trunc('month', t.date AT TIME ZONE 'UTC') AS date), t.category, t.type, " +
+            "SUM(t.amount), COUNT(*) " +
+            "FROM transactions t WHERE t.user_id = :userId " +
+            "GROUP BY t.user_id, date_trunc('month', t.date AT TIME ZONE 'UTC'), t.category, t.type",
+            nativeQuery = true)
+    int rebuildForUser(@Param("userId") UUID userId);
+
+    @Modifying
+    @Query(value = "DELETE FROM user_monthly_rollup " +
+            "WHERE month NOT IN (SELECT a.month FROM transaction_partition_archive a)", nativeQuery = true)
+    void deleteAllAttached();
+
+    @Modifying
+    @Query(value = "INSERT INTO user_monthly_rollup (user_id, month, category, type, total, count) " +
+            "SELECT t.user_id, CAST(date_trunc('month', t.date AT TIME ZONE 'UTC') AS date), t.category, t.type, " +
+            "SUM(t.amount), COUNT(*) " +
+            "FROM transactions t " +
+            "GROUP BY t.user_id, date_trunc('month', t.date AT TIME ZONE 'UTC'), t.category, t.type",
+            nativeQuery = true)
+    int rebuildAll();
+
+    // Сравнение роллапов с исходными транзакциями; пустые бакеты (count = 0) считаются отсутствующими,
+    // архивные месяцы не сравниваются
+    @Query(value = "WITH expected AS (" +
+            "  SELECT t.user_id, CAST(date_trunc('month', t.date AT TIME ZONE 'UTC') AS date) AS month, " +
+            "         t.category, t.type, SUM(t.amount) AS total, COUNT(*) AS count " +
+            "  FROM transactions t " +
+            "  WHERE (CAST(:userId AS uuid) IS NULL OR t.user_id = CAST(:userId AS uuid)) " +
+            "  GROUP BY 1, 2, 3, 4" +
+            "), actual AS (" +
+            "  SELECT r.user_id, r.month, r.category, r.type, r.total, r.count " +
+            "  FROM user_monthly_rollup r " +
+            "  WHERE r.count <> 0 AND (CAST(:userId AS uuid) IS NULL OR r.user_id = CAST(:userId AS uuid)) " +
+            "    AND r.month NOT IN (SELECT a.month FROM transaction_partition_archive a)" +
+            ") " +
+            "SELECT COALESCE(e.user_id, a.user_id) AS \"userId\", " +
+            "       to_char(COALESCE(e.month, a.month), 'YYYY-MM') AS month, " +
+            "       COALESCE(e.category, a.category) AS category, COALESCE(e.type, a.type) AS type, " +
+            "       COALESCE(e.total, 0) AS \"expectedTotal\", COALESCE(a.total, 0) AS \"actualTotal\", " +
+            "       COALESCE(e.count, 0) AS \"expectedCount\", COALESCE(a.count, 0) AS \"actualCount\" " +
+            "FROM expected e FULL OUTER JOIN actual a " +
+            "  ON e.user_id = a.user_id AND e.month = a.month AND e.category = a.category AND e.type = a.type " +
+            "WHERE COALESCE(e.total, 0) <> COALESCE(a.total, 0) OR COALESCE(e.count, 0) <> COALESCE(a.count, 0)",
+            nativeQuery = true)
+    List<RollupDrift> findDrift(@Param("userId") String userId);
+}
@@ -0,0 +1,181 @@
+package com.miscroservice.transaction_service.security;
+
+import com.miscroservice.transaction_service.service.idempotency.IdempotencyRecord;
+import com.miscroservice.transaction_service.service.idempotency.IdempotencyStore;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpMethod;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Honours the {@code Idempotency-Key} header on transaction writes: the first request runs and its response
+ * is stored, retries with the same key and body get that response back instead of writing again.
+ * Runs after {@link JwtAuthFilter}, so keys are scoped per user.
+ */
+public class IdempotencyFilter extends OncePerRequestFilter {
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final Set<String> WRITE_METHODS = Set.of(
+            HttpMethod.POST.name(), HttpMethod.PUT.name(), HttpMethod.PATCH.name(), HttpMethod.DELETE.name());
+
+    private final IdempotencyStore idempotencyStore;
+
+    public IdempotencyFilter(IdempotencyStore idempotencyStore) {
+        this.idempotencyStore = idempotencyStore;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getHeader(HEADER) == null
+                || !WRITE_METHODS.contains(request.getMethod())
+                || !request.getRequestURI().startsWith("/transactions");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String idempotencyKey = request.getHeader(HEADER).strip();
+        UUID userId = currentUser();
+        if (userId == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+        if (idempotencyKey.isEmpty() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST,
+                    HEADER + " must be between 1 and " + MAX_KEY_LENGTH + " characters");
+            return;
+        }
+
+        CachedBodyRequest cachedRequest = new CachedBodyRequest(request);
+        String fingerprint = fingerprint(cachedRequest);
+        IdempotencyStore.Outcome outcome = idempotencyStore.begin(userId, idempotencyKey, fingerprint);
+        switch (outcome.decision()) {
+            case REPLAY -> replay(outcome.record(), response);
+            case IN_PROGRESS -> response.sendError(HttpServletResponse.SC_CONFLICT,
+                    "A request with this " + HEADER + " is still being processed");
+            case MISMATCH -> response.sendError(422,
+                    HEADER + " was already used with a different request");
+            case PROCEED -> proceed(cachedRequest, response, chain, userId, idempotencyKey, fingerprint);
+        }
+    }
+
+    private void proceed(CachedBodyRequest request, HttpServletResponse response, FilterChain chain,
+                         UUID userId, String idempotencyKey, String fingerprint) throws ServletException, IOException {
+        ContentCachingResponseWrapper cachingResponse = new ContentCachingResponseWrapper(response);
+        try {
+            chain.doFilter(request, cachingResponse);
+        } catch (ServletException | IOException | RuntimeException e) {
+            idempotencyStore.release(userId, idempotencyKey);
+            throw e;
+        }
+        // 5xx — сбой на нашей стороне, повтор должен выполниться заново
+        if (cachingResponse.getStatus() >= 500) {
+            idempotencyStore.release(userId, idempotencyKey);
+        } else {
+            idempotencyStore.complete(userId, idempotencyKey, fingerprint, cachingResponse.getStatus(),
+                    cachingResponse.getContentType(),
+                    new String(cachingResponse.getContentAsByteArray(), StandardCharsets.UTF_8));
+        }
+        cachingResponse.copyBodyToResponse();
+    }
+
+    private static void replay(IdempotencyRecord record, HttpServletResponse response) throws IOException {
+        response.setStatus(record.getStatus());
+        response.setHeader(REPLAYED_HEADER, "true");
+        if (record.getContentType() != null) {
+            response.setContentType(record.getContentType());
+        }
+        if (record.getBody() != null) {
+            byte[] body = record.getBody().getBytes(StandardCharsets.UTF_8);
+            response.setContentLength(body.length);
+            response.getOutputStream().write(body);
+        }
+    }
+
+    private static String fingerprint(CachedBodyRequest request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update((request.getMethod() + " " + request.getRequestURI() + "?" + request.getQueryString() + "\n")
+                    .getBytes(StandardCharsets.UTF_8));
+            digest.update(request.body);
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static UUID currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !(authentication.getPrincipal() instanceof String principal)) {
+            return null;
+        }
+        try {
+            return UUID.fromString(principal);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    // Тело читается один раз: нужно и для отпечатка, и контроллеру
+    private static class CachedBodyRequest extends HttpServletRequestWrapper {
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request) throws IOException {
+            super(request);
+            this.body = request.getInputStream().readAllBytes();
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return in.read(b, off, len);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            return new BufferedReader(new InputStreamReader(getInputStream(), StandardCharsets.UTF_8));
+        }
+    }
+}
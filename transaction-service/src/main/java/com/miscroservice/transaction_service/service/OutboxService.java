@@ -0,0 +1,6 @@
+package com.miscroservice.transaction_service.service;
+
+public interface OutboxService {
+
+    void enqueue(String topic, String key, String payload);
+}
@@ -0,0 +1,27 @@
+package com.miscroservice.transaction_service.service;
+
+import com.miscroservice.transaction_service.model.entity.Transaction;
+import com.miscroservice.transaction_service.model.projection.RollupDrift;
+import com.miscroservice.transaction_service.model.projection.TransactionAggregate;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+public interface StatsRollupService {
+
+    void recordCreated(UUID userId, Instant date, String category, String type, BigDecimal amount);
+
+    void recordCreatedAll(List<Transaction> transactions);
+
+    void recordDeleted(UUID userId, Instant date, String category, String type, BigDecimal amount);
+
+    void recordDeletedAll(List<Transaction> transactions);
+
+    List<TransactionAggregate> getAggregates(UUID userId, Instant startDate, Instant endDate);
+
+    List<RollupDrift> verify(UUID userId);
+
+    int rebuild(UUID userId);
+}
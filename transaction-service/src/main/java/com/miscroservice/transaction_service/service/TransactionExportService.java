@@ -0,0 +1,14 @@
+package com.miscroservice.transaction_service.service;
+
+import com.miscroservice.transaction_service.model.dto.ExportFormat;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.util.UUID;
+
+public interface TransactionExportService {
+
+    long export(UUID userId, Instant startDate, Instant endDate, String category, String type,
+                ExportFormat format, OutputStream out) throws IOException;
+}
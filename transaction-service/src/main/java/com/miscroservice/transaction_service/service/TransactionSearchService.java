@@ -0,0 +1,12 @@
+package com.miscroservice.transaction_service.service;
+
+import com.miscroservice.transaction_service.model.dto.TransactionSearchResponse;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public interface TransactionSearchService {
+
+    TransactionSearchResponse search(UUID userId, String query, Instant startDate, Instant endDate,
+                                     String category, String type, int page, int size);
+}
@@ -1,5 +1,9 @@
 package com.miscroservice.transaction_service.service;
 
+import com.miscroservice.transaction_service.model.dto.BulkOperation;
+import com.miscroservice.transaction_service.model.dto.BulkTransactionResponse;
+import com.miscroservice.transaction_service.model.dto.StatsRange;
+import com.miscroservice.transaction_service.model.dto.TransactionCursorPage;
 import com.miscroservice.transaction_service.model.dto.TransactionItemDto;
 import com.miscroservice.transaction_service.model.dto.TransactionRequest;
 import com.miscroservice.transaction_service.model.dto.TransactionResponse;
@@ -9,6 +13,7 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.validation.BindingResult;
 
 import java.time.Instant;
+import java.util.List;
 import java.util.UUID;
 
 public interface TransactionService {
@@ -17,11 +22,23 @@ public interface TransactionService {
 
     Page<TransactionResponse> getTransactions(UUID userId, Instant startDate, Instant endDate, String category, String type, Pageable pageable);
 
+    TransactionCursorPage getTransactionsAfter(UUID userId, Instant startDate, Instant endDate, String category, String type,
+                                               String cursor, int size, boolean includeTotal);
+
     TransactionResponse updateTransaction(UUID id, TransactionRequest request, UUID userId, BindingResult bindingResult);
 
     void deleteTransaction(UUID id, UUID userId);
 
+    BulkTransactionResponse applyBulk(List<BulkOperation> operations, UUID userId);
+
     TransactionStatsResponse getStats(UUID userId, String startDate, String endDate);
 
+    TransactionStatsResponse getStats(UUID userId, StatsRange range);
+
     void processTransactionFromDocument(TransactionItemDto item, UUID userId, UUID documentId);
+
+    void processTransactionBatch(List<TransactionItemDto> items);
+
+    // FAILED-фидбек по позиции, которая исчерпала повторы пачки и ушла в DLQ
+    void reportTransactionItemFailed(TransactionItemDto item, String error);
 }
\ No newline at end of file
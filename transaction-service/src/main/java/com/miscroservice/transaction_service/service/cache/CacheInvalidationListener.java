@@ -0,0 +1,37 @@
+package com.miscroservice.transaction_service.service.cache;
+
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Applies L1 evictions published by any replica (including this one) on {@link TwoTierCache#INVALIDATION_CHANNEL}.
+ */
+@Component
+@RequiredArgsConstructor
+public class CacheInvalidationListener implements MessageListener {
+    private static final Logger logger = LoggerFactory.getLogger(CacheInvalidationListener.class);
+
+    private final TwoTierCache twoTierCache;
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int separator = body.indexOf('|');
+        if (separator <= 0) {
+            logger.warn("Ignoring malformed cache invalidation message: {}", body);
+            return;
+        }
+        try {
+            CacheRegion region = CacheRegion.fromRegionName(body.substring(0, separator));
+            twoTierCache.evictLocal(region, body.substring(separator + 1));
+        } catch (IllegalArgumentException e) {
+            logger.warn("Ignoring cache invalidation for unknown region: {}", body);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.miscroservice.transaction_service.service.cache;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Redis/L1 key layout for per-user listings and stats; the user's cache generation is part of every key.
+ */
+public final class CacheKeys {
+    public static final String TRANSACTIONS_CACHE_PREFIX = "transactions:user:";
+    public static final String STATS_CACHE_PREFIX = "stats:user:";
+    public static final String CACHE_VERSION_PREFIX = "cache:version:user:";
+
+    private CacheKeys() {
+    }
+
+    public static String transactions(UUID userId, long version, Instant startDate, Instant endDate,
+                                      String category, String type, int page, int size) {
+        return TRANSACTIONS_CACHE_PREFIX + userId + ":v" + version + ":" + startDate + ":" + endDate + ":" +
+                category + ":" + type + ":" + page + ":" + size;
+    }
+
+    public static String stats(UUID userId, long version, String startDate, String endDate) {
+        return STATS_CACHE_PREFIX + userId + ":v" + version + ":" + startDate + ":" + endDate;
+    }
+
+    public static String version(UUID userId) {
+        return CACHE_VERSION_PREFIX + userId;
+    }
+}
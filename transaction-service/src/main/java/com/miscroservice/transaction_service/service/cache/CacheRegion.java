@@ -0,0 +1,47 @@
+package com.miscroservice.transaction_service.service.cache;
+
+import java.time.Duration;
+
+/**
+ * Cache regions of the near cache with their L1 (in-process) bounds.
+ * L1 entries never outlive the Redis TTL of the same region.
+ */
+public enum CacheRegion {
+    TRANSACTIONS("transactions", 10_000, Duration.ofMinutes(1)),
+    STATS("stats", 10_000, Duration.ofMinutes(1)),
+    // Поколения кэша пользователей; TTL — страховка на случай потерянного pub/sub сообщения
+    VERSIONS("versions", 50_000, Duration.ofSeconds(30)),
+    // WAL-позиция последней записи пользователя: пока реплика её не проиграла, чтения идут в primary
+    READ_FENCES("fences", 50_000, Duration.ofSeconds(30));
+
+    private final String regionName;
+    private final long maximumSize;
+    private final Duration localTtl;
+
+    CacheRegion(String regionName, long maximumSize, Duration localTtl) {
+        this.regionName = regionName;
+        this.maximumSize = maximumSize;
+        this.localTtl = localTtl;
+    }
+
+    public String getRegionName() {
+        return regionName;
+    }
+
+    public long getMaximumSize() {
+        return maximumSize;
+    }
+
+    public Duration getLocalTtl() {
+        return localTtl;
+    }
+
+    public static CacheRegion fromRegionName(String regionName) {
+        for (CacheRegion region : values()) {
+            if (region.regionName.equals(regionName)) {
+                return region;
+            }
+        }
+        throw new IllegalArgumentException("Unknown cache region: " + regionName);
+    }
+}
@@ -0,0 +1,130 @@
+package com.miscroservice.transaction_service.service.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+/**
+ * Request coalescing for cache loads: concurrent callers with the same cache key share one in-flight load.
+ * Also decides probabilistic early refresh (XFetch) for keys this instance loaded, so a popular entry is
+ * recomputed by one caller shortly before it expires instead of by everyone right after.
+ */
+@Component
+public class SingleFlight {
+    private static final Logger logger = LoggerFactory.getLogger(SingleFlight.class);
+
+    private final Map<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    // Время загрузки и срок жизни записей, загруженных этим экземпляром
+    private final Cache<String, LoadInfo> loads = Caffeine.newBuilder()
+            .maximumSize(100_000)
+            .expireAfterWrite(Duration.ofHours(1))
+            .build();
+    private final double beta;
+    private final long waitTimeoutMs;
+    private final Counter leaders;
+    private final Counter coalesced;
+    private final Counter timedOut;
+    private final Counter earlyRefreshes;
+
+    private record LoadInfo(long expiresAtNanos, long deltaNanos) {
+    }
+
+    public SingleFlight(MeterRegistry meterRegistry,
+                        @Value("${transactions.cache.early-refresh-beta:1.0}") double beta,
+                        @Value("${transactions.cache.single-flight-timeout-ms:5000}") long waitTimeoutMs) {
+        this.beta = beta;
+        this.waitTimeoutMs = waitTimeoutMs;
+        this.leaders = loads(meterRegistry, "leader");
+        this.coalesced = loads(meterRegistry, "coalesced");
+        this.timedOut = loads(meterRegistry, "timeout");
+        this.earlyRefreshes = Counter.builder("cache.early.refresh")
+                .description("Cache entries recomputed before expiry by probabilistic early refresh")
+                .register(meterRegistry);
+    }
+
+    // ttl — срок жизни, с которым loader кладёт результат в кэш
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String key, long ttl, TimeUnit unit, Supplier<T> loader) {
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, mine);
+        if (existing != null) {
+            T shared = await(existing);
+            if (shared != null) {
+                coalesced.increment();
+                return shared;
+            }
+            // Лидер завис или упал по таймауту ожидания — грузим сами, не блокируя запрос дольше лимита
+            timedOut.increment();
+            return loader.get();
+        }
+
+        leaders.increment();
+        long started = System.nanoTime();
+        try {
+            T value = loader.get();
+            long finished = System.nanoTime();
+            loads.put(key, new LoadInfo(finished + unit.toNanos(ttl), finished - started));
+            mine.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    // XFetch: now - delta·beta·ln(rand) >= expiry. Чем дороже загрузка и ближе истечение, тем вероятнее обновление.
+    // Если обновление уже идёт, остальные продолжают отдавать закэшированное значение
+    public boolean shouldRefreshEarly(String key) {
+        LoadInfo info = loads.getIfPresent(key);
+        if (info == null || inFlight.containsKey(key)) {
+            return false;
+        }
+        double gap = info.deltaNanos() * beta * -Math.log(ThreadLocalRandom.current().nextDouble(Double.MIN_VALUE, 1.0));
+        boolean refresh = System.nanoTime() + (long) gap >= info.expiresAtNanos();
+        if (refresh) {
+            earlyRefreshes.increment();
+        }
+        return refresh;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T await(CompletableFuture<Object> leader) {
+        try {
+            return (T) leader.get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a shared cache load", e);
+        } catch (ExecutionException e) {
+            // Ошибку лидера получают все ожидающие: повторять тот же запрос к БД бессмысленно
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            logger.warn("Shared cache load failed", e.getCause());
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private static Counter loads(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("cache.singleflight.loads")
+                .tag("result", result)
+                .description("Cache loads by whether the caller ran the query or shared another caller's result")
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,172 @@
+package com.miscroservice.transaction_service.service.cache;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+
+/**
+ * Near cache: a bounded in-process Caffeine L1 in front of the shared Redis L2.
+ * Evictions are broadcast over Redis pub/sub so that every replica drops its L1 copy.
+ * A value read from Redis is not copied into L1 if an eviction of its key arrived while it was in flight.
+ */
+@Component
+public class TwoTierCache {
+    private static final Logger logger = LoggerFactory.getLogger(TwoTierCache.class);
+    public static final String INVALIDATION_CHANNEL = "cache:invalidation";
+    private static final int INVALIDATION_STRIPES = 1024;
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final ObjectMapper objectMapper;
+    private final Map<CacheRegion, Cache<String, Object>> localCaches = new EnumMap<>(CacheRegion.class);
+    private final Map<CacheRegion, Counter> remoteHits = new EnumMap<>(CacheRegion.class);
+    private final Map<CacheRegion, Counter> remoteMisses = new EnumMap<>(CacheRegion.class);
+    // Счётчики инвалидаций по полосам хэша ключа: память ограничена, коллизия лишь пропускает запись в L1
+    private final Map<CacheRegion, AtomicLongArray> invalidations = new EnumMap<>(CacheRegion.class);
+
+    public TwoTierCache(RedisTemplate<String, Object> redisTemplate, StringRedisTemplate stringRedisTemplate,
+                        ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.redisTemplate = redisTemplate;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.objectMapper = objectMapper;
+
+        for (CacheRegion region : CacheRegion.values()) {
+            Cache<String, Object> cache = Caffeine.newBuilder()
+                    .maximumSize(region.getMaximumSize())
+                    .expireAfterWrite(region.getLocalTtl())
+                    .recordStats()
+                    .build();
+            CaffeineCacheMetrics.monitor(meterRegistry, cache, region.getRegionName(), "tier", "l1");
+            localCaches.put(region, cache);
+            invalidations.put(region, new AtomicLongArray(INVALIDATION_STRIPES));
+            remoteHits.put(region, remoteCounter(meterRegistry, region, "hit"));
+            remoteMisses.put(region, remoteCounter(meterRegistry, region, "miss"));
+        }
+    }
+
+    public <T> T get(CacheRegion region, String key, Class<T> type) {
+        return lookup(region, key, raw -> objectMapper.convertValue(raw, type));
+    }
+
+    public <T> T get(CacheRegion region, String key, TypeReference<T> type) {
+        return lookup(region, key, raw -> objectMapper.convertValue(raw, type));
+    }
+
+    /**
+     * Like {@link #get(CacheRegion, String, Class)}, but a Redis miss resolves to {@code defaultValue},
+     * which is kept in L1 under the same invalidation guard as values read from Redis.
+     */
+    public <T> T getOrDefault(CacheRegion region, String key, Class<T> type, T defaultValue) {
+        long generation = invalidationGeneration(region, key);
+        T value = get(region, key, type);
+        if (value == null) {
+            putLocalIfNotInvalidated(region, key, defaultValue, generation);
+            return defaultValue;
+        }
+        return value;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T lookup(CacheRegion region, String key, Function<Object, T> converter) {
+        Cache<String, Object> local = localCaches.get(region);
+        Object cached = local.getIfPresent(key);
+        if (cached != null) {
+            return (T) cached;
+        }
+
+        // Поколение фиксируется до GET: эвикт во время запроса означает, что ответ Redis мог устареть
+        long generation = invalidationGeneration(region, key);
+        // Ошибки Redis пробрасываются вызывающему коду, как и раньше
+        Object raw = redisTemplate.opsForValue().get(key);
+        if (raw == null) {
+            remoteMisses.get(region).increment();
+            return null;
+        }
+        remoteHits.get(region).increment();
+
+        T value;
+        try {
+            value = converter.apply(raw);
+        } catch (IllegalArgumentException e) {
+            logger.warn("Discarding cached value in region {} with unexpected format for key: {}",
+                    region.getRegionName(), key);
+            return null;
+        }
+        putLocalIfNotInvalidated(region, key, value, generation);
+        return value;
+    }
+
+    public void put(CacheRegion region, String key, Object value, long timeout, TimeUnit unit) {
+        redisTemplate.opsForValue().set(key, value, timeout, unit);
+        localCaches.get(region).put(key, value);
+    }
+
+    public void putLocal(CacheRegion region, String key, Object value) {
+        localCaches.get(region).put(key, value);
+    }
+
+    /**
+     * Drops the key from L1 on this replica and asks all other replicas to do the same.
+     */
+    public void evict(CacheRegion region, String key) {
+        evictLocal(region, key);
+        try {
+            stringRedisTemplate.convertAndSend(INVALIDATION_CHANNEL, region.getRegionName() + "|" + key);
+        } catch (Exception e) {
+            logger.warn("Failed to publish L1 invalidation for region {} and key: {}", region.getRegionName(), key, e);
+        }
+    }
+
+    public void evictLocal(CacheRegion region, String key) {
+        invalidations.get(region).incrementAndGet(stripe(key));
+        localCaches.get(region).invalidate(key);
+    }
+
+    public void clearLocal(CacheRegion region) {
+        AtomicLongArray generations = invalidations.get(region);
+        for (int i = 0; i < INVALIDATION_STRIPES; i++) {
+            generations.incrementAndGet(i);
+        }
+        localCaches.get(region).invalidateAll();
+    }
+
+    private long invalidationGeneration(CacheRegion region, String key) {
+        return invalidations.get(region).get(stripe(key));
+    }
+
+    // Проверка и запись под блокировкой ключа: эвикт, начавшийся после проверки, удалит значение следом
+    private void putLocalIfNotInvalidated(CacheRegion region, String key, Object value, long generation) {
+        AtomicLongArray generations = invalidations.get(region);
+        int stripe = stripe(key);
+        localCaches.get(region).asMap().compute(key,
+                (k, current) -> generations.get(stripe) == generation ? value : current);
+    }
+
+    private static int stripe(String key) {
+        return Math.floorMod(key.hashCode(), INVALIDATION_STRIPES);
+    }
+
+    private static Counter remoteCounter(MeterRegistry meterRegistry, CacheRegion region, String result) {
+        return Counter.builder("cache.gets")
+                .tag("cache", region.getRegionName())
+                .tag("tier", "l2")
+                .tag("result", result)
+                .description("Redis (L2) lookups after an L1 miss")
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,48 @@
+package com.miscroservice.transaction_service.service.category;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * JPA hook on {@code Category}: reloads the registry once the changing transaction has committed.
+ * Instantiated by Hibernate through Spring's bean container.
+ */
+public class CategoryChangeListener {
+    private static final Object REFRESH_SCHEDULED = new Object();
+
+    private final ObjectProvider<CategoryRegistry> categoryRegistry;
+
+    public CategoryChangeListener(ObjectProvider<CategoryRegistry> categoryRegistry) {
+        this.categoryRegistry = categoryRegistry;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    void onChange(Object category) {
+        // До коммита новый снимок прочитал бы старые данные; на транзакцию — одна перезагрузка
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            if (TransactionSynchronizationManager.hasResource(REFRESH_SCHEDULED)) {
+                return;
+            }
+            TransactionSynchronizationManager.bindResource(REFRESH_SCHEDULED, Boolean.TRUE);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    categoryRegistry.ifAvailable(CategoryRegistry::refresh);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(REFRESH_SCHEDULED);
+                }
+            });
+        } else {
+            categoryRegistry.ifAvailable(CategoryRegistry::refresh);
+        }
+    }
+}
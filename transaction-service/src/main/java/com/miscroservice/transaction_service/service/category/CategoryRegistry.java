@@ -0,0 +1,110 @@
+package com.miscroservice.transaction_service.service.category;
+
+import com.miscroservice.transaction_service.model.dto.CategoryResponse;
+import com.miscroservice.transaction_service.model.entity.Category;
+import com.miscroservice.transaction_service.repository.CategoryRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Immutable in-memory snapshot of the categories table. Reads are lock-free; the snapshot is swapped
+ * atomically after local category changes (see {@link CategoryChangeListener}) and when the periodic
+ * fingerprint check detects changes made elsewhere.
+ */
+@Component
+@RequiredArgsConstructor
+public class CategoryRegistry {
+    private static final Logger logger = LoggerFactory.getLogger(CategoryRegistry.class);
+
+    private final CategoryRepository categoryRepository;
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>(Snapshot.EMPTY);
+
+    @PostConstruct
+    void init() {
+        try {
+            refresh();
+        } catch (Exception e) {
+            // Сервис стартует и без БД; снимок загрузится при первом обращении или плановой проверке
+            logger.error("Failed to load categories at startup", e);
+        }
+    }
+
+    public boolean contains(String name) {
+        return name != null && current().byName.containsKey(name);
+    }
+
+    public List<CategoryResponse> findAll() {
+        return current().all;
+    }
+
+    public List<CategoryResponse> findByType(String type) {
+        return current().byType.getOrDefault(type, List.of());
+    }
+
+    public void refresh() {
+        String fingerprint = categoryRepository.fingerprint();
+        List<Category> categories = categoryRepository.findAll();
+        snapshot.set(Snapshot.of(categories, fingerprint));
+        logger.info("Loaded {} categories into registry", categories.size());
+    }
+
+    @Scheduled(fixedDelayString = "${categories.registry.check-interval-ms:60000}")
+    public void refreshIfChanged() {
+        try {
+            String fingerprint = categoryRepository.fingerprint();
+            if (!Objects.equals(fingerprint, snapshot.get().fingerprint)) {
+                refresh();
+            }
+        } catch (Exception e) {
+            logger.warn("Category registry version check failed, keeping current snapshot", e);
+        }
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot.get();
+        if (current == Snapshot.EMPTY) {
+            refresh();
+            current = snapshot.get();
+        }
+        return current;
+    }
+
+    private static final class Snapshot {
+        static final Snapshot EMPTY = new Snapshot(Map.of(), Map.of(), List.of(), null);
+
+        final Map<String, CategoryResponse> byName;
+        final Map<String, List<CategoryResponse>> byType;
+        final List<CategoryResponse> all;
+        final String fingerprint;
+
+        private Snapshot(Map<String, CategoryResponse> byName, Map<String, List<CategoryResponse>> byType,
+                         List<CategoryResponse> all, String fingerprint) {
+            this.byName = byName;
+            this.byType = byType;
+            this.all = all;
+            this.fingerprint = fingerprint;
+        }
+
+        static Snapshot of(List<Category> categories, String fingerprint) {
+            List<CategoryResponse> all = new ArrayList<>(categories.size());
+            Map<String, CategoryResponse> byName = new HashMap<>();
+            Map<String, List<CategoryResponse>> byType = new HashMap<>();
+            for (Category category : categories) {
+                CategoryResponse response = new CategoryResponse(category.getId(), category.getName(), category.getType());
+                all.add(response);
+                byName.put(category.getName(), response);
+                byType.computeIfAbsent(category.getType(), t -> new ArrayList<>()).add(response);
+            }
+            Map<String, List<CategoryResponse>> immutableByType = new HashMap<>();
+            byType.forEach((type, list) -> immutableByType.put(type, List.copyOf(list)));
+            return new Snapshot(Map.copyOf(byName), Map.copyOf(immutableByType), List.copyOf(all), fingerprint);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.miscroservice.transaction_service.service.idempotency;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * What Redis keeps per Idempotency-Key: the request fingerprint and, once the first request finished,
+ * the response to replay.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IdempotencyRecord {
+    public static final String IN_PROGRESS = "IN_PROGRESS";
+    public static final String COMPLETED = "COMPLETED";
+
+    private String state;
+    // SHA-256 от метода, пути и тела: тот же ключ с другим запросом — ошибка клиента
+    private String fingerprint;
+    private int status;
+    private String contentType;
+    private String body;
+
+    public static IdempotencyRecord inProgress(String fingerprint) {
+        return new IdempotencyRecord(IN_PROGRESS, fingerprint, 0, null, null);
+    }
+}
@@ -0,0 +1,208 @@
+package com.miscroservice.transaction_service.service.idempotency;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Idempotency keys for transaction writes. Redis holds the authoritative record (claimed with SET NX);
+ * a per-instance Bloom filter of keys claimed here decides which round trip to try first: unseen keys go
+ * straight to SET NX, likely duplicates go straight to GET.
+ */
+@Component
+public class IdempotencyStore {
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyStore.class);
+    private static final String KEY_PREFIX = "idempotency:user:";
+
+    public enum Decision { PROCEED, REPLAY, IN_PROGRESS, MISMATCH }
+
+    public record Outcome(Decision decision, IdempotencyRecord record) {
+    }
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final ObjectMapper objectMapper;
+    private final long expectedInsertions;
+    private final double falsePositiveRate;
+    private final Duration generationLength;
+
+    // Два поколения: ключи старше TTL записи в Redis уже не нужны, фильтр сбрасывается вместе с ними
+    private volatile BloomFilter current;
+    private volatile BloomFilter previous;
+    private volatile long generationStartedAt;
+
+    @Value("${idempotency.in-progress-ttl:PT1M}")
+    private Duration inProgressTtl;
+
+    @Value("${idempotency.response-ttl:PT24H}")
+    private Duration responseTtl;
+
+    private final Counter proceeded;
+    private final Counter replayed;
+    private final Counter inProgress;
+    private final Counter mismatched;
+    private final Counter unavailable;
+    private final Counter bloomNegative;
+    private final Counter bloomPositive;
+    private final Counter bloomFalsePositive;
+    private final Counter roundTripsSaved;
+
+    public IdempotencyStore(StringRedisTemplate stringRedisTemplate, ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                            @Value("${idempotency.bloom.expected-insertions:1000000}") long expectedInsertions,
+                            @Value("${idempotency.bloom.false-positive-rate:0.01}") double falsePositiveRate,
+                            @Value("${idempotency.response-ttl:PT24H}") Duration generationLength) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.objectMapper = objectMapper;
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveRate = falsePositiveRate;
+        this.generationLength = generationLength;
+        this.current = new BloomFilter(expectedInsertions, falsePositiveRate);
+        this.previous = new BloomFilter(expectedInsertions, falsePositiveRate);
+        this.generationStartedAt = System.currentTimeMillis();
+
+        this.proceeded = outcome(meterRegistry, "new");
+        this.replayed = outcome(meterRegistry, "replayed");
+        this.inProgress = outcome(meterRegistry, "in_progress");
+        this.mismatched = outcome(meterRegistry, "mismatch");
+        this.unavailable = outcome(meterRegistry, "unavailable");
+        this.bloomNegative = bloom(meterRegistry, "negative");
+        this.bloomPositive = bloom(meterRegistry, "positive");
+        this.bloomFalsePositive = bloom(meterRegistry, "false_positive");
+        this.roundTripsSaved = Counter.builder("idempotency.redis.roundtrips.saved")
+                .description("Redis round trips avoided compared with GET-then-SET deduplication")
+                .register(meterRegistry);
+        Gauge.builder("idempotency.bloom.bytes", this, store -> 2.0 * store.current.sizeInBytes())
+                .description("Memory held by the local Bloom filters")
+                .register(meterRegistry);
+    }
+
+    public Outcome begin(UUID userId, String idempotencyKey, String fingerprint) {
+        String key = KEY_PREFIX + userId + ":" + idempotencyKey;
+        try {
+            rotateIfDue();
+            if (!mightHaveSeen(key)) {
+                bloomNegative.increment();
+                if (claim(key, fingerprint)) {
+                    roundTripsSaved.increment();
+                    return proceed(key);
+                }
+                // Ключ занят запросом, пришедшим на другой экземпляр
+                return existing(key, fingerprint);
+            }
+            bloomPositive.increment();
+            IdempotencyRecord record = read(key);
+            if (record == null) {
+                bloomFalsePositive.increment();
+                return claim(key, fingerprint) ? proceed(key) : existing(key, fingerprint);
+            }
+            roundTripsSaved.increment();
+            return decide(record, fingerprint);
+        } catch (Exception e) {
+            // Без Redis дедупликация невозможна; запрос выполняется как обычный
+            unavailable.increment();
+            logger.warn("Idempotency store unavailable for key {}", key, e);
+            return new Outcome(Decision.PROCEED, null);
+        }
+    }
+
+    public void complete(UUID userId, String idempotencyKey, String fingerprint, int status, String contentType, String body) {
+        String key = KEY_PREFIX + userId + ":" + idempotencyKey;
+        try {
+            stringRedisTemplate.opsForValue().set(key, objectMapper.writeValueAsString(
+                    new IdempotencyRecord(IdempotencyRecord.COMPLETED, fingerprint, status, contentType, body)), responseTtl);
+        } catch (Exception e) {
+            logger.warn("Failed to store idempotent response for key {}", key, e);
+        }
+    }
+
+    // Неуспешный запрос не запоминается: клиент может повторить его с тем же ключом
+    public void release(UUID userId, String idempotencyKey) {
+        String key = KEY_PREFIX + userId + ":" + idempotencyKey;
+        try {
+            stringRedisTemplate.delete(key);
+        } catch (Exception e) {
+            logger.warn("Failed to release idempotency key {}", key, e);
+        }
+    }
+
+    private boolean claim(String key, String fingerprint) throws JsonProcessingException {
+        Boolean claimed = stringRedisTemplate.opsForValue().setIfAbsent(key,
+                objectMapper.writeValueAsString(IdempotencyRecord.inProgress(fingerprint)), inProgressTtl);
+        return Boolean.TRUE.equals(claimed);
+    }
+
+    private Outcome proceed(String key) {
+        current.put(key);
+        proceeded.increment();
+        return new Outcome(Decision.PROCEED, null);
+    }
+
+    private Outcome existing(String key, String fingerprint) throws JsonProcessingException {
+        current.put(key);
+        IdempotencyRecord record = read(key);
+        if (record == null) {
+            // Запись успела истечь между SET NX и GET — считаем ключ занятым, клиент повторит
+            inProgress.increment();
+            return new Outcome(Decision.IN_PROGRESS, null);
+        }
+        return decide(record, fingerprint);
+    }
+
+    private Outcome decide(IdempotencyRecord record, String fingerprint) {
+        if (!record.getFingerprint().equals(fingerprint)) {
+            mismatched.increment();
+            return new Outcome(Decision.MISMATCH, record);
+        }
+        if (IdempotencyRecord.COMPLETED.equals(record.getState())) {
+            replayed.increment();
+            return new Outcome(Decision.REPLAY, record);
+        }
+        inProgress.increment();
+        return new Outcome(Decision.IN_PROGRESS, record);
+    }
+
+    private IdempotencyRecord read(String key) throws JsonProcessingException {
+        String raw = stringRedisTemplate.opsForValue().get(key);
+        return raw != null ? objectMapper.readValue(raw, IdempotencyRecord.class) : null;
+    }
+
+    private boolean mightHaveSeen(String key) {
+        return current.mightContain(key) || previous.mightContain(key);
+    }
+
+    private void rotateIfDue() {
+        if (System.currentTimeMillis() - generationStartedAt < generationLength.toMillis()) {
+            return;
+        }
+        synchronized (this) {
+            if (System.currentTimeMillis() - generationStartedAt >= generationLength.toMillis()) {
+                previous = current;
+                current = new BloomFilter(expectedInsertions, falsePositiveRate);
+                generationStartedAt = System.currentTimeMillis();
+            }
+        }
+    }
+
+    private static Counter outcome(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("idempotency.requests")
+                .tag("outcome", outcome)
+                .description("Requests carrying an Idempotency-Key by outcome")
+                .register(meterRegistry);
+    }
+
+    private static Counter bloom(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("idempotency.bloom")
+                .tag("result", result)
+                .description("Local Bloom filter lookups by result")
+                .register(meterRegistry);
+    }
+}
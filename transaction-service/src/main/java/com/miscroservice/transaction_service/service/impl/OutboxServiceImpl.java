@@ -0,0 +1,23 @@
+package com.miscroservice.transaction_service.service.impl;
+
+import com.miscroservice.transaction_service.model.entity.OutboxEvent;
+import com.miscroservice.transaction_service.repository.OutboxEventRepository;
+import com.miscroservice.transaction_service.service.OutboxService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+@Service
+@RequiredArgsConstructor
+public class OutboxServiceImpl implements OutboxService {
+
+    private final OutboxEventRepository outboxEventRepository;
+
+    // Событие имеет смысл только вместе с записью транзакции, поэтому отдельной транзакции не открываем
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueue(String topic, String key, String payload) {
+        outboxEventRepository.save(new OutboxEvent(topic, key, payload));
+    }
+}
@@ -0,0 +1,143 @@
+package com.miscroservice.transaction_service.service.impl;
+
+import com.miscroservice.transaction_service.model.entity.Transaction;
+import com.miscroservice.transaction_service.model.entity.UserMonthlyRollup;
+import com.miscroservice.transaction_service.model.projection.RollupDrift;
+import com.miscroservice.transaction_service.model.projection.TransactionAggregate;
+import com.miscroservice.transaction_service.repository.TransactionRepository;
+import com.miscroservice.transaction_service.repository.UserMonthlyRollupRepository;
+import com.miscroservice.transaction_service.service.StatsRollupService;
+import lombok.RequiredArgsConstructor;
+import org.shared.money.Money;
+import org.shared.money.MoneySum;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+@Service
+@RequiredArgsConstructor
+public class StatsRollupServiceImpl implements StatsRollupService {
+    private static final Logger logger = LoggerFactory.getLogger(StatsRollupServiceImpl.class);
+
+    private final UserMonthlyRollupRepository rollupRepository;
+    private final TransactionRepository transactionRepository;
+
+    // Дельты применяются в транзакции вызывающего метода записи
+    @Override
+    @Transactional
+    public void recordCreated(UUID userId, Instant date, String category, String type, BigDecimal amount) {
+        rollupRepository.applyDelta(userId, monthOf(date), category, type, amount, 1);
+    }
+
+    // Пакет схлопывается до одной дельты на (user, month, category, type)
+    @Override
+    @Transactional
+    public void recordCreatedAll(List<Transaction> transactions) {
+        applyAll(transactions, 1);
+    }
+
+    @Override
+    @Transactional
+    public void recordDeleted(UUID userId, Instant date, String category, String type, BigDecimal amount) {
+        rollupRepository.applyDelta(userId, monthOf(date), category, type, amount.negate(), -1);
+    }
+
+    @Override
+    @Transactional
+    public void recordDeletedAll(List<Transaction> transactions) {
+        applyAll(transactions, -1);
+    }
+
+    // Только чтение: RoutingDataSource отправит запросы на реплику, все части диапазона читаются из одного снимка
+    @Override
+    @Transactional(readOnly = true)
+    public List<TransactionAggregate> getAggregates(UUID userId, Instant startDate, Instant endDate) {
+        if (startDate == null || endDate == null) {
+            return rollupRepository.findAggregates(userId);
+        }
+
+        // Полные месяцы внутри диапазона читаем из роллапов, неполные края — из транзакций
+        YearMonth startMonth = YearMonth.from(startDate.atZone(ZoneOffset.UTC));
+        YearMonth firstFull = startOfMonth(startMonth).equals(startDate) ? startMonth : startMonth.plusMonths(1);
+        YearMonth lastFull = YearMonth.from(endDate.atZone(ZoneOffset.UTC)).minusMonths(1);
+
+        if (firstFull.isAfter(lastFull)) {
+            return transactionRepository.aggregateByUserBetween(userId, startDate, endDate);
+        }
+
+        List<TransactionAggregate> aggregates = new ArrayList<>(rollupRepository.findAggregatesBetween(
+                userId, firstFull.atDay(1), lastFull.atDay(1)));
+        Instant head = startOfMonth(firstFull);
+        if (startDate.isBefore(head)) {
+            aggregates.addAll(transactionRepository.aggregateByUserInRange(userId, startDate, head));
+        }
+        Instant tail = startOfMonth(lastFull.plusMonths(1));
+        if (!endDate.isBefore(tail)) {
+            aggregates.addAll(transactionRepository.aggregateByUserBetween(userId, tail, endDate));
+        }
+        return aggregates;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<RollupDrift> verify(UUID userId) {
+        List<RollupDrift> drift = rollupRepository.findDrift(userId != null ? userId.toString() : null);
+        if (drift.isEmpty()) {
+            logger.info("Rollup verification passed for {}", userId != null ? "user " + userId : "all users");
+        } else {
+            logger.warn("Rollup verification found {} drifted buckets for {}", drift.size(),
+                    userId != null ? "user " + userId : "all users");
+            drift.forEach(d -> logger.warn("Drift: user={}, month={}, category={}, type={}, expected={}/{}, actual={}/{}",
+                    d.getUserId(), d.getMonth(), d.getCategory(), d.getType(),
+                    d.getExpectedTotal(), d.getExpectedCount(), d.getActualTotal(), d.getActualCount()));
+        }
+        return drift;
+    }
+
+    @Override
+    @Transactional
+    public int rebuild(UUID userId) {
+        int buckets;
+        if (userId != null) {
+            rollupRepository.deleteByUserId(userId);
+            buckets = rollupRepository.rebuildForUser(userId);
+        } else {
+            rollupRepository.deleteAllAttached();
+            buckets = rollupRepository.rebuildAll();
+        }
+        logger.info("Rebuilt {} rollup buckets for {}", buckets, userId != null ? "user " + userId : "all users");
+        return buckets;
+    }
+
+    // Суммы копятся в центах (long), BigDecimal создаётся один раз на бакет
+    private void applyAll(List<Transaction> transactions, int sign) {
+        Map<UserMonthlyRollup.Key, MoneySum> sums = new LinkedHashMap<>();
+        for (Transaction transaction : transactions) {
+            UserMonthlyRollup.Key key = new UserMonthlyRollup.Key(transaction.getUserId(), monthOf(transaction.getDate()),
+                    transaction.getCategory(), transaction.getType());
+            sums.computeIfAbsent(key, k -> new MoneySum()).add(transaction.getAmount());
+        }
+        sums.forEach((key, sum) -> rollupRepository.applyDelta(key.getUserId(), key.getMonth(), key.getCategory(),
+                key.getType(), Money.toDecimal(sign * sum.getMinorUnits()), sign * sum.getCount()));
+    }
+
+    private static LocalDate monthOf(Instant date) {
+        return YearMonth.from(date.atZone(ZoneOffset.UTC)).atDay(1);
+    }
+
+    private static Instant startOfMonth(YearMonth month) {
+        return month.atDay(1).atStartOfDay(ZoneOffset.UTC).toInstant();
+    }
+}
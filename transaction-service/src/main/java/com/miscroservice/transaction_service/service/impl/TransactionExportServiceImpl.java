@@ -0,0 +1,130 @@
+package com.miscroservice.transaction_service.service.impl;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.miscroservice.transaction_service.config.datasource.RoutingDataSource;
+import com.miscroservice.transaction_service.model.dto.ExportFormat;
+import com.miscroservice.transaction_service.model.entity.Transaction;
+import com.miscroservice.transaction_service.repository.TransactionRepository;
+import com.miscroservice.transaction_service.repository.TransactionSpecifications;
+import com.miscroservice.transaction_service.service.TransactionExportService;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+@Service
+public class TransactionExportServiceImpl implements TransactionExportService {
+    private static final Logger logger = LoggerFactory.getLogger(TransactionExportServiceImpl.class);
+    private static final String CSV_HEADER = "id,date,type,category,amount,description,payment_method";
+    private static final int FLUSH_EVERY_ROWS = 1_000;
+
+    private final TransactionRepository transactionRepository;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate readOnlyTransaction;
+
+    @Value("${transactions.export.fetch-size:1000}")
+    private int fetchSize;
+
+    public TransactionExportServiceImpl(TransactionRepository transactionRepository, EntityManager entityManager,
+                                        ObjectMapper objectMapper, PlatformTransactionManager transactionManager) {
+        this.transactionRepository = transactionRepository;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    // Память постоянна: строки читаются курсором, пишутся в поток и сразу отсоединяются от persistence context
+    @Override
+    public long export(UUID userId, Instant startDate, Instant endDate, String category, String type,
+                       ExportFormat format, OutputStream out) throws IOException {
+        // Выгрузка идёт в асинхронном потоке MVC, поэтому пользователь для маршрутизации на реплику задаётся явно
+        Long written = RoutingDataSource.callAs(userId, () -> readOnlyTransaction.execute(status -> {
+            try (Stream<Transaction> rows = transactionRepository.streamAll(
+                    TransactionSpecifications.filter(userId, startDate, endDate, category, type), fetchSize)) {
+                return format == ExportFormat.CSV ? writeCsv(rows.iterator(), out) : writeNdjson(rows.iterator(), out);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }));
+        logger.info("Exported {} transactions for user {} as {}", written, userId, format);
+        return written != null ? written : 0L;
+    }
+
+    private long writeNdjson(Iterator<Transaction> rows, OutputStream out) throws IOException {
+        long count = 0;
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        while (rows.hasNext()) {
+            Transaction transaction = rows.next();
+            generator.writeStartObject();
+            generator.writeStringField("id", transaction.getId().toString());
+            generator.writeStringField("date", transaction.getDate().toString());
+            generator.writeStringField("type", transaction.getType());
+            generator.writeStringField("category", transaction.getCategory());
+            generator.writeNumberField("amount", transaction.getAmount());
+            generator.writeStringField("description", transaction.getDescription());
+            generator.writeStringField("paymentMethod", transaction.getPaymentMethod());
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+            entityManager.detach(transaction);
+            if (++count % FLUSH_EVERY_ROWS == 0) {
+                generator.flush();
+            }
+        }
+        generator.flush();
+        return count;
+    }
+
+    private long writeCsv(Iterator<Transaction> rows, OutputStream out) throws IOException {
+        long count = 0;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+        while (rows.hasNext()) {
+            Transaction transaction = rows.next();
+            writer.write(transaction.getId().toString());
+            writer.write(',');
+            writer.write(transaction.getDate().toString());
+            writer.write(',');
+            writer.write(transaction.getType());
+            writer.write(',');
+            writer.write(csv(transaction.getCategory()));
+            writer.write(',');
+            writer.write(transaction.getAmount().toPlainString());
+            writer.write(',');
+            writer.write(csv(transaction.getDescription()));
+            writer.write(',');
+            writer.write(csv(transaction.getPaymentMethod()));
+            writer.write('\n');
+            entityManager.detach(transaction);
+            if (++count % FLUSH_EVERY_ROWS == 0) {
+                writer.flush();
+            }
+        }
+        writer.flush();
+        return count;
+    }
+
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,75 @@
+package com.miscroservice.transaction_service.service.impl;
+
+import com.miscroservice.transaction_service.exception.ValidationException;
+import com.miscroservice.transaction_service.model.dto.TransactionSearchResponse;
+import com.miscroservice.transaction_service.model.dto.TransactionSearchResult;
+import com.miscroservice.transaction_service.model.projection.TransactionSearchHit;
+import com.miscroservice.transaction_service.repository.TransactionRepository;
+import com.miscroservice.transaction_service.service.TransactionSearchService;
+import com.miscroservice.transaction_service.service.mapper.TransactionMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+public class TransactionSearchServiceImpl implements TransactionSearchService {
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int MAX_QUERY_LENGTH = 200;
+    private static final int MAX_TERMS = 8;
+    // Без явных границ диапазон открыт, но запрос всё равно остаётся по (user_id, date)
+    private static final Instant MIN_DATE = Instant.parse("1970-01-01T00:00:00Z");
+    private static final Instant MAX_DATE = Instant.parse("9999-12-31T23:59:59Z");
+
+    private final TransactionRepository transactionRepository;
+
+    @Override
+    @Transactional(readOnly = true)
+    public TransactionSearchResponse search(UUID userId, String query, Instant startDate, Instant endDate,
+                                            String category, String type, int page, int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new ValidationException("size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        if (page < 0) {
+            throw new ValidationException("page must not be negative");
+        }
+        String text = query == null ? "" : query.strip();
+        if (text.length() > MAX_QUERY_LENGTH) {
+            throw new ValidationException("q must be at most " + MAX_QUERY_LENGTH + " characters");
+        }
+        String tsQuery = toPrefixTsQuery(text);
+        if (tsQuery.isEmpty()) {
+            throw new ValidationException("q must contain at least one letter or digit");
+        }
+
+        // Лишняя строка показывает, есть ли следующая страница, без COUNT(*)
+        List<TransactionSearchHit> hits = transactionRepository.search(userId, text.toLowerCase(Locale.ROOT), tsQuery,
+                startDate != null ? startDate : MIN_DATE, endDate != null ? endDate : MAX_DATE,
+                category, type, size + 1, page * size);
+        boolean hasNext = hits.size() > size;
+        if (hasNext) {
+            hits = hits.subList(0, size);
+        }
+
+        List<TransactionSearchResult> results = new ArrayList<>(hits.size());
+        for (TransactionSearchHit hit : hits) {
+            results.add(new TransactionSearchResult(TransactionMapper.toResponse(hit),
+                    hit.getRank() != null ? hit.getRank() : 0d, hit.getHighlight()));
+        }
+        return new TransactionSearchResponse(results, page, size, hasNext);
+    }
+
+    // "netfl uber" -> "netfl:* & uber:*"; всё, кроме букв и цифр, отбрасывается, чтобы ввод не ломал синтаксис tsquery
+    static String toPrefixTsQuery(String text) {
+        return Arrays.stream(text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+"))
+                .filter(term -> !term.isEmpty())
+                .distinct()
+                .limit(MAX_TERMS)
+                .map(term -> term + ":*")
+                .collect(Collectors.joining(" & "));
+    }
+}
@@ -1,44 +1,65 @@
 package com.miscroservice.transaction_service.service.impl;
 
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.miscroservice.transaction_service.config.datasource.ReadYourWritesTracker;
+import com.miscroservice.transaction_service.config.datasource.RoutingDataSource;
 import com.miscroservice.transaction_service.exception.AccessDeniedException;
 import com.miscroservice.transaction_service.exception.TransactionNotFoundException;
 import com.miscroservice.transaction_service.exception.ValidationException;
+import com.miscroservice.transaction_service.model.dto.BulkOperation;
+import com.miscroservice.transaction_service.model.dto.BulkOperationResult;
+import com.miscroservice.transaction_service.model.dto.BulkTransactionResponse;
+import com.miscroservice.transaction_service.model.dto.StatsRange;
+import com.miscroservice.transaction_service.model.dto.TransactionCursorPage;
 import com.miscroservice.transaction_service.model.dto.TransactionItemDto;
 import com.miscroservice.transaction_service.model.dto.TransactionRequest;
 import com.miscroservice.transaction_service.model.dto.TransactionResponse;
 import com.miscroservice.transaction_service.model.dto.TransactionStatsResponse;
 import com.miscroservice.transaction_service.model.entity.Transaction;
-import com.miscroservice.transaction_service.repository.CategoryRepository;
+import com.miscroservice.transaction_service.model.projection.TransactionAggregate;
 import com.miscroservice.transaction_service.repository.TransactionRepository;
+import com.miscroservice.transaction_service.service.OutboxService;
+import com.miscroservice.transaction_service.service.StatsRollupService;
 import com.miscroservice.transaction_service.service.TransactionService;
-import io.lettuce.core.RedisConnectionException;
+import com.miscroservice.transaction_service.service.cache.CacheKeys;
+import com.miscroservice.transaction_service.service.cache.CacheRegion;
+import com.miscroservice.transaction_service.service.cache.SingleFlight;
+import com.miscroservice.transaction_service.service.category.CategoryRegistry;
+import com.miscroservice.transaction_service.service.cache.TwoTierCache;
+import com.miscroservice.transaction_service.service.mapper.TransactionMapper;
+import com.miscroservice.transaction_service.service.pagination.TransactionCursor;
+import com.miscroservice.transaction_service.service.stats.StatsRefreshScheduler;
+import com.miscroservice.transaction_service.service.stats.TransactionStatsAggregator;
 import lombok.RequiredArgsConstructor;
 import org.shared.dto.FeedbackMessage;
 import org.shared.dto.TransactionEvent;
 import org.shared.utils.KafkaUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.BatchListenerFailedException;
 import org.springframework.kafka.support.SendResult;
-import org.springframework.retry.annotation.Backoff;
-import org.springframework.retry.annotation.Retryable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.validation.BindingResult;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.Instant;
 import java.time.LocalDate;
-import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -48,19 +69,27 @@ public class TransactionServiceImpl implements TransactionService {
     private static final String BALANCE_UPDATE_TOPIC = "balance-update-topic";
 
     private final TransactionRepository transactionRepository;
-    private final CategoryRepository categoryRepository;
+    private final CategoryRegistry categoryRegistry;
+    private final StatsRollupService statsRollupService;
     private final RedisTemplate<String, Object> redisTemplate;
+    private final TwoTierCache twoTierCache;
+    private final OutboxService outboxService;
     private final KafkaTemplate<String, String> feedbackKafkaTemplate;
-    private final KafkaTemplate<String, String> balanceKafkaTemplate;
-
-    private static final String TRANSACTIONS_CACHE_PREFIX = "transactions:user:";
-    private static final String STATS_CACHE_PREFIX = "stats:user:";
-    private static final String EVENT_SENT_PREFIX = "event:sent:";
-
-    @Value("${event.sent.ttl.hours}")
-    private long eventSentTtlHours;
+    private final ReadYourWritesTracker readYourWritesTracker;
+    private final StatsRefreshScheduler statsRefreshScheduler;
+    private final SingleFlight singleFlight;
+    private final TransactionTemplate transactionTemplate;
+
+    private static final int MAX_CURSOR_PAGE_SIZE = 500;
+    private static final long CACHE_TTL_MINUTES = 10;
+    private static final int MAX_BULK_OPERATIONS = 5_000;
+    // Ограничения колонок transactions: VARCHAR(50) и DECIMAL(15, 2)
+    private static final int MAX_SHORT_TEXT_LENGTH = 50;
+    private static final int MAX_AMOUNT_PRECISION = 15;
+    private static final TypeReference<List<TransactionResponse>> TRANSACTION_LIST_TYPE = new TypeReference<>() {};
 
     @Override
+    @Transactional
     public TransactionResponse createTransaction(TransactionRequest request, UUID userId, BindingResult bindingResult) {
         validateRequest(bindingResult);
         validateCategory(request.getCategory());
@@ -79,6 +108,8 @@ public class TransactionServiceImpl implements TransactionService {
 
         try {
             transaction = transactionRepository.save(transaction);
+            statsRollupService.recordCreated(userId, transaction.getDate(), transaction.getCategory(),
+                    transaction.getType(), transaction.getAmount());
             sendBalanceUpdateEvent(new TransactionEvent(
                     transaction.getId().toString(),
                     userId,
@@ -92,32 +123,67 @@ public class TransactionServiceImpl implements TransactionService {
         }
 
         invalidateCache(userId);
-        return mapToResponse(transaction);
+        return TransactionMapper.toResponse(transaction);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Page<TransactionResponse> getTransactions(
             UUID userId, Instant startDate, Instant endDate, String category, String type, Pageable pageable) {
-        String cacheKey = TRANSACTIONS_CACHE_PREFIX + userId + ":" + startDate + ":" + endDate + ":" +
-                category + ":" + type + ":" + pageable.getPageNumber() + ":" + pageable.getPageSize();
+        String cacheKey = CacheKeys.transactions(userId, cacheVersion(userId), startDate, endDate, category, type,
+                pageable.getPageNumber(), pageable.getPageSize());
 
-        @SuppressWarnings("unchecked")
-        List<TransactionResponse> cachedContent = (List<TransactionResponse>) redisTemplate.opsForValue().get(cacheKey);
+        List<TransactionResponse> cachedContent = twoTierCache.get(CacheRegion.TRANSACTIONS, cacheKey, TRANSACTION_LIST_TYPE);
 
-        if (cachedContent != null) {
+        if (cachedContent != null && !singleFlight.shouldRefreshEarly(cacheKey)) {
             return new PageImpl<>(cachedContent, pageable, cachedContent.size());
         }
 
-        Instant start = startDate != null ? startDate : null;
-        Instant end = endDate != null ? endDate : null;
-        Page<Transaction> transactions = transactionRepository.findByFilters(userId, start, end, category, type, pageable);
-        Page<TransactionResponse> response = transactions.map(this::mapToResponse);
+        // Одинаковые параллельные запросы (дашборд открывает несколько) ждут один запрос к БД
+        return singleFlight.execute(cacheKey, CACHE_TTL_MINUTES, TimeUnit.MINUTES, () -> {
+            Page<Transaction> transactions = transactionRepository.findByFilters(userId, startDate, endDate, category, type, pageable);
+            Page<TransactionResponse> response = transactions.map(TransactionMapper::toResponse);
+
+            twoTierCache.put(CacheRegion.TRANSACTIONS, cacheKey, response.getContent(), CACHE_TTL_MINUTES, TimeUnit.MINUTES);
+            return response;
+        });
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public TransactionCursorPage getTransactionsAfter(UUID userId, Instant startDate, Instant endDate, String category,
+                                                      String type, String cursor, int size, boolean includeTotal) {
+        if (size < 1 || size > MAX_CURSOR_PAGE_SIZE) {
+            throw new ValidationException("size must be between 1 and " + MAX_CURSOR_PAGE_SIZE);
+        }
+
+        // Берём на одну строку больше, чтобы узнать о следующей странице без COUNT(*)
+        int limit = size + 1;
+        List<Transaction> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = transactionRepository.findFirstByFilters(userId, startDate, endDate, category, type, limit);
+        } else {
+            TransactionCursor position = TransactionCursor.decode(cursor);
+            rows = transactionRepository.findNextByFilters(userId, startDate, endDate, category, type,
+                    position.date(), position.id(), limit);
+        }
+
+        boolean hasNext = rows.size() > size;
+        List<Transaction> pageRows = hasNext ? rows.subList(0, size) : rows;
+        String nextCursor = null;
+        if (hasNext) {
+            Transaction last = pageRows.get(pageRows.size() - 1);
+            nextCursor = new TransactionCursor(last.getDate(), last.getId()).encode();
+        }
+        Long total = includeTotal
+                ? transactionRepository.countByFilters(userId, startDate, endDate, category, type)
+                : null;
 
-        redisTemplate.opsForValue().set(cacheKey, response.getContent(), 10, TimeUnit.MINUTES);
-        return response;
+        return new TransactionCursorPage(pageRows.stream().map(TransactionMapper::toResponse).toList(), nextCursor, hasNext, total);
     }
 
     @Override
+    @Transactional
     public TransactionResponse updateTransaction(UUID id, TransactionRequest request, UUID userId, BindingResult bindingResult) {
         validateRequest(bindingResult);
 
@@ -133,6 +199,7 @@ public class TransactionServiceImpl implements TransactionService {
         // Сохраняем старые значения для события
         BigDecimal oldAmount = transaction.getAmount();
         String oldType = transaction.getType();
+        String oldCategory = transaction.getCategory();
 
         transaction.setAmount(request.getAmount());
         transaction.setCategory(request.getCategory());
@@ -141,6 +208,9 @@ public class TransactionServiceImpl implements TransactionService {
         transaction.setUpdatedAt(Instant.now());
 
         transaction = transactionRepository.save(transaction);
+        statsRollupService.recordDeleted(userId, transaction.getDate(), oldCategory, oldType, oldAmount);
+        statsRollupService.recordCreated(userId, transaction.getDate(), transaction.getCategory(),
+                transaction.getType(), transaction.getAmount());
         sendBalanceUpdateEvent(new TransactionEvent(
                 transaction.getId().toString(),
                 userId,
@@ -152,10 +222,11 @@ public class TransactionServiceImpl implements TransactionService {
         ));
 
         invalidateCache(userId);
-        return mapToResponse(transaction);
+        return TransactionMapper.toResponse(transaction);
     }
 
     @Override
+    @Transactional
     public void deleteTransaction(UUID id, UUID userId) {
         Transaction transaction = transactionRepository.findById(id)
                 .orElseThrow(TransactionNotFoundException::new);
@@ -171,98 +242,283 @@ public class TransactionServiceImpl implements TransactionService {
                 "DELETE"
         ));
         transactionRepository.delete(transaction);
+        statsRollupService.recordDeleted(userId, transaction.getDate(), transaction.getCategory(),
+                transaction.getType(), transaction.getAmount());
         invalidateCache(userId);
     }
 
+    // Все операции проверяются по снимку категорий и одной выборкой существующих строк, пишутся одной транзакцией
+    // JDBC-пакетами. Балансу уходит событие на каждую строку, как при одиночных операциях: журнал баланса видит
+    // каждую транзакцию, а eventId хранится в outbox вместе со строкой и не меняется при повторной отправке
+    @Override
+    @Transactional
+    public BulkTransactionResponse applyBulk(List<BulkOperation> operations, UUID userId) {
+        if (operations == null || operations.isEmpty() || operations.size() > MAX_BULK_OPERATIONS) {
+            throw new ValidationException("operations must contain between 1 and " + MAX_BULK_OPERATIONS + " items");
+        }
+
+        Set<UUID> referencedIds = new HashSet<>();
+        for (BulkOperation operation : operations) {
+            if (operation != null && operation.getId() != null) {
+                referencedIds.add(operation.getId());
+            }
+        }
+        Map<UUID, Transaction> existing = new HashMap<>();
+        if (!referencedIds.isEmpty()) {
+            transactionRepository.findAllById(referencedIds).forEach(t -> existing.put(t.getId(), t));
+        }
+
+        BulkOperationResult[] results = new BulkOperationResult[operations.size()];
+        Map<Integer, Transaction> created = new LinkedHashMap<>();
+        List<Transaction> updated = new ArrayList<>();
+        List<Transaction> previous = new ArrayList<>();
+        List<Transaction> deleted = new ArrayList<>();
+        Set<UUID> touched = new HashSet<>();
+        Map<Integer, TransactionEvent> events = new TreeMap<>();
+        Instant now = Instant.now();
+
+        for (int i = 0; i < operations.size(); i++) {
+            BulkOperation operation = operations.get(i);
+            String op = operation != null && operation.getOp() != null ? operation.getOp().toUpperCase() : null;
+            String error = validateBulkOperation(operation, op, existing, touched, userId);
+            if (error != null) {
+                results[i] = new BulkOperationResult(i, "REJECTED", operation != null ? operation.getId() : null, error);
+                continue;
+            }
+
+            switch (op) {
+                case "CREATE" -> {
+                    Transaction transaction = new Transaction();
+                    transaction.setUserId(userId);
+                    applyRequest(transaction, operation.getTransaction(), now);
+                    transaction.setDate(Instant.parse(operation.getTransaction().getDate()));
+                    transaction.setPaymentMethod(operation.getTransaction().getPaymentMethod());
+                    transaction.setCreatedAt(now);
+                    created.put(i, transaction);
+                }
+                case "UPDATE" -> {
+                    Transaction transaction = existing.get(operation.getId());
+                    BigDecimal oldAmount = transaction.getAmount();
+                    String oldType = transaction.getType();
+                    previous.add(copyForRollup(transaction));
+                    applyRequest(transaction, operation.getTransaction(), now);
+                    events.put(i, new TransactionEvent(transaction.getId().toString(), userId, transaction.getAmount(),
+                            transaction.getType(), "UPDATE", oldAmount, oldType));
+                    updated.add(transaction);
+                    touched.add(transaction.getId());
+                    results[i] = new BulkOperationResult(i, "UPDATED", transaction.getId(), null);
+                }
+                default -> {
+                    Transaction transaction = existing.get(operation.getId());
+                    events.put(i, new TransactionEvent(transaction.getId().toString(), userId, transaction.getAmount(),
+                            transaction.getType(), "DELETE"));
+                    deleted.add(transaction);
+                    touched.add(transaction.getId());
+                    results[i] = new BulkOperationResult(i, "DELETED", transaction.getId(), null);
+                }
+            }
+        }
+
+        List<Transaction> toSave = new ArrayList<>(created.values());
+        toSave.addAll(updated);
+        if (!toSave.isEmpty()) {
+            transactionRepository.saveAll(toSave);
+        }
+        if (!deleted.isEmpty()) {
+            transactionRepository.deleteAllInBatch(deleted);
+        }
+        created.forEach((index, transaction) -> {
+            results[index] = new BulkOperationResult(index, "CREATED", transaction.getId(), null);
+            events.put(index, new TransactionEvent(transaction.getId().toString(), userId, transaction.getAmount(),
+                    transaction.getType(), "CREATE"));
+        });
+
+        List<Transaction> removedFromRollups = new ArrayList<>(previous);
+        removedFromRollups.addAll(deleted);
+        if (!removedFromRollups.isEmpty()) {
+            statsRollupService.recordDeletedAll(removedFromRollups);
+        }
+        if (!toSave.isEmpty()) {
+            statsRollupService.recordCreatedAll(toSave);
+        }
+
+        // Вставки в outbox уходят JDBC-пакетами; balance-service всё равно сворачивает пачку в одну дельту на пользователя
+        events.values().forEach(this::sendBalanceUpdateEvent);
+
+        int applied = toSave.size() + deleted.size();
+        if (applied > 0) {
+            invalidateCache(userId);
+        }
+
+        logger.info("Applied bulk request for user {}: {} applied, {} rejected", userId, applied,
+                operations.size() - applied);
+        return new BulkTransactionResponse(Arrays.asList(results), applied, operations.size() - applied);
+    }
+
     @Override
     public TransactionStatsResponse getStats(UUID userId, String startDate, String endDate) {
-        String cacheKey = STATS_CACHE_PREFIX + userId + ":" + (startDate != null ? startDate : "null") + ":" + (endDate != null ? endDate : "null");
-        TransactionStatsResponse cachedStats = (TransactionStatsResponse) redisTemplate.opsForValue().get(cacheKey);
+        String cacheKey = CacheKeys.stats(userId, cacheVersion(userId), startDate, endDate);
+        TransactionStatsResponse cachedStats = twoTierCache.get(CacheRegion.STATS, cacheKey, TransactionStatsResponse.class);
 
-        if (cachedStats != null) {
+        if (cachedStats != null && !singleFlight.shouldRefreshEarly(cacheKey)) {
             return cachedStats;
         }
 
-        List<Transaction> transactions = transactionRepository.findByUserId(userId);
-        if (startDate != null && endDate != null) {
-            Instant start = Instant.parse(startDate);
-            Instant end = Instant.parse(endDate);
-            transactions = transactions.stream()
-                    .filter(t -> !t.getDate().isBefore(start) && !t.getDate().isAfter(end))
-                    .toList();
-        }
-
-        BigDecimal totalIncome = transactions.stream()
-                .filter(t -> t.getType().equals("INCOME"))
-                .map(Transaction::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        BigDecimal totalExpense = transactions.stream()
-                .filter(t -> t.getType().equals("EXPENSE"))
-                .map(Transaction::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        Map<String, BigDecimal> byCategory = transactions.stream()
-                .collect(Collectors.groupingBy(
-                        Transaction::getCategory,
-                        Collectors.reducing(BigDecimal.ZERO, Transaction::getAmount, BigDecimal::add)
-                ));
-
-        Map<String, BigDecimal> byMonth = transactions.stream()
-                .collect(Collectors.groupingBy(
-                        t -> t.getDate().atZone(ZoneId.systemDefault()).toLocalDate().getMonth().toString(),
-                        Collectors.reducing(BigDecimal.ZERO, Transaction::getAmount, BigDecimal::add)
-                ));
-
-        TransactionStatsResponse stats = new TransactionStatsResponse();
-        stats.setTotalIncome(totalIncome);
-        stats.setTotalExpense(totalExpense);
-        stats.setByCategory(byCategory);
-        stats.setByMonth(byMonth);
-
-        redisTemplate.opsForValue().set(cacheKey, stats, 10, TimeUnit.MINUTES);
+        return singleFlight.execute(cacheKey, CACHE_TTL_MINUTES, TimeUnit.MINUTES,
+                () -> computeStats(userId, cacheKey, startDate, endDate));
+    }
+
+    @Override
+    public TransactionStatsResponse getStats(UUID userId, StatsRange range) {
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        return getStats(userId, range.startDate(today), range.endDate(today));
+    }
+
+    private TransactionStatsResponse computeStats(UUID userId, String cacheKey, String startDate, String endDate) {
+        List<TransactionAggregate> aggregates = startDate != null && endDate != null
+                ? statsRollupService.getAggregates(userId, Instant.parse(startDate), Instant.parse(endDate))
+                : statsRollupService.getAggregates(userId, null, null);
+        TransactionStatsResponse stats = TransactionStatsAggregator.aggregate(aggregates);
+
+        twoTierCache.put(CacheRegion.STATS, cacheKey, stats, CACHE_TTL_MINUTES, TimeUnit.MINUTES);
         return stats;
     }
 
+    // Фоновый пересчёт типовых диапазонов дашборда под новой версией кэша.
+    // Версия читается до данных: если запись успеет закоммититься позже, результат уйдёт под старую версию и не будет прочитан.
+    // В потоке планировщика нет SecurityContext: callAs включает для пользователя барьер read-your-writes,
+    // иначе отстающая реплика попала бы в кэш под новой версией
+    private void precomputeStats(UUID userId) {
+        RoutingDataSource.callAs(userId, () -> {
+            long version = cacheVersion(userId);
+            LocalDate today = LocalDate.now(ZoneOffset.UTC);
+            for (StatsRange range : StatsRange.values()) {
+                String startDate = range.startDate(today);
+                String endDate = range.endDate(today);
+                precomputeStats(userId, CacheKeys.stats(userId, version, startDate, endDate), startDate, endDate);
+            }
+            precomputeStats(userId, CacheKeys.stats(userId, version, null, null), null, null);
+            return null;
+        });
+    }
+
+    // Через single-flight: чтения, пришедшие во время пересчёта, дождутся его вместо своего запроса
+    private void precomputeStats(UUID userId, String cacheKey, String startDate, String endDate) {
+        singleFlight.execute(cacheKey, CACHE_TTL_MINUTES, TimeUnit.MINUTES,
+                () -> computeStats(userId, cacheKey, startDate, endDate));
+    }
+
     @Override
+    @Transactional
     public void processTransactionFromDocument(TransactionItemDto item, UUID userId, UUID documentId) {
         logger.info("Processing transaction from document: {} for user: {}", item, userId);
 
-        try {
-            validateCategory(item.getCategory());
-            Transaction transaction = mapToTransaction(item, userId, documentId);
-            transaction = transactionRepository.save(transaction);
-            logger.info("Transaction saved from document: {}", transaction);
+        // Отказ валидации окончателен: повтор ничего не изменит, поэтому без исключения, только FAILED после коммита
+        String error = validateDocumentItem(item, userId);
+        if (error != null) {
+            logger.warn("Rejecting transaction from document {}: {}", documentId, error);
+            sendFeedbackAfterCommit(List.of(() -> sendDocumentFeedback(documentId, "FAILED", error)));
+            return;
+        }
 
-            sendBalanceUpdateEvent(new TransactionEvent(
-                    transaction.getId().toString(),
-                    userId,
-                    transaction.getAmount(),
-                    transaction.getType(),
-                    "CREATE"
-            ));
+        // Ошибки записи пробрасываются без фидбека: запись повторит обработчик ошибок контейнера,
+        // FAILED отправит reportTransactionItemFailed после DLQ
+        Transaction transaction = transactionRepository.save(mapToTransaction(item, userId, documentId));
+        statsRollupService.recordCreated(userId, transaction.getDate(), transaction.getCategory(),
+                transaction.getType(), transaction.getAmount());
+        logger.info("Transaction saved from document: {}", transaction);
 
-            FeedbackMessage successFeedback = new FeedbackMessage(documentId.toString(), "TRANSACTION", "SUCCESS", item.getName());
-            sendFeedbackAndHandle(feedbackKafkaTemplate, FEEDBACK_TOPIC, successFeedback, documentId, "success");
-            invalidateCache(userId);
-        } catch (Exception e) {
-            logger.error("Failed to process transaction from document: {}", item, e);
-            FeedbackMessage failureFeedback = new FeedbackMessage(documentId.toString(), "TRANSACTION", "FAILED", e.getMessage());
-            sendFeedbackAndHandle(feedbackKafkaTemplate, FEEDBACK_TOPIC, failureFeedback, documentId, "failure");
-            throw e;
+        sendBalanceUpdateEvent(new TransactionEvent(
+                transaction.getId().toString(),
+                userId,
+                transaction.getAmount(),
+                transaction.getType(),
+                "CREATE"
+        ));
+
+        sendFeedbackAfterCommit(List.of(() -> sendDocumentFeedback(documentId, "SUCCESS", item.getName())));
+        invalidateCache(userId);
+    }
+
+    @Override
+    @Transactional
+    public void processTransactionBatch(List<TransactionItemDto> items) {
+        logger.info("Processing batch of {} transactions from documents", items.size());
+
+        List<Runnable> feedback = new ArrayList<>();
+        List<TransactionItemDto> accepted = new ArrayList<>();
+        List<Transaction> transactions = new ArrayList<>();
+        for (TransactionItemDto item : items) {
+            String error = validateDocumentItem(item, item.getUserId());
+            if (error != null) {
+                logger.warn("Rejecting transaction from document {}: {}", item.getDocumentId(), error);
+                feedback.add(() -> sendItemFeedback(item, "FAILED", error));
+                continue;
+            }
+            accepted.add(item);
+            transactions.add(mapToTransaction(item, item.getUserId(), item.getDocumentId()));
+        }
+
+        if (!transactions.isEmpty()) {
+            try {
+                // JDBC batch insert (hibernate.jdbc.batch_size), UUID генерируется без обращения к БД
+                transactions = transactionRepository.saveAll(transactions);
+                statsRollupService.recordCreatedAll(transactions);
+            } catch (RuntimeException e) {
+                // Фидбек не отправляем: пачку повторит обработчик ошибок контейнера, FAILED придёт после DLQ
+                logger.error("Failed to save batch of {} transactions from documents", transactions.size(), e);
+                throw e;
+            }
+
+            for (Transaction transaction : transactions) {
+                sendBalanceUpdateEvent(new TransactionEvent(transaction.getId().toString(), transaction.getUserId(),
+                        transaction.getAmount(), transaction.getType(), "CREATE"));
+            }
+            accepted.forEach(item -> feedback.add(() -> sendItemFeedback(item, "SUCCESS", item.getName())));
+            transactions.stream().map(Transaction::getUserId).distinct().forEach(this::invalidateCache);
+        }
+
+        sendFeedbackAfterCommit(feedback);
+    }
+
+    @Override
+    public void reportTransactionItemFailed(TransactionItemDto item, String error) {
+        logger.error("Transaction from document {} moved to DLQ: {}", item.getDocumentId(), error);
+        sendItemFeedback(item, "FAILED", error);
+        feedbackKafkaTemplate.flush();
+    }
+
+    @KafkaListener(topics = "transactions-topic", groupId = "transaction-group",
+            containerFactory = "batchKafkaListenerContainerFactory",
+            autoStartup = "${transactions.ingest.batch.enabled:true}")
+    public void consumeTransactionBatch(List<TransactionItemDto> items) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> processTransactionBatch(items));
+        } catch (RuntimeException e) {
+            if (items.size() == 1) {
+                throw new BatchListenerFailedException("Failed to save transaction from document", e, 0);
+            }
+            // Одна строка, не прошедшая ограничения БД, не должна отправить в DLQ весь poll: пишем по одной,
+            // успешные фиксируются, а обработчик ошибок повторяет и отправляет в DLQ только запись с найденным индексом
+            logger.warn("Batch of {} transactions failed, saving one by one", items.size(), e);
+            for (int i = 0; i < items.size(); i++) {
+                List<TransactionItemDto> single = List.of(items.get(i));
+                try {
+                    transactionTemplate.executeWithoutResult(status -> processTransactionBatch(single));
+                } catch (RuntimeException itemFailure) {
+                    throw new BatchListenerFailedException("Failed to save transaction from document "
+                            + items.get(i).getDocumentId(), itemFailure, i);
+                }
+            }
         }
     }
 
     @KafkaListener(topics = "transactions-topic", groupId = "transaction-group",
-            containerFactory = "kafkaListenerContainerFactory")
+            containerFactory = "kafkaListenerContainerFactory",
+            autoStartup = "#{!${transactions.ingest.batch.enabled:true}}")
+    @Transactional
     public void consumeTransactionFromDocument(TransactionItemDto item) {
-        UUID userId = item.getUserId();
-        if (userId == null) {
-            logger.error("userId is missing in TransactionItemDto: {}", item);
-            throw new IllegalArgumentException("userId is required for transaction processing");
-        }
-        UUID documentId = item.getDocumentId();
-        processTransactionFromDocument(item, userId, documentId);
+        processTransactionFromDocument(item, item.getUserId(), item.getDocumentId());
     }
 
     @KafkaListener(topics = "balance-update-topic-dlq", groupId = "transaction-dlq-group",
@@ -274,47 +530,9 @@ public class TransactionServiceImpl implements TransactionService {
         logger.info("Processing DLQ event: transactionId={}", event.getTransactionId());
     }
 
+    // Событие пишется в outbox в той же транзакции БД; в Kafka его отправляет OutboxRelay
     private void sendBalanceUpdateEvent(TransactionEvent event) {
-        String eventKey = EVENT_SENT_PREFIX + event.getTransactionId() + ":" + event.getOperation();
-
-        if (redisTemplate == null) {
-            logger.error("RedisTemplate is null, cannot proceed with event check");
-            throw new IllegalStateException("RedisTemplate is not initialized");
-        }
-
-        Boolean isProcessed = redisTemplate.opsForValue().get(eventKey) != null;
-        if (isProcessed) {
-            logger.info("Event already processed for transactionId={} and operation={}, skipping",
-                    event.getTransactionId(), event.getOperation());
-            return;
-        }
-
-        try {
-            CompletableFuture<SendResult<String, String>> future = KafkaUtils.sendMessage(balanceKafkaTemplate, BALANCE_UPDATE_TOPIC, event);
-            if (future != null) {
-                future.whenComplete((result, ex) -> {
-                    if (ex != null) {
-                        logger.error("Failed to send balance update event for transaction: {}", event.getTransactionId(), ex);
-                    }
-                });
-                redisTemplate.opsForValue().set(eventKey, "true", eventSentTtlHours, TimeUnit.HOURS);
-            } else {
-                logger.warn("Kafka send returned null future for transactionId={}", event.getTransactionId());
-            }
-        } catch (Exception e) {
-            logger.error("Failed to send balance update event for transaction: {}", event.getTransactionId(), e);
-        }
-    }
-
-    private TransactionResponse mapToResponse(Transaction transaction) {
-        return new TransactionResponse(
-                transaction.getId(),
-                transaction.getAmount(),
-                transaction.getType(),
-                transaction.getCategory(),
-                transaction.getDescription(),
-                transaction.getDate().toString()
-        );
+        outboxService.enqueue(BALANCE_UPDATE_TOPIC, event.getUserId().toString(), event.toJson());
     }
 
     private Transaction mapToTransaction(TransactionItemDto item, UUID userId, UUID documentId) {
@@ -332,41 +550,177 @@ public class TransactionServiceImpl implements TransactionService {
         return transaction;
     }
 
-    @Retryable(value = RedisConnectionException.class, maxAttempts = 3, backoff = @Backoff(delay = 1000))
-    private Set<String> fetchKeys(String pattern) {
-        return redisTemplate.keys(pattern);
+    // Ключи кэша содержат поколение пользователя; после инкремента старые записи недостижимы и истекают по TTL
+    // Версия живёт в L1 недолго; при записи на любой реплике её копии сбрасываются через pub/sub,
+    // а ответ Redis, обогнанный эвиктом, в L1 не попадает
+    private long cacheVersion(UUID userId) {
+        try {
+            return twoTierCache.getOrDefault(CacheRegion.VERSIONS, CacheKeys.version(userId), Long.class, 0L);
+        } catch (Exception e) {
+            logger.warn("Failed to read cache version for user: {}", userId, e);
+            return 0L;
+        }
     }
 
     private void invalidateCache(UUID userId) {
-        Set<String> keysToDelete = new HashSet<>();
-        boolean transactionKeysFetched = false;
-        boolean statsKeysFetched = false;
+        // Версию поднимаем после коммита, иначе параллельное чтение закэширует ещё не обновлённые данные
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    bumpCacheVersion(userId);
+                }
+            });
+        } else {
+            bumpCacheVersion(userId);
+        }
+    }
 
-        try {
-            keysToDelete.addAll(fetchKeys(TRANSACTIONS_CACHE_PREFIX + userId + "*"));
-            transactionKeysFetched = true;
-        } catch (Exception e) {
-            logger.warn("Failed to fetch transaction cache keys for user: {}", userId, e);
+    // Откаченная пачка будет повторена, поэтому документы узнают результат только после коммита
+    private void sendFeedbackAfterCommit(List<Runnable> feedback) {
+        if (feedback.isEmpty()) {
+            return;
+        }
+        Runnable send = () -> {
+            feedback.forEach(Runnable::run);
+            feedbackKafkaTemplate.flush();
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    send.run();
+                }
+            });
+        } else {
+            send.run();
         }
+    }
 
+    private void bumpCacheVersion(UUID userId) {
         try {
-            keysToDelete.addAll(fetchKeys(STATS_CACHE_PREFIX + userId + "*"));
-            statsKeysFetched = true;
+            redisTemplate.opsForValue().increment(CacheKeys.version(userId));
+            twoTierCache.evict(CacheRegion.VERSIONS, CacheKeys.version(userId));
         } catch (Exception e) {
-            logger.warn("Failed to fetch stats cache keys for user: {}", userId, e);
+            logger.warn("Failed to bump cache version for user: {}", userId, e);
+        }
+        // Следующие чтения пользователя идут в primary, пока реплики не проиграют этот коммит
+        readYourWritesTracker.recordWrite(userId);
+        // Пачка записей (например, 50 позиций чека) даёт один пересчёт после окна debounce
+        statsRefreshScheduler.schedule(userId, () -> precomputeStats(userId));
+    }
+
+    private String validateDocumentItem(TransactionItemDto item, UUID userId) {
+        if (userId == null) {
+            return "userId is required for transaction processing";
+        }
+        if (item.getPrice() == null || item.getDate() == null) {
+            return "price and date are required";
+        }
+        if (!"INCOME".equals(item.getType()) && !"EXPENSE".equals(item.getType())) {
+            return "Type must be either 'INCOME' or 'EXPENSE'";
+        }
+        // DECIMAL(15, 2): сумма округляется до копеек, переполнение целой части — ошибка вставки
+        if (item.getPrice().setScale(2, RoundingMode.HALF_UP).precision() > MAX_AMOUNT_PRECISION) {
+            return "price must have at most " + (MAX_AMOUNT_PRECISION - 2) + " digits before the decimal point";
+        }
+        if (item.getCategory() == null || item.getCategory().length() > MAX_SHORT_TEXT_LENGTH
+                || !categoryRegistry.contains(item.getCategory())) {
+            return "Category '" + item.getCategory() + "' does not exist";
+        }
+        if (item.getPaymentMethod() != null && item.getPaymentMethod().length() > MAX_SHORT_TEXT_LENGTH) {
+            return "paymentMethod must be at most " + MAX_SHORT_TEXT_LENGTH + " characters";
+        }
+        return null;
+    }
+
+    private String validateBulkOperation(BulkOperation operation, String op, Map<UUID, Transaction> existing,
+                                         Set<UUID> touched, UUID userId) {
+        if (operation == null || op == null) {
+            return "op is required";
+        }
+        if (!op.equals("CREATE") && !op.equals("UPDATE") && !op.equals("DELETE")) {
+            return "op must be one of CREATE, UPDATE, DELETE";
+        }
+        if (!op.equals("CREATE")) {
+            if (operation.getId() == null) {
+                return "id is required for " + op;
+            }
+            Transaction transaction = existing.get(operation.getId());
+            if (transaction == null) {
+                return "Transaction not found";
+            }
+            if (!transaction.getUserId().equals(userId)) {
+                return "You can only modify your own transactions";
+            }
+            if (touched.contains(operation.getId())) {
+                return "Transaction is already modified by an earlier operation in this request";
+            }
+            if (op.equals("DELETE")) {
+                return null;
+            }
         }
 
-        if (!keysToDelete.isEmpty() && (transactionKeysFetched || statsKeysFetched)) {
+        TransactionRequest request = operation.getTransaction();
+        if (request == null) {
+            return "transaction is required for " + op;
+        }
+        if (request.getAmount() == null) {
+            return "amount: Amount cannot be null";
+        }
+        if (!"INCOME".equals(request.getType()) && !"EXPENSE".equals(request.getType())) {
+            return "Type must be either 'INCOME' or 'EXPENSE'";
+        }
+        if (!categoryRegistry.contains(request.getCategory())) {
+            return "Category '" + request.getCategory() + "' does not exist";
+        }
+        if (op.equals("CREATE")) {
+            if (request.getDate() == null) {
+                return "date: Date cannot be blank";
+            }
             try {
-                redisTemplate.delete(keysToDelete);
-            } catch (Exception e) {
-                logger.warn("Failed to delete cache keys for user: {}", userId, e);
+                Instant.parse(request.getDate());
+            } catch (DateTimeParseException e) {
+                return "date: Invalid ISO-8601 instant";
             }
         }
+        return null;
+    }
+
+    // Поля, которые меняет и создание, и обновление (дата при обновлении не меняется, как и в updateTransaction)
+    private void applyRequest(Transaction transaction, TransactionRequest request, Instant now) {
+        transaction.setAmount(request.getAmount());
+        transaction.setType(request.getType());
+        transaction.setCategory(request.getCategory());
+        transaction.setDescription(request.getDescription());
+        transaction.setUpdatedAt(now);
+    }
+
+    private Transaction copyForRollup(Transaction source) {
+        Transaction copy = new Transaction();
+        copy.setUserId(source.getUserId());
+        copy.setDate(source.getDate());
+        copy.setCategory(source.getCategory());
+        copy.setType(source.getType());
+        copy.setAmount(source.getAmount());
+        return copy;
+    }
+
+    private void sendItemFeedback(TransactionItemDto item, String status, String details) {
+        sendDocumentFeedback(item.getDocumentId(), status, details);
+    }
+
+    private void sendDocumentFeedback(UUID documentId, String status, String details) {
+        if (documentId == null) {
+            return;
+        }
+        FeedbackMessage feedback = new FeedbackMessage(documentId.toString(), "TRANSACTION", status, details);
+        sendFeedbackAndHandle(feedbackKafkaTemplate, FEEDBACK_TOPIC, feedback, documentId,
+                "SUCCESS".equals(status) ? "success" : "failure");
     }
 
     private void validateCategory(String categoryName) {
-        if (!categoryRepository.findByName(categoryName).isPresent()) {
+        if (!categoryRegistry.contains(categoryName)) {
             throw new IllegalArgumentException("Category '" + categoryName + "' does not exist");
         }
     }
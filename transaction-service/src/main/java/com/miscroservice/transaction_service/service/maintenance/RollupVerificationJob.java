@@ -0,0 +1,36 @@
+package com.miscroservice.transaction_service.service.maintenance;
+
+import com.miscroservice.transaction_service.service.StatsRollupService;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Periodically compares rollups against raw transactions and, if enabled, repairs drift.
+ */
+@Component
+@RequiredArgsConstructor
+public class RollupVerificationJob {
+    private static final Logger logger = LoggerFactory.getLogger(RollupVerificationJob.class);
+
+    private final StatsRollupService statsRollupService;
+
+    @Value("${rollup.verify.auto-rebuild:false}")
+    private boolean autoRebuild;
+
+    @Scheduled(cron = "${rollup.verify.cron:0 30 3 * * *}")
+    public void verifyRollups() {
+        try {
+            int drifted = statsRollupService.verify(null).size();
+            if (drifted > 0 && autoRebuild) {
+                logger.warn("Rebuilding rollups after detecting {} drifted buckets", drifted);
+                statsRollupService.rebuild(null);
+            }
+        } catch (Exception e) {
+            logger.error("Rollup verification failed", e);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.miscroservice.transaction_service.service.maintenance;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps monthly partitions of {@code transactions} created ahead of time and detaches expired ones.
+ */
+@Component
+public class TransactionPartitionMaintenance {
+    private static final Logger logger = LoggerFactory.getLogger(TransactionPartitionMaintenance.class);
+    private static final String PARTITION_PREFIX = "transactions_p";
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+    private static final Pattern PARTITION_NAME = Pattern.compile("transactions_p\\d{4}_\\d{2}");
+    private static final Pattern IDENTIFIER = Pattern.compile("[a-z_][a-z0-9_]*");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${transactions.partitions.months-ahead:3}")
+    private int monthsAhead;
+
+    // 0 — секции не отсоединяются
+    @Value("${transactions.partitions.retention-months:0}")
+    private int retentionMonths;
+
+    // Пусто — секция только отсоединяется и остаётся в текущем tablespace
+    @Value("${transactions.partitions.cold-tablespace:}")
+    private String coldTablespace;
+
+    public TransactionPartitionMaintenance(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        maintain();
+    }
+
+    @Scheduled(cron = "${transactions.partitions.maintenance-cron:0 15 2 * * *}")
+    public void maintain() {
+        try {
+            createAhead();
+            if (retentionMonths > 0) {
+                detachExpired();
+            }
+        } catch (Exception e) {
+            logger.error("Transaction partition maintenance failed", e);
+        }
+    }
+
+    public int createAhead() {
+        LocalDate currentMonth = YearMonth.now(ZoneOffset.UTC).atDay(1);
+        Integer created = jdbcTemplate.queryForObject("SELECT ensure_transaction_partitions(?, ?)", Integer.class,
+                currentMonth, currentMonth.plusMonths(monthsAhead));
+        if (created != null && created > 0) {
+            logger.info("Created {} transaction partitions up to {}", created, currentMonth.plusMonths(monthsAhead));
+        }
+        return created != null ? created : 0;
+    }
+
+    public int detachExpired() {
+        if (!coldTablespace.isEmpty() && !IDENTIFIER.matcher(coldTablespace).matches()) {
+            throw new IllegalStateException("Invalid cold tablespace name: " + coldTablespace);
+        }
+        YearMonth cutoff = YearMonth.now(ZoneOffset.UTC).minusMonths(retentionMonths);
+        int detached = 0;
+        for (String partition : attachedPartitions()) {
+            YearMonth month = YearMonth.parse(partition.substring(PARTITION_PREFIX.length()), PARTITION_SUFFIX);
+            if (month.isBefore(cutoff)) {
+                detach(partition, month);
+                detached++;
+            }
+        }
+        return detached;
+    }
+
+    private List<String> attachedPartitions() {
+        return jdbcTemplate.queryForList(
+                        "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid " +
+                                "WHERE i.inhparent = 'transactions'::regclass ORDER BY c.relname", String.class)
+                .stream()
+                .filter(name -> PARTITION_NAME.matcher(name).matches())
+                .toList();
+    }
+
+    // Отсоединение и запись в архив — одна транзакция: verify/rebuild роллапов сразу перестают учитывать месяц
+    private void detach(String partition, YearMonth month) {
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.execute("ALTER TABLE transactions DETACH PARTITION " + partition);
+            if (!coldTablespace.isEmpty()) {
+                jdbcTemplate.execute("ALTER TABLE " + partition + " SET TABLESPACE " + coldTablespace);
+            }
+            jdbcTemplate.update("INSERT INTO transaction_partition_archive (month, partition_name, tablespace) " +
+                    "VALUES (?, ?, ?)", month.atDay(1), partition, coldTablespace.isEmpty() ? null : coldTablespace);
+        });
+        logger.info("Detached transaction partition {}{}", partition,
+                coldTablespace.isEmpty() ? "" : " to tablespace " + coldTablespace);
+    }
+}
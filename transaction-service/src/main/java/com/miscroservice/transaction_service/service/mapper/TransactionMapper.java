@@ -0,0 +1,33 @@
+package com.miscroservice.transaction_service.service.mapper;
+
+import com.miscroservice.transaction_service.model.dto.TransactionResponse;
+import com.miscroservice.transaction_service.model.entity.Transaction;
+import com.miscroservice.transaction_service.model.projection.TransactionSearchHit;
+
+public final class TransactionMapper {
+
+    private TransactionMapper() {
+    }
+
+    public static TransactionResponse toResponse(Transaction transaction) {
+        return new TransactionResponse(
+                transaction.getId(),
+                transaction.getAmount(),
+                transaction.getType(),
+                transaction.getCategory(),
+                transaction.getDescription(),
+                transaction.getDate().toString()
+        );
+    }
+
+    public static TransactionResponse toResponse(TransactionSearchHit hit) {
+        return new TransactionResponse(
+                hit.getId(),
+                hit.getAmount(),
+                hit.getType(),
+                hit.getCategory(),
+                hit.getDescription(),
+                hit.getDate().toString()
+        );
+    }
+}
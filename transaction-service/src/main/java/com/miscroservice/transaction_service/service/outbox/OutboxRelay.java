@@ -0,0 +1,115 @@
+package com.miscroservice.transaction_service.service.outbox;
+
+import com.miscroservice.transaction_service.model.entity.OutboxEvent;
+import com.miscroservice.transaction_service.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drains outbox_events into Kafka in batches. Delivery is at-least-once: a crash between
+ * the send and the commit re-sends the batch, and consumers deduplicate by event id.
+ * Each event key is owned by one relay at a time and published in id order.
+ */
+@Component
+public class OutboxRelay {
+    private static final Logger logger = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final KafkaTemplate<String, String> balanceKafkaTemplate;
+
+    @Value("${outbox.relay.batch-size:200}")
+    private int batchSize;
+
+    @Value("${outbox.relay.send-timeout-ms:10000}")
+    private long sendTimeoutMs;
+
+    @Value("${outbox.relay.retention:P7D}")
+    private Duration retention;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       @Qualifier("balanceKafkaTemplate") KafkaTemplate<String, String> balanceKafkaTemplate,
+                       MeterRegistry meterRegistry) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.balanceKafkaTemplate = balanceKafkaTemplate;
+        Gauge.builder("outbox.pending", outboxEventRepository, OutboxEventRepository::countBySentAtIsNull)
+                .description("Outbox events not yet published to Kafka")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.relay.interval-ms:200}")
+    @Transactional
+    public void relay() {
+        List<String> keys = outboxEventRepository.lockPendingKeys(batchSize);
+        if (keys.isEmpty()) {
+            return;
+        }
+        List<OutboxEvent> batch = outboxEventRepository.findUnsentByKeys(keys, batchSize);
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        List<CompletableFuture<SendResult<String, String>>> futures = new ArrayList<>(batch.size());
+        for (OutboxEvent event : batch) {
+            futures.add(balanceKafkaTemplate.send(event.getTopic(), event.getEventKey(), event.getPayload()));
+        }
+        balanceKafkaTemplate.flush();
+
+        // Отмечаем только префикс ключа до первой ошибки: остаток уйдёт следующим прогоном вслед за упавшим
+        // событием, повторы потребитель отбрасывает по eventId
+        List<Long> sent = new ArrayList<>();
+        List<Long> failed = new ArrayList<>();
+        Set<String> blockedKeys = new HashSet<>();
+        for (int i = 0; i < batch.size(); i++) {
+            OutboxEvent event = batch.get(i);
+            if (blockedKeys.contains(event.getEventKey())) {
+                continue;
+            }
+            try {
+                futures.get(i).get(sendTimeoutMs, TimeUnit.MILLISECONDS);
+                sent.add(event.getId());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failed.add(event.getId());
+                blockedKeys.add(event.getEventKey());
+            } catch (Exception e) {
+                logger.warn("Failed to publish outbox event {} to topic {}", event.getId(), event.getTopic(), e);
+                failed.add(event.getId());
+                blockedKeys.add(event.getEventKey());
+            }
+        }
+
+        if (!sent.isEmpty()) {
+            outboxEventRepository.markSent(sent, Instant.now());
+        }
+        if (!failed.isEmpty()) {
+            outboxEventRepository.incrementAttempts(failed);
+        }
+        logger.debug("Outbox relay published {} events, {} failed, {} keys held back",
+                sent.size(), failed.size(), blockedKeys.size());
+    }
+
+    @Scheduled(cron = "${outbox.relay.cleanup-cron:0 0 4 * * *}")
+    @Transactional
+    public void purgeSent() {
+        int deleted = outboxEventRepository.deleteSentBefore(Instant.now().minus(retention));
+        logger.info("Purged {} published outbox events", deleted);
+    }
+}
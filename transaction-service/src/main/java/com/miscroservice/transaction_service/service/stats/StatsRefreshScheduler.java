@@ -0,0 +1,108 @@
+package com.miscroservice.transaction_service.service.stats;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Debounced per-user background jobs: repeated requests for the same user within the window collapse
+ * into one run, which executes on a small fixed pool after the window closes.
+ */
+@Component
+public class StatsRefreshScheduler {
+    private static final Logger logger = LoggerFactory.getLogger(StatsRefreshScheduler.class);
+
+    private final ScheduledThreadPoolExecutor executor;
+    private final Map<UUID, Boolean> pending = new ConcurrentHashMap<>();
+    private final Counter scheduled;
+    private final Counter coalesced;
+    private final Counter dropped;
+    private final Timer duration;
+
+    @Value("${transactions.stats.precompute.enabled:true}")
+    private boolean enabled;
+
+    @Value("${transactions.stats.precompute.debounce-ms:500}")
+    private long debounceMs;
+
+    // Ограничение очереди: при всплеске записей лишние пересчёты отбрасываются, чтение посчитает само
+    @Value("${transactions.stats.precompute.max-pending:10000}")
+    private int maxPending;
+
+    public StatsRefreshScheduler(MeterRegistry meterRegistry,
+                                 @Value("${transactions.stats.precompute.threads:2}") int threads) {
+        this.executor = new ScheduledThreadPoolExecutor(threads, daemonThreads());
+        this.executor.setRemoveOnCancelPolicy(true);
+        this.scheduled = counter(meterRegistry, "scheduled");
+        this.coalesced = counter(meterRegistry, "coalesced");
+        this.dropped = counter(meterRegistry, "dropped");
+        this.duration = Timer.builder("stats.precompute.duration")
+                .description("Time to recompute and cache a user's dashboard stats")
+                .register(meterRegistry);
+    }
+
+    public void schedule(UUID userId, Runnable task) {
+        if (!enabled) {
+            return;
+        }
+        if (pending.size() >= maxPending) {
+            dropped.increment();
+            return;
+        }
+        // Уже запланированный запуск прочитает актуальное состояние, новый не нужен
+        if (pending.putIfAbsent(userId, Boolean.TRUE) != null) {
+            coalesced.increment();
+            return;
+        }
+        scheduled.increment();
+        executor.schedule(() -> run(userId, task), debounceMs, TimeUnit.MILLISECONDS);
+    }
+
+    private void run(UUID userId, Runnable task) {
+        // Снимаем отметку до пересчёта: запись во время пересчёта запланирует ещё один запуск
+        pending.remove(userId);
+        try {
+            duration.record(task);
+        } catch (Exception e) {
+            logger.warn("Stats precompute failed for user: {}", userId, e);
+        }
+    }
+
+    public int pendingCount() {
+        return pending.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("stats.precompute")
+                .tag("result", result)
+                .description("Stats precompute requests by outcome")
+                .register(meterRegistry);
+    }
+
+    private static ThreadFactory daemonThreads() {
+        AtomicInteger sequence = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "stats-precompute-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
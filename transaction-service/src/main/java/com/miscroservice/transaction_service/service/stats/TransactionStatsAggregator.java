@@ -0,0 +1,56 @@
+package com.miscroservice.transaction_service.service.stats;
+
+import com.miscroservice.transaction_service.model.dto.TransactionStatsResponse;
+import com.miscroservice.transaction_service.model.projection.TransactionAggregate;
+import org.shared.money.Money;
+import org.shared.money.MoneySum;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Folds (type, category, month) aggregates into the stats response.
+ */
+public final class TransactionStatsAggregator {
+
+    private TransactionStatsAggregator() {
+    }
+
+    public static TransactionStatsResponse aggregate(List<TransactionAggregate> aggregates) {
+        long totalIncome = 0;
+        long totalExpense = 0;
+        Map<String, MoneySum> byCategory = new HashMap<>();
+        Map<String, MoneySum> byMonth = new HashMap<>();
+
+        // Строк не больше, чем (типы × категории × месяцы), независимо от числа транзакций;
+        // суммирование в центах, BigDecimal появляется только в ответе
+        for (TransactionAggregate aggregate : aggregates) {
+            long total = Money.toMinor(aggregate.getTotal());
+            if ("INCOME".equals(aggregate.getType())) {
+                totalIncome += total;
+            } else if ("EXPENSE".equals(aggregate.getType())) {
+                totalExpense += total;
+            }
+            byCategory.computeIfAbsent(aggregate.getCategory(), k -> new MoneySum()).add(total);
+            byMonth.computeIfAbsent(YearMonth.parse(aggregate.getMonth()).getMonth().toString(), k -> new MoneySum())
+                    .add(total);
+        }
+
+        TransactionStatsResponse stats = new TransactionStatsResponse();
+        // Пустая сумма остаётся BigDecimal.ZERO, как и раньше в ответе
+        stats.setTotalIncome(totalIncome != 0 ? Money.toDecimal(totalIncome) : BigDecimal.ZERO);
+        stats.setTotalExpense(totalExpense != 0 ? Money.toDecimal(totalExpense) : BigDecimal.ZERO);
+        stats.setByCategory(toDecimals(byCategory));
+        stats.setByMonth(toDecimals(byMonth));
+        return stats;
+    }
+
+    private static Map<String, BigDecimal> toDecimals(Map<String, MoneySum> sums) {
+        Map<String, BigDecimal> result = new HashMap<>(sums.size() * 2);
+        sums.forEach((key, sum) -> result.put(key, sum.toBigDecimal()));
+        return result;
+    }
+}
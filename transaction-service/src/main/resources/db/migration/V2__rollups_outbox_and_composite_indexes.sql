@@ -0,0 +1,38 @@
+-- Всё, что появилось после исходной схемы. Базы, собранные Hibernate ddl-auto=update, получают baseline
+-- на версии 1 и начинают отсюда; часть объектов там уже могла появиться, поэтому IF NOT EXISTS
+
+-- Помесячные агрегаты по пользователю, обновляются дельтами при каждой записи транзакции
+CREATE TABLE IF NOT EXISTS user_monthly_rollup
+(
+    user_id  UUID           NOT NULL,
+    month    DATE           NOT NULL,
+    category VARCHAR(50)    NOT NULL,
+    type     VARCHAR(7)     NOT NULL,
+    total    DECIMAL(19, 2) NOT NULL,
+    count    BIGINT         NOT NULL,
+    PRIMARY KEY (user_id, month, category, type)
+);
+
+-- Outbox событий для Kafka: пишется в одной транзакции с изменением, разбирается фоновым relay
+CREATE SEQUENCE IF NOT EXISTS outbox_events_seq INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS outbox_events
+(
+    id         BIGINT PRIMARY KEY,
+    topic      VARCHAR(255)             NOT NULL,
+    event_key  VARCHAR(255),
+    payload    TEXT                     NOT NULL,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    sent_at    TIMESTAMP WITH TIME ZONE,
+    attempts   INT                      NOT NULL DEFAULT 0
+);
+
+-- Частичный индекс: relay читает только неотправленные события
+CREATE INDEX IF NOT EXISTS idx_outbox_events_unsent ON outbox_events (id) WHERE sent_at IS NULL;
+
+-- Составные индексы покрывают и фильтр по user_id, поэтому отдельный индекс по нему не нужен
+DROP INDEX IF EXISTS idx_transactions_user_id;
+CREATE INDEX IF NOT EXISTS idx_transactions_user_date_id ON transactions (user_id, date DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_transactions_user_category_date ON transactions (user_id, category, date);
+CREATE INDEX IF NOT EXISTS idx_transactions_date ON transactions (date);
+CREATE INDEX IF NOT EXISTS idx_transactions_category ON transactions (category);
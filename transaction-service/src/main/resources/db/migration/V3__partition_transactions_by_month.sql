@@ -0,0 +1,107 @@
+-- Помесячное секционирование transactions по date.
+-- Запросы с диапазоном дат читают только нужные секции, старые месяцы можно отсоединить целиком.
+
+-- Старая таблица освобождает имена индексов, ограничения и триггера для новой
+ALTER TABLE transactions RENAME TO transactions_unpartitioned;
+ALTER TABLE transactions_unpartitioned RENAME CONSTRAINT transactions_pkey TO transactions_unpartitioned_pkey;
+DROP TRIGGER IF EXISTS trigger_update_timestamp ON transactions_unpartitioned;
+DROP INDEX IF EXISTS idx_transactions_user_id;
+DROP INDEX IF EXISTS idx_transactions_user_date_id;
+DROP INDEX IF EXISTS idx_transactions_user_category_date;
+DROP INDEX IF EXISTS idx_transactions_date;
+DROP INDEX IF EXISTS idx_transactions_category;
+
+-- Ключ секционирования обязан входить в первичный ключ
+CREATE TABLE transactions
+(
+    id             UUID                     NOT NULL DEFAULT gen_random_uuid(),
+    user_id        UUID                     NOT NULL,
+    amount         DECIMAL(15, 2)           NOT NULL,
+    type           VARCHAR(7)               NOT NULL CHECK (type IN ('INCOME', 'EXPENSE')),
+    category       VARCHAR(50)              NOT NULL,
+    description    TEXT,
+    date           TIMESTAMP WITH TIME ZONE NOT NULL,
+    payment_method VARCHAR(50),
+    document_id    UUID,
+    created_at     TIMESTAMP WITH TIME ZONE DEFAULT CURRENT_TIMESTAMP,
+    updated_at     TIMESTAMP WITH TIME ZONE DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (id, date)
+) PARTITION BY RANGE (date);
+
+-- Строки вне созданных месяцев; при создании секции её диапазон переносится отсюда
+CREATE TABLE transactions_default PARTITION OF transactions DEFAULT;
+
+-- Индексы на родителе автоматически создаются в каждой секции
+CREATE INDEX idx_transactions_user_date_id ON transactions (user_id, date DESC, id DESC);
+CREATE INDEX idx_transactions_user_category_date ON transactions (user_id, category, date);
+CREATE INDEX idx_transactions_date ON transactions (date);
+CREATE INDEX idx_transactions_category ON transactions (category);
+
+CREATE OR REPLACE FUNCTION update_timestamp()
+    RETURNS TRIGGER AS
+$$
+BEGIN
+    NEW.updated_at = CURRENT_TIMESTAMP;
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trigger_update_timestamp
+    BEFORE UPDATE
+    ON transactions
+    FOR EACH ROW
+EXECUTE FUNCTION update_timestamp();
+
+-- Создаёт недостающие секции transactions_pYYYY_MM для месяцев [from_month, to_month] (границы по UTC).
+-- Секция собирается отдельной таблицей, в неё переносятся попавшие в DEFAULT строки, затем она подключается.
+CREATE OR REPLACE FUNCTION ensure_transaction_partitions(from_month DATE, to_month DATE)
+    RETURNS INT AS
+$$
+DECLARE
+    month_start    DATE := date_trunc('month', from_month)::date;
+    lower_bound    TIMESTAMP WITH TIME ZONE;
+    upper_bound    TIMESTAMP WITH TIME ZONE;
+    partition_name TEXT;
+    created        INT  := 0;
+BEGIN
+    WHILE month_start <= to_month
+        LOOP
+            partition_name := 'transactions_p' || to_char(month_start, 'YYYY_MM');
+            IF to_regclass(partition_name) IS NULL THEN
+                lower_bound := month_start::timestamp AT TIME ZONE 'UTC';
+                upper_bound := (month_start + INTERVAL '1 month')::timestamp AT TIME ZONE 'UTC';
+                EXECUTE format('CREATE TABLE %I (LIKE transactions INCLUDING DEFAULTS INCLUDING CONSTRAINTS)',
+                               partition_name);
+                EXECUTE format('WITH moved AS (DELETE FROM transactions_default WHERE date >= %L AND date < %L RETURNING *) ' ||
+                               'INSERT INTO %I SELECT * FROM moved', lower_bound, upper_bound, partition_name);
+                EXECUTE format('ALTER TABLE transactions ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)',
+                               partition_name, lower_bound, upper_bound);
+                created := created + 1;
+            END IF;
+            month_start := (month_start + INTERVAL '1 month')::date;
+        END LOOP;
+    RETURN created;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Секции для всех месяцев с данными и на три месяца вперёд, дальше их ведёт TransactionPartitionMaintenance
+SELECT ensure_transaction_partitions(
+               LEAST(COALESCE((SELECT MIN(date AT TIME ZONE 'UTC') FROM transactions_unpartitioned)::date,
+                              CURRENT_DATE), (CURRENT_DATE - INTERVAL '12 months')::date),
+               (CURRENT_DATE + INTERVAL '3 months')::date);
+
+INSERT INTO transactions (id, user_id, amount, type, category, description, date, payment_method, document_id,
+                          created_at, updated_at)
+SELECT id, user_id, amount, type, category, description, date, payment_method, document_id, created_at, updated_at
+FROM transactions_unpartitioned;
+
+DROP TABLE transactions_unpartitioned;
+
+-- Отсоединённые (архивные) месяцы: сырые строки лежат вне transactions, роллапы за них остаются как есть
+CREATE TABLE transaction_partition_archive
+(
+    month          DATE PRIMARY KEY,
+    partition_name VARCHAR(63)              NOT NULL,
+    tablespace     VARCHAR(63),
+    detached_at    TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
@@ -0,0 +1,52 @@
+-- Полнотекстовый и нечёткий поиск по описаниям транзакций.
+-- Конфигурация 'simple': описания смешанные (RU/EN, названия мерчантов), стемминг одного языка только мешает.
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+-- btree_gin позволяет держать user_id в том же GIN-индексе: поиск не читает чужие строки
+CREATE EXTENSION IF NOT EXISTS btree_gin;
+
+-- Вектор считается самой БД при INSERT/UPDATE, поэтому индекс поддерживается инкрементально
+ALTER TABLE transactions
+    ADD COLUMN search_vector TSVECTOR GENERATED ALWAYS AS (
+        setweight(to_tsvector('simple', coalesce(description, '')), 'A') ||
+        setweight(to_tsvector('simple', coalesce(category, '')), 'B')
+        ) STORED;
+
+CREATE INDEX idx_transactions_user_search ON transactions USING GIN (user_id, search_vector);
+CREATE INDEX idx_transactions_user_description_trgm ON transactions USING GIN (user_id, description gin_trgm_ops);
+
+-- Генерируемый столбец нельзя вставлять явно: перенос строк из DEFAULT перечисляет колонки,
+-- а новая секция наследует выражение через INCLUDING GENERATED
+CREATE OR REPLACE FUNCTION ensure_transaction_partitions(from_month DATE, to_month DATE)
+    RETURNS INT AS
+$$
+DECLARE
+    month_start    DATE := date_trunc('month', from_month)::date;
+    lower_bound    TIMESTAMP WITH TIME ZONE;
+    upper_bound    TIMESTAMP WITH TIME ZONE;
+    partition_name TEXT;
+    created        INT  := 0;
+BEGIN
+    WHILE month_start <= to_month
+        LOOP
+            partition_name := 'transactions_p' || to_char(month_start, 'YYYY_MM');
+            IF to_regclass(partition_name) IS NULL THEN
+                lower_bound := month_start::timestamp AT TIME ZONE 'UTC';
+                upper_bound := (month_start + INTERVAL '1 month')::timestamp AT TIME ZONE 'UTC';
+                EXECUTE format('CREATE TABLE %I (LIKE transactions INCLUDING DEFAULTS INCLUDING CONSTRAINTS ' ||
+                               'INCLUDING GENERATED)', partition_name);
+                EXECUTE format('WITH moved AS (DELETE FROM transactions_default WHERE date >= %L AND date < %L ' ||
+                               'RETURNING id, user_id, amount, type, category, description, date, payment_method, ' ||
+                               'document_id, created_at, updated_at) ' ||
+                               'INSERT INTO %I (id, user_id, amount, type, category, description, date, ' ||
+                               'payment_method, document_id, created_at, updated_at) SELECT * FROM moved',
+                               lower_bound, upper_bound, partition_name);
+                EXECUTE format('ALTER TABLE transactions ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)',
+                               partition_name, lower_bound, upper_bound);
+                created := created + 1;
+            END IF;
+            month_start := (month_start + INTERVAL '1 month')::date;
+        END LOOP;
+    RETURN created;
+END;
+$$ LANGUAGE plpgsql;
@@ -0,0 +1,16 @@
+-- Роллапы ведутся дельтами только с момента их появления: без заполнения полные месяцы в статистике
+-- существующих пользователей были бы нулевыми. Пересчёт из transactions, как StatsRollupService.rebuild(null);
+-- архивные (отсоединённые) месяцы пересчитать не из чего, их бакеты сохраняются
+DELETE
+FROM user_monthly_rollup
+WHERE month NOT IN (SELECT a.month FROM transaction_partition_archive a);
+
+INSERT INTO user_monthly_rollup (user_id, month, category, type, total, count)
+SELECT t.user_id,
+       CAST(date_trunc('month', t.date AT TIME ZONE 'UTC') AS date),
+       t.category,
+       t.type,
+       SUM(t.amount),
+       COUNT(*)
+FROM transactions t
+GROUP BY t.user_id, date_trunc('month', t.date AT TIME ZONE 'UTC'), t.category, t.type;
@@ -47,8 +47,7 @@ public abstract class BaseIntegrationTest {
     protected static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15")
             .withDatabaseName("transactions_db")
             .withUsername("postgres")
-            .withPassword("postgres")
-            .withInitScript("schema.sql");
+            .withPassword("postgres");
 
     @Container
     protected static final KafkaContainer kafka = new KafkaContainer(DockerImageName.parse("confluentinc/cp-kafka:7.3.0"));
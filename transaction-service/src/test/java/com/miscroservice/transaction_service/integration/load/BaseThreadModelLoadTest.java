@@ -0,0 +1,115 @@
+package com.miscroservice.transaction_service.integration.load;
+
+import com.miscroservice.transaction_service.integration.BaseIntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Closed-loop load: CONCURRENCY clients keep requests in flight against listing (DB) and stats (cache) endpoints.
+ * Subclasses differ only in the thread model; compare their "throughput/p99" lines.
+ * Запуск: ./gradlew benchmark -PjavaVersion=21 --tests '*ThreadLoadTest'
+ */
+abstract class BaseThreadModelLoadTest extends BaseIntegrationTest {
+
+    private static final int CONCURRENCY = 1_000;
+    private static final int REQUESTS = 30_000;
+    private static final int WARMUP_REQUESTS = 3_000;
+    private static final int SEED_ROWS = 5_000;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    protected abstract String threadModel();
+
+    @Test
+    void sustainsThousandConcurrentConnections() throws Exception {
+        jdbcTemplate.update(
+                "INSERT INTO transactions (id, user_id, amount, type, category, description, date) " +
+                        "SELECT gen_random_uuid(), ?, (g % 500) + 0.99, " +
+                        "CASE WHEN g % 5 = 0 THEN 'INCOME' ELSE 'EXPENSE' END, " +
+                        "(ARRAY['Salary', 'Groceries', 'Transport', 'Rent', 'Utilities'])[(g % 5) + 1], " +
+                        "'load', now() - ((g % 365) || ' days')::interval " +
+                        "FROM generate_series(1, ?) AS g",
+                userId, SEED_ROWS);
+        jdbcTemplate.execute("ANALYZE transactions");
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        List<HttpRequest> requests = List.of(
+                request("/transactions/cursor?size=20"),
+                request("/transactions/cursor?size=20&category=Groceries"),
+                request("/transactions/stats"));
+
+        run(client, requests, WARMUP_REQUESTS);
+        Result result = run(client, requests, REQUESTS);
+
+        System.out.printf("%s\tconcurrency=%d\trequests=%d\tthroughput=%.0f req/s\tp50=%d ms\tp99=%d ms\terrors=%d%n",
+                threadModel(), CONCURRENCY, REQUESTS, result.throughput(), result.percentile(50),
+                result.percentile(99), result.errors());
+        assertEquals(0, result.errors(), "All requests should succeed under load");
+    }
+
+    private Result run(HttpClient client, List<HttpRequest> requests, int total) throws Exception {
+        Semaphore inFlight = new Semaphore(CONCURRENCY);
+        AtomicInteger errors = new AtomicInteger();
+        long[] latencies = new long[total];
+        List<CompletableFuture<Void>> futures = new ArrayList<>(total);
+
+        long started = System.nanoTime();
+        for (int i = 0; i < total; i++) {
+            inFlight.acquire();
+            int index = i;
+            long sent = System.nanoTime();
+            futures.add(client.sendAsync(requests.get(i % requests.size()), HttpResponse.BodyHandlers.discarding())
+                    .handle((response, ex) -> {
+                        latencies[index] = System.nanoTime() - sent;
+                        if (ex != null || response.statusCode() != 200) {
+                            errors.incrementAndGet();
+                        }
+                        inFlight.release();
+                        return null;
+                    }));
+        }
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+        long elapsed = System.nanoTime() - started;
+
+        Arrays.sort(latencies);
+        return new Result(latencies, total / (elapsed / 1e9), errors.get());
+    }
+
+    private HttpRequest request(String path) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header("Authorization", "Bearer mock-token")
+                .timeout(Duration.ofSeconds(60))
+                .GET()
+                .build();
+    }
+
+    private record Result(long[] sortedLatencies, double throughput, int errors) {
+        long percentile(int p) {
+            int index = (int) Math.ceil(p / 100.0 * sortedLatencies.length) - 1;
+            return sortedLatencies[Math.max(index, 0)] / 1_000_000;
+        }
+    }
+}
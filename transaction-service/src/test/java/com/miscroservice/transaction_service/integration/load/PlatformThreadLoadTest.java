@@ -0,0 +1,15 @@
+package com.miscroservice.transaction_service.integration.load;
+
+import org.junit.jupiter.api.Tag;
+
+/**
+ * Baseline: Tomcat's bounded platform worker pool (200 threads by default).
+ */
+@Tag("benchmark")
+public class PlatformThreadLoadTest extends BaseThreadModelLoadTest {
+
+    @Override
+    protected String threadModel() {
+        return "platform";
+    }
+}
@@ -0,0 +1,20 @@
+package com.miscroservice.transaction_service.integration.load;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * Same load with the "virtual" profile: requests and listeners on virtual threads.
+ */
+@Tag("benchmark")
+@ActiveProfiles("virtual")
+@EnabledForJreRange(min = JRE.JAVA_21)
+public class VirtualThreadLoadTest extends BaseThreadModelLoadTest {
+
+    @Override
+    protected String threadModel() {
+        return "virtual";
+    }
+}
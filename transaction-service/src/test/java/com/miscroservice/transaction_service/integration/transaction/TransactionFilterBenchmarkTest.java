@@ -0,0 +1,104 @@
+package com.miscroservice.transaction_service.integration.transaction;
+
+import com.miscroservice.transaction_service.integration.BaseIntegrationTest;
+import com.miscroservice.transaction_service.repository.TransactionRepository;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Сравнивает планы и задержку старого COALESCE-фильтра и динамических Specification-фильтров.
+ * Запуск: ./gradlew benchmark --tests '*TransactionFilterBenchmarkTest'
+ */
+@Tag("benchmark")
+public class TransactionFilterBenchmarkTest extends BaseIntegrationTest {
+
+    private static final int[] ROW_COUNTS = {10_000, 100_000, 1_000_000};
+    private static final int ITERATIONS = 20;
+
+    // Так выглядел SQL старого findByFilters с category-фильтром
+    private static final String LEGACY_SQL = "SELECT * FROM transactions t WHERE t.user_id = ? " +
+            "AND (COALESCE(?::timestamptz, t.date) = t.date OR t.date >= ?::timestamptz) " +
+            "AND (COALESCE(?::timestamptz, t.date) = t.date OR t.date <= ?::timestamptz) " +
+            "AND (COALESCE(?::varchar, t.category) = t.category) " +
+            "AND (COALESCE(?::varchar, t.type) = t.type) " +
+            "ORDER BY t.date DESC, t.id DESC LIMIT 20";
+
+    // Эквивалент SQL, который строит TransactionSpecifications для тех же параметров
+    private static final String SARGABLE_SQL = "SELECT * FROM transactions t WHERE t.user_id = ? " +
+            "AND t.category = ? ORDER BY t.date DESC, t.id DESC LIMIT 20";
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void findByFilters_UsesCompositeIndexAndBeatsCoalesceFilter() {
+        System.out.println("rows\tlegacy avg (us)\tspecification avg (us)");
+        for (int rows : ROW_COUNTS) {
+            UUID benchmarkUser = UUID.randomUUID();
+            seedTransactions(benchmarkUser, rows);
+
+            List<String> legacyPlan = explain(LEGACY_SQL, benchmarkUser, null, null, null, null, "Groceries", null);
+            List<String> sargablePlan = explain(SARGABLE_SQL, benchmarkUser, "Groceries");
+            System.out.println("-- legacy plan, " + rows + " rows");
+            legacyPlan.forEach(System.out::println);
+            System.out.println("-- specification plan, " + rows + " rows");
+            sargablePlan.forEach(System.out::println);
+
+            long legacyNanos = 0;
+            long specNanos = 0;
+            for (int i = 0; i < ITERATIONS; i++) {
+                long start = System.nanoTime();
+                jdbcTemplate.queryForList(LEGACY_SQL, benchmarkUser, null, null, null, null, "Groceries", null);
+                legacyNanos += System.nanoTime() - start;
+
+                start = System.nanoTime();
+                transactionRepository.findByFilters(benchmarkUser, null, null, "Groceries", null, PageRequest.of(0, 20));
+                specNanos += System.nanoTime() - start;
+            }
+            System.out.printf("%d\t%d\t%d%n", rows, legacyNanos / ITERATIONS / 1_000, specNanos / ITERATIONS / 1_000);
+
+            // Индексы секций наследуют колонки родительских: <секция>_user_id_..._idx
+            assertTrue(sargablePlan.stream().anyMatch(line -> line.contains("Index") && line.contains("_user_id_")),
+                    "Specification filter should use one of the composite user indexes");
+            // Пустые секции (будущие месяцы, DEFAULT) планировщик может читать seq scan'ом — это бесплатно
+            assertFalse(sargablePlan.stream().anyMatch(line -> line.contains("Seq Scan")
+                            && !line.contains(" rows=0 ") && !line.contains("never executed")),
+                    "Specification filter should not scan populated partitions");
+        }
+    }
+
+    private List<String> explain(String sql, Object... args) {
+        return jdbcTemplate.queryForList("EXPLAIN (ANALYZE, BUFFERS) " + sql, String.class, args);
+    }
+
+    private void seedTransactions(UUID user, int rows) {
+        // Фоновые строки других пользователей, чтобы таблица не состояла из одного user_id
+        jdbcTemplate.update(
+                "INSERT INTO transactions (id, user_id, amount, type, category, description, date) " +
+                        "SELECT gen_random_uuid(), gen_random_uuid(), 1.00, 'EXPENSE', 'Rent', 'noise', now() " +
+                        "FROM generate_series(1, ?)", rows / 10);
+        jdbcTemplate.update(
+                "INSERT INTO transactions (id, user_id, amount, type, category, description, date) " +
+                        "SELECT gen_random_uuid(), ?, (g % 500) + 0.99, " +
+                        "CASE WHEN g % 5 = 0 THEN 'INCOME' ELSE 'EXPENSE' END, " +
+                        "(ARRAY['Salary', 'Groceries', 'Transport', 'Rent', 'Utilities'])[(g % 5) + 1], " +
+                        "'benchmark', ?::timestamptz - (g || ' minutes')::interval " +
+                        "FROM generate_series(1, ?) AS g",
+                user, Instant.now().truncatedTo(ChronoUnit.SECONDS).toString(), rows);
+        jdbcTemplate.execute("ANALYZE transactions");
+    }
+}
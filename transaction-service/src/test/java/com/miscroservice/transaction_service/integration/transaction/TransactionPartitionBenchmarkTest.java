@@ -0,0 +1,120 @@
+package com.miscroservice.transaction_service.integration.transaction;
+
+import com.miscroservice.transaction_service.integration.BaseIntegrationTest;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Сравнивает месячные выборки по секционированной transactions и по той же выборке в обычной таблице.
+ * Запуск: ./gradlew benchmark --tests '*TransactionPartitionBenchmarkTest'
+ */
+@Tag("benchmark")
+public class TransactionPartitionBenchmarkTest extends BaseIntegrationTest {
+
+    private static final int YEARS = 4;
+    private static final int ROWS = 2_000_000;
+    private static final int USERS = 1_000;
+    private static final int ITERATIONS = 20;
+
+    // Отчётная выборка за месяц по всем пользователям и листинг одного пользователя за месяц
+    private static final String MONTH_REPORT_SQL = "SELECT t.category, SUM(t.amount), COUNT(*) FROM %s t " +
+            "WHERE t.date >= ? AND t.date < ? GROUP BY t.category";
+    private static final String USER_MONTH_SQL = "SELECT * FROM %s t WHERE t.user_id = ? " +
+            "AND t.date >= ? AND t.date < ? ORDER BY t.date DESC, t.id DESC LIMIT 20";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void monthlyQueries_PruneToOnePartition() {
+        YearMonth month = YearMonth.now(ZoneOffset.UTC).minusMonths(6);
+        Timestamp from = Timestamp.from(month.atDay(1).atStartOfDay(ZoneOffset.UTC).toInstant());
+        Timestamp to = Timestamp.from(month.plusMonths(1).atDay(1).atStartOfDay(ZoneOffset.UTC).toInstant());
+        UUID user = seed();
+
+        try {
+            List<String> partitionedReport = explain(MONTH_REPORT_SQL.formatted("transactions"), from, to);
+            List<String> flatReport = explain(MONTH_REPORT_SQL.formatted("transactions_flat"), from, to);
+            List<String> partitionedUser = explain(USER_MONTH_SQL.formatted("transactions"), user, from, to);
+            System.out.println("-- partitioned month report");
+            partitionedReport.forEach(System.out::println);
+            System.out.println("-- flat month report");
+            flatReport.forEach(System.out::println);
+
+            System.out.println("query\tpartitioned avg (us)\tflat avg (us)");
+            System.out.printf("month report\t%d\t%d%n",
+                    average(MONTH_REPORT_SQL.formatted("transactions"), from, to),
+                    average(MONTH_REPORT_SQL.formatted("transactions_flat"), from, to));
+            System.out.printf("user month\t%d\t%d%n",
+                    average(USER_MONTH_SQL.formatted("transactions"), user, from, to),
+                    average(USER_MONTH_SQL.formatted("transactions_flat"), user, from, to));
+
+            String expected = "transactions_p" + month.toString().replace('-', '_');
+            assertEquals(1, scannedPartitions(partitionedReport), "Month report should touch a single partition");
+            assertTrue(partitionedReport.stream().anyMatch(line -> line.contains(expected)));
+            assertEquals(1, scannedPartitions(partitionedUser), "User listing should touch a single partition");
+        } finally {
+            jdbcTemplate.execute("DROP TABLE IF EXISTS transactions_flat");
+            jdbcTemplate.execute("TRUNCATE transactions");
+        }
+    }
+
+    private UUID seed() {
+        YearMonth current = YearMonth.now(ZoneOffset.UTC);
+        jdbcTemplate.queryForObject("SELECT ensure_transaction_partitions(?, ?)", Integer.class,
+                current.minusYears(YEARS).atDay(1), current.atDay(1));
+        // Равномерно по YEARS годам и USERS пользователям; user_id детерминирован по номеру
+        jdbcTemplate.update(
+                "INSERT INTO transactions (id, user_id, amount, type, category, description, date) " +
+                        "SELECT gen_random_uuid(), md5((g % ?)::text)::uuid, (g % 500) + 0.99, " +
+                        "CASE WHEN g % 5 = 0 THEN 'INCOME' ELSE 'EXPENSE' END, " +
+                        "(ARRAY['Salary', 'Groceries', 'Transport', 'Rent', 'Utilities'])[(g % 5) + 1], " +
+                        "'benchmark', ?::timestamptz - ((g % (? * 365 * 24)) || ' hours')::interval " +
+                        "FROM generate_series(1, ?) AS g",
+                USERS, Instant.now().toString(), YEARS, ROWS);
+        jdbcTemplate.execute("CREATE TABLE transactions_flat AS SELECT * FROM transactions");
+        jdbcTemplate.execute("CREATE INDEX ON transactions_flat (user_id, date DESC, id DESC)");
+        jdbcTemplate.execute("CREATE INDEX ON transactions_flat (date)");
+        jdbcTemplate.execute("ANALYZE transactions");
+        jdbcTemplate.execute("ANALYZE transactions_flat");
+        return jdbcTemplate.queryForObject("SELECT md5('1')::uuid", UUID.class);
+    }
+
+    private long scannedPartitions(List<String> plan) {
+        return plan.stream()
+                .filter(line -> line.contains(" on transactions_p") || line.contains(" on transactions_default"))
+                .filter(line -> !line.contains("never executed") && !line.contains("Bitmap Index Scan"))
+                .map(line -> line.replaceAll(".* on (transactions_\\w+).*", "$1"))
+                .distinct()
+                .count();
+    }
+
+    private long average(String sql, Object... args) {
+        for (int i = 0; i < 3; i++) {
+            jdbcTemplate.queryForList(sql, args);
+        }
+        long total = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            long start = System.nanoTime();
+            jdbcTemplate.queryForList(sql, args);
+            total += System.nanoTime() - start;
+        }
+        return total / ITERATIONS / 1_000;
+    }
+
+    private List<String> explain(String sql, Object... args) {
+        return jdbcTemplate.queryForList("EXPLAIN (ANALYZE, BUFFERS) " + sql, String.class, args);
+    }
+}
@@ -0,0 +1,80 @@
+package com.miscroservice.transaction_service.integration.transaction;
+
+import com.miscroservice.transaction_service.integration.BaseIntegrationTest;
+import com.miscroservice.transaction_service.model.dto.TransactionSearchResponse;
+import com.miscroservice.transaction_service.service.TransactionSearchService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Задержка и план поиска по описаниям на пользователе с миллионом строк.
+ * Запуск: ./gradlew benchmark --tests '*TransactionSearchBenchmarkTest'
+ */
+@Tag("benchmark")
+public class TransactionSearchBenchmarkTest extends BaseIntegrationTest {
+
+    private static final int ROWS = 1_000_000;
+    private static final int ITERATIONS = 20;
+
+    private static final String SEARCH_SQL = "SELECT t.id FROM transactions t WHERE t.user_id = ? " +
+            "AND (t.search_vector @@ to_tsquery('simple', ?) OR ? <% t.description) LIMIT 21";
+
+    @Autowired
+    private TransactionSearchService transactionSearchService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void search_UsesGinIndexesOnMillionRowUser() {
+        UUID benchmarkUser = UUID.randomUUID();
+        seedTransactions(benchmarkUser);
+
+        List<String> plan = jdbcTemplate.queryForList("EXPLAIN (ANALYZE, BUFFERS) " + SEARCH_SQL, String.class,
+                benchmarkUser, "netfl:*", "netfl");
+        plan.forEach(System.out::println);
+
+        System.out.println("query\tavg (us)\tfirst hit");
+        for (String query : List.of("netflix", "netfl", "netflx", "uber eats", "groceries")) {
+            TransactionSearchResponse response = null;
+            long nanos = 0;
+            for (int i = 0; i < ITERATIONS; i++) {
+                long start = System.nanoTime();
+                response = transactionSearchService.search(benchmarkUser, query, null, null, null, null, 0, 20);
+                nanos += System.nanoTime() - start;
+            }
+            System.out.printf("%s\t%d\t%s%n", query, nanos / ITERATIONS / 1_000,
+                    response.getResults().isEmpty() ? "-" : response.getResults().get(0).getHighlight());
+            assertFalse(response.getResults().isEmpty(), "Query '" + query + "' should match");
+        }
+
+        // Индексы секций называются по колонкам: <секция>_user_id_search_vector_idx, <секция>_user_id_description_idx
+        assertTrue(plan.stream().anyMatch(line -> line.contains("Bitmap Index Scan") && line.contains("search_vector")),
+                "Full-text branch should use the (user_id, search_vector) GIN index");
+        assertTrue(plan.stream().anyMatch(line -> line.contains("Bitmap Index Scan") && line.contains("_description_")),
+                "Fuzzy branch should use the (user_id, description) trigram index");
+    }
+
+    private void seedTransactions(UUID user) {
+        jdbcTemplate.update(
+                "INSERT INTO transactions (id, user_id, amount, type, category, description, date) " +
+                        "SELECT gen_random_uuid(), ?, (g % 500) + 0.99, 'EXPENSE', " +
+                        "(ARRAY['Entertainment', 'Transport', 'Groceries', 'Rent', 'Utilities'])[(g % 5) + 1], " +
+                        "(ARRAY['Netflix subscription', 'Uber trip', 'Uber Eats order', 'Lidl groceries', " +
+                        "'Rent payment', 'Coffee shop', 'Pharmacy', 'Electricity bill'])[(g % 8) + 1] || ' #' || g, " +
+                        "?::timestamptz - (g || ' minutes')::interval " +
+                        "FROM generate_series(1, ?) AS g",
+                user, Instant.now().truncatedTo(ChronoUnit.SECONDS).toString(), ROWS);
+        jdbcTemplate.execute("ANALYZE transactions");
+    }
+}
@@ -0,0 +1,109 @@
+package com.miscroservice.transaction_service.integration.transaction;
+
+import com.miscroservice.transaction_service.integration.BaseIntegrationTest;
+import com.miscroservice.transaction_service.model.dto.TransactionStatsResponse;
+import com.miscroservice.transaction_service.service.StatsRollupService;
+import com.miscroservice.transaction_service.service.TransactionService;
+import com.miscroservice.transaction_service.service.cache.CacheRegion;
+import com.miscroservice.transaction_service.service.cache.TwoTierCache;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Замеряет задержку и аллокации getStats при росте числа транзакций пользователя.
+ * Запуск: ./gradlew benchmark --tests '*TransactionStatsBenchmarkTest'
+ */
+@Tag("benchmark")
+public class TransactionStatsBenchmarkTest extends BaseIntegrationTest {
+
+    private static final int[] ROW_COUNTS = {1_000, 10_000, 100_000};
+    private static final int WARMUP_ITERATIONS = 5;
+    private static final int MEASURED_ITERATIONS = 20;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private StatsRollupService statsRollupService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Autowired
+    private TwoTierCache twoTierCache;
+
+    @Test
+    void getStats_AllocationStaysFlatAsRowCountGrows() {
+        com.sun.management.ThreadMXBean threadMXBean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Map<Integer, long[]> results = new LinkedHashMap<>();
+
+        for (int rows : ROW_COUNTS) {
+            UUID benchmarkUser = UUID.randomUUID();
+            seedTransactions(benchmarkUser, rows);
+
+            for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+                evictCache();
+                transactionService.getStats(benchmarkUser, null, null);
+            }
+
+            long totalNanos = 0;
+            long totalBytes = 0;
+            TransactionStatsResponse stats = null;
+            for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+                evictCache();
+                long bytesBefore = threadMXBean.getCurrentThreadAllocatedBytes();
+                long start = System.nanoTime();
+                stats = transactionService.getStats(benchmarkUser, null, null);
+                totalNanos += System.nanoTime() - start;
+                totalBytes += threadMXBean.getCurrentThreadAllocatedBytes() - bytesBefore;
+            }
+
+            assertEquals(5, stats.getByCategory().size());
+            results.put(rows, new long[]{totalNanos / MEASURED_ITERATIONS, totalBytes / MEASURED_ITERATIONS});
+        }
+
+        System.out.println("rows\tavg latency (us)\tavg allocated (KB)");
+        results.forEach((rows, r) -> System.out.printf("%d\t%d\t%d%n", rows, r[0] / 1_000, r[1] / 1024));
+
+        // Размер результата ограничен (тип × категория × месяц), поэтому аллокации не растут со строками
+        long smallest = results.get(ROW_COUNTS[0])[1];
+        long largest = results.get(ROW_COUNTS[ROW_COUNTS.length - 1])[1];
+        assertTrue(largest < smallest * 3,
+                "Allocation per call grew from " + smallest + " to " + largest + " bytes");
+    }
+
+    private void seedTransactions(UUID user, int rows) {
+        // 5 категорий × 12 месяцев, генерация на стороне Postgres
+        jdbcTemplate.update(
+                "INSERT INTO transactions (id, user_id, amount, type, category, description, date) " +
+                        "SELECT gen_random_uuid(), ?, (g % 500) + 0.99, " +
+                        "CASE WHEN g % 5 = 0 THEN 'INCOME' ELSE 'EXPENSE' END, " +
+                        "(ARRAY['Salary', 'Groceries', 'Transport', 'Rent', 'Utilities'])[(g % 5) + 1], " +
+                        "'benchmark', now() - ((g % 365) || ' days')::interval " +
+                        "FROM generate_series(1, ?) AS g",
+                user, rows);
+        jdbcTemplate.execute("ANALYZE transactions");
+        // Строки вставлены в обход сервиса, поэтому роллапы пересчитываются явно
+        statsRollupService.rebuild(user);
+    }
+
+    private void evictCache() {
+        redisTemplate.getConnectionFactory().getConnection().serverCommands().flushDb();
+        twoTierCache.clearLocal(CacheRegion.STATS);
+    }
+}
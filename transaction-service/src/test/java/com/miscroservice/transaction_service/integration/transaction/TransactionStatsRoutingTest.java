@@ -0,0 +1,49 @@
+package com.miscroservice.transaction_service.integration.transaction;
+
+import com.miscroservice.transaction_service.integration.BaseIntegrationTest;
+import com.miscroservice.transaction_service.service.TransactionService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Stats reads run in read-only transactions, so the routing DataSource hands them a replica connection.
+ */
+public class TransactionStatsRoutingTest extends BaseIntegrationTest {
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Та же база под видом реплики: важен только ключ маршрутизации
+    @DynamicPropertySource
+    static void configureReplica(DynamicPropertyRegistry registry) {
+        registry.add("transactions.datasource.replica-urls", postgres::getJdbcUrl);
+    }
+
+    @Test
+    void getStats_RoutesAggregateQueriesToReplica() {
+        // Arrange
+        double replicaBefore = routes("replica");
+        double fencedBefore = routes("primary_fenced");
+
+        // Act: весь период (роллапы) и диапазон внутри месяца (транзакции)
+        transactionService.getStats(userId, null, null);
+        transactionService.getStats(userId, "2024-03-05T00:00:00Z", "2024-03-20T00:00:00Z");
+
+        // Assert
+        assertTrue(routes("replica") - replicaBefore >= 2, "Stats reads should be routed to the replica");
+        assertEquals(fencedBefore, routes("primary_fenced"));
+    }
+
+    private double routes(String route) {
+        return meterRegistry.counter("datasource.routes", "route", route).count();
+    }
+}
@@ -0,0 +1,126 @@
+package com.miscroservice.transaction_service.service.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SingleFlightTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private SingleFlight singleFlight;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        singleFlight = new SingleFlight(meterRegistry, 1.0, 2_000);
+    }
+
+    @Test
+    void execute_ConcurrentCallersWithSameKey_ShareOneLoad() throws Exception {
+        // Arrange
+        int callers = 8;
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        List<Future<String>> results = new ArrayList<>();
+
+        // Act
+        for (int i = 0; i < callers; i++) {
+            results.add(executor.submit(() -> singleFlight.execute("stats:key", 10, TimeUnit.MINUTES, () -> {
+                loads.incrementAndGet();
+                await(release);
+                return "stats";
+            })));
+        }
+        // Даём всем вызывающим встать в ожидание лидера
+        while (meterRegistry.counter("cache.singleflight.loads", "result", "leader").count() < 1) {
+            Thread.sleep(5);
+        }
+        Thread.sleep(100);
+        release.countDown();
+
+        // Assert
+        for (Future<String> result : results) {
+            assertEquals("stats", result.get(5, TimeUnit.SECONDS));
+        }
+        executor.shutdown();
+        assertEquals(1, loads.get());
+        assertEquals(callers - 1, meterRegistry.counter("cache.singleflight.loads", "result", "coalesced").count());
+    }
+
+    @Test
+    void execute_LeaderFails_WaitersGetSameErrorAndKeyIsFreed() throws Exception {
+        // Arrange
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<String> leader = executor.submit(() -> singleFlight.execute("key", 10, TimeUnit.MINUTES, () -> {
+            await(release);
+            throw new IllegalStateException("DB down");
+        }));
+        while (meterRegistry.counter("cache.singleflight.loads", "result", "leader").count() < 1) {
+            Thread.sleep(5);
+        }
+
+        // Act
+        CompletableFuture<String> waiter = CompletableFuture.supplyAsync(
+                () -> singleFlight.execute("key", 10, TimeUnit.MINUTES, () -> "unused"));
+        Thread.sleep(50);
+        release.countDown();
+
+        // Assert
+        ExecutionException waiterError = assertThrows(ExecutionException.class, () -> waiter.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, waiterError.getCause());
+        assertThrows(ExecutionException.class, () -> leader.get(5, TimeUnit.SECONDS));
+        executor.shutdown();
+        assertEquals("fresh", singleFlight.execute("key", 10, TimeUnit.MINUTES, () -> "fresh"));
+    }
+
+    @Test
+    void shouldRefreshEarly_FarFromExpiry_IsFalse() {
+        // Arrange
+        singleFlight.execute("key", 10, TimeUnit.MINUTES, () -> "value");
+
+        // Act & Assert
+        for (int i = 0; i < 1_000; i++) {
+            assertFalse(singleFlight.shouldRefreshEarly("key"));
+        }
+    }
+
+    @Test
+    void shouldRefreshEarly_ExpensiveLoadNearExpiry_IsTrue() {
+        // Arrange: загрузка заняла ~50 мс, а жить записи осталось 1 мс
+        singleFlight.execute("key", 1, TimeUnit.MILLISECONDS, () -> {
+            sleep(50);
+            return "value";
+        });
+        sleep(5);
+
+        // Act & Assert
+        assertTrue(singleFlight.shouldRefreshEarly("key"));
+        assertFalse(singleFlight.shouldRefreshEarly("unknown"));
+        assertTrue(meterRegistry.counter("cache.early.refresh").count() >= 1);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
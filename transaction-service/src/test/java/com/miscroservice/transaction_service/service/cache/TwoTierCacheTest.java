@@ -0,0 +1,204 @@
+package com.miscroservice.transaction_service.service.cache;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.miscroservice.transaction_service.model.dto.TransactionResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class TwoTierCacheTest {
+
+    private static final TypeReference<List<TransactionResponse>> TRANSACTION_LIST_TYPE = new TypeReference<>() {};
+
+    @Mock
+    private RedisTemplate<String, Object> redisTemplate;
+    @Mock
+    private StringRedisTemplate stringRedisTemplate;
+    @Mock
+    private ValueOperations<String, Object> valueOperations;
+
+    private SimpleMeterRegistry meterRegistry;
+    private TwoTierCache twoTierCache;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        meterRegistry = new SimpleMeterRegistry();
+        twoTierCache = new TwoTierCache(redisTemplate, stringRedisTemplate, new ObjectMapper(), meterRegistry);
+    }
+
+    @Test
+    void get_RedisReturnsUntypedJson_ConvertsAndServesNextReadFromL1() {
+        // Arrange: Jackson2JsonRedisSerializer без type info отдаёт LinkedHashMap
+        UUID id = UUID.randomUUID();
+        Map<String, Object> raw = new LinkedHashMap<>();
+        raw.put("id", id.toString());
+        raw.put("amount", 12.5);
+        raw.put("type", "EXPENSE");
+        raw.put("category", "Groceries");
+        raw.put("description", "Milk");
+        raw.put("date", "2024-03-01T10:00:00Z");
+        when(valueOperations.get("transactions:key")).thenReturn(List.of(raw));
+
+        // Act
+        List<TransactionResponse> first = twoTierCache.get(CacheRegion.TRANSACTIONS, "transactions:key", TRANSACTION_LIST_TYPE);
+        List<TransactionResponse> second = twoTierCache.get(CacheRegion.TRANSACTIONS, "transactions:key", TRANSACTION_LIST_TYPE);
+
+        // Assert
+        assertEquals(id, first.get(0).getId());
+        assertEquals("Groceries", first.get(0).getCategory());
+        assertSame(first, second);
+        verify(valueOperations, times(1)).get("transactions:key");
+        assertEquals(1.0, meterRegistry.get("cache.gets")
+                .tags("cache", "transactions", "tier", "l2", "result", "hit").counter().count());
+    }
+
+    @Test
+    void get_UnexpectedFormat_TreatedAsMiss() {
+        // Arrange
+        when(valueOperations.get("cache:version:user:1")).thenReturn(List.of("not a number"));
+
+        // Act & Assert
+        assertNull(twoTierCache.get(CacheRegion.VERSIONS, "cache:version:user:1", Long.class));
+    }
+
+    @Test
+    void put_WritesBothTiers() {
+        // Act
+        twoTierCache.put(CacheRegion.STATS, "stats:key", "value", 10, TimeUnit.MINUTES);
+
+        // Assert
+        verify(valueOperations).set("stats:key", "value", 10, TimeUnit.MINUTES);
+        assertEquals("value", twoTierCache.get(CacheRegion.STATS, "stats:key", String.class));
+        verify(valueOperations, never()).get(anyString());
+    }
+
+    @Test
+    void evict_DropsLocalCopyAndPublishesInvalidation() {
+        // Arrange
+        twoTierCache.putLocal(CacheRegion.VERSIONS, "cache:version:user:1", 3L);
+
+        // Act
+        twoTierCache.evict(CacheRegion.VERSIONS, "cache:version:user:1");
+
+        // Assert
+        verify(stringRedisTemplate).convertAndSend(TwoTierCache.INVALIDATION_CHANNEL, "versions|cache:version:user:1");
+        assertNull(twoTierCache.get(CacheRegion.VERSIONS, "cache:version:user:1", Long.class));
+        verify(valueOperations).get("cache:version:user:1");
+    }
+
+    @Test
+    void evict_PublishFailure_StillEvictsLocally() {
+        // Arrange
+        twoTierCache.putLocal(CacheRegion.VERSIONS, "cache:version:user:1", 3L);
+        doThrow(new RuntimeException("Redis unavailable"))
+                .when(stringRedisTemplate).convertAndSend(anyString(), anyString());
+
+        // Act
+        twoTierCache.evict(CacheRegion.VERSIONS, "cache:version:user:1");
+
+        // Assert
+        assertNull(twoTierCache.get(CacheRegion.VERSIONS, "cache:version:user:1", Long.class));
+    }
+
+    @Test
+    void invalidationListener_EvictsLocalEntryFromOtherReplica() {
+        // Arrange
+        twoTierCache.putLocal(CacheRegion.VERSIONS, "cache:version:user:1", 3L);
+        CacheInvalidationListener listener = new CacheInvalidationListener(twoTierCache);
+        byte[] body = "versions|cache:version:user:1".getBytes(StandardCharsets.UTF_8);
+
+        // Act
+        listener.onMessage(new DefaultMessage(TwoTierCache.INVALIDATION_CHANNEL.getBytes(StandardCharsets.UTF_8), body), null);
+
+        // Assert
+        assertNull(twoTierCache.get(CacheRegion.VERSIONS, "cache:version:user:1", Long.class));
+        verify(stringRedisTemplate, never()).convertAndSend(anyString(), anyString());
+    }
+
+    @Test
+    void get_EvictArrivesDuringRedisRead_DoesNotCacheStaleValueInL1() {
+        // Arrange: инвалидация с другой реплики приходит, пока GET ещё в полёте
+        when(valueOperations.get("cache:version:user:1"))
+                .thenAnswer(invocation -> {
+                    twoTierCache.evictLocal(CacheRegion.VERSIONS, "cache:version:user:1");
+                    return 3L;
+                })
+                .thenReturn(4L);
+
+        // Act
+        Long first = twoTierCache.get(CacheRegion.VERSIONS, "cache:version:user:1", Long.class);
+        Long second = twoTierCache.get(CacheRegion.VERSIONS, "cache:version:user:1", Long.class);
+
+        // Assert
+        assertEquals(3L, first);
+        assertEquals(4L, second);
+        verify(valueOperations, times(2)).get("cache:version:user:1");
+    }
+
+    @Test
+    void getOrDefault_Miss_CachesDefaultInL1() {
+        // Act
+        Long first = twoTierCache.getOrDefault(CacheRegion.VERSIONS, "cache:version:user:1", Long.class, 0L);
+        Long second = twoTierCache.getOrDefault(CacheRegion.VERSIONS, "cache:version:user:1", Long.class, 0L);
+
+        // Assert
+        assertEquals(0L, first);
+        assertEquals(0L, second);
+        verify(valueOperations, times(1)).get("cache:version:user:1");
+    }
+
+    @Test
+    void getOrDefault_EvictArrivesDuringMiss_DoesNotCacheDefault() {
+        // Arrange: первая запись пользователя на другой реплике во время промаха
+        when(valueOperations.get("cache:version:user:1"))
+                .thenAnswer(invocation -> {
+                    twoTierCache.evictLocal(CacheRegion.VERSIONS, "cache:version:user:1");
+                    return null;
+                })
+                .thenReturn(1L);
+
+        // Act
+        Long first = twoTierCache.getOrDefault(CacheRegion.VERSIONS, "cache:version:user:1", Long.class, 0L);
+        Long second = twoTierCache.getOrDefault(CacheRegion.VERSIONS, "cache:version:user:1", Long.class, 0L);
+
+        // Assert
+        assertEquals(0L, first);
+        assertEquals(1L, second);
+    }
+
+    @Test
+    void clearLocal_DuringRedisRead_DoesNotCacheStaleValueInL1() {
+        // Arrange
+        when(valueOperations.get("stats:key"))
+                .thenAnswer(invocation -> {
+                    twoTierCache.clearLocal(CacheRegion.STATS);
+                    return "stale";
+                })
+                .thenReturn("fresh");
+
+        // Act
+        twoTierCache.get(CacheRegion.STATS, "stats:key", String.class);
+
+        // Assert
+        assertEquals("fresh", twoTierCache.get(CacheRegion.STATS, "stats:key", String.class));
+    }
+}
@@ -0,0 +1,148 @@
+package com.miscroservice.transaction_service.service.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class IdempotencyStoreTest {
+
+    @Mock
+    private StringRedisTemplate stringRedisTemplate;
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private SimpleMeterRegistry meterRegistry;
+    private IdempotencyStore store;
+    private final UUID userId = UUID.randomUUID();
+    private String redisKey;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(stringRedisTemplate.opsForValue()).thenReturn(valueOperations);
+        meterRegistry = new SimpleMeterRegistry();
+        store = new IdempotencyStore(stringRedisTemplate, objectMapper, meterRegistry, 10_000, 0.01, Duration.ofHours(24));
+        ReflectionTestUtils.setField(store, "inProgressTtl", Duration.ofMinutes(1));
+        ReflectionTestUtils.setField(store, "responseTtl", Duration.ofHours(24));
+        redisKey = "idempotency:user:" + userId + ":key-1";
+    }
+
+    @Test
+    void begin_NewKey_ClaimsWithSingleSetNx() {
+        // Arrange
+        when(valueOperations.setIfAbsent(eq(redisKey), anyString(), eq(Duration.ofMinutes(1)))).thenReturn(true);
+
+        // Act
+        IdempotencyStore.Outcome outcome = store.begin(userId, "key-1", "hash-a");
+
+        // Assert
+        assertEquals(IdempotencyStore.Decision.PROCEED, outcome.decision());
+        verify(valueOperations, never()).get(anyString());
+        assertEquals(1.0, meterRegistry.counter("idempotency.redis.roundtrips.saved").count());
+        assertEquals(1.0, meterRegistry.counter("idempotency.bloom", "result", "negative").count());
+    }
+
+    @Test
+    void begin_RetryOnSameInstance_ReplaysWithSingleGet() throws Exception {
+        // Arrange
+        when(valueOperations.setIfAbsent(eq(redisKey), anyString(), any(Duration.class))).thenReturn(true);
+        store.begin(userId, "key-1", "hash-a");
+        when(valueOperations.get(redisKey)).thenReturn(objectMapper.writeValueAsString(
+                new IdempotencyRecord(IdempotencyRecord.COMPLETED, "hash-a", 201, "application/json", "{\"id\":1}")));
+
+        // Act
+        IdempotencyStore.Outcome outcome = store.begin(userId, "key-1", "hash-a");
+
+        // Assert
+        assertEquals(IdempotencyStore.Decision.REPLAY, outcome.decision());
+        assertEquals(201, outcome.record().getStatus());
+        assertEquals("{\"id\":1}", outcome.record().getBody());
+        verify(valueOperations, times(1)).setIfAbsent(anyString(), anyString(), any(Duration.class));
+        assertEquals(1.0, meterRegistry.counter("idempotency.requests", "outcome", "replayed").count());
+    }
+
+    @Test
+    void begin_KeyClaimedOnAnotherInstance_FallsBackToGet() throws Exception {
+        // Arrange
+        when(valueOperations.setIfAbsent(eq(redisKey), anyString(), any(Duration.class))).thenReturn(false);
+        when(valueOperations.get(redisKey)).thenReturn(objectMapper.writeValueAsString(IdempotencyRecord.inProgress("hash-a")));
+
+        // Act
+        IdempotencyStore.Outcome outcome = store.begin(userId, "key-1", "hash-a");
+
+        // Assert
+        assertEquals(IdempotencyStore.Decision.IN_PROGRESS, outcome.decision());
+    }
+
+    @Test
+    void begin_SameKeyDifferentBody_IsMismatch() throws Exception {
+        // Arrange
+        when(valueOperations.setIfAbsent(eq(redisKey), anyString(), any(Duration.class))).thenReturn(false);
+        when(valueOperations.get(redisKey)).thenReturn(objectMapper.writeValueAsString(
+                new IdempotencyRecord(IdempotencyRecord.COMPLETED, "hash-a", 201, "application/json", "{}")));
+
+        // Act
+        IdempotencyStore.Outcome outcome = store.begin(userId, "key-1", "hash-b");
+
+        // Assert
+        assertEquals(IdempotencyStore.Decision.MISMATCH, outcome.decision());
+    }
+
+    @Test
+    void begin_RedisDown_FailsOpen() {
+        // Arrange
+        when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class)))
+                .thenThrow(new RuntimeException("Connection refused"));
+
+        // Act
+        IdempotencyStore.Outcome outcome = store.begin(userId, "key-1", "hash-a");
+
+        // Assert
+        assertEquals(IdempotencyStore.Decision.PROCEED, outcome.decision());
+        assertEquals(1.0, meterRegistry.counter("idempotency.requests", "outcome", "unavailable").count());
+    }
+
+    @Test
+    void complete_StoresResponseWithResponseTtl() {
+        // Act
+        store.complete(userId, "key-1", "hash-a", 201, "application/json", "{\"id\":1}");
+
+        // Assert
+        verify(valueOperations).set(eq(redisKey), contains("\"state\":\"COMPLETED\""), eq(Duration.ofHours(24)));
+    }
+
+    @Test
+    void bloomFilter_NoFalseNegativesAndLowFalsePositiveRate() {
+        // Arrange
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("key-" + i);
+        }
+
+        // Act
+        int falsePositives = 0;
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filter.mightContain("key-" + i));
+            if (filter.mightContain("other-" + i)) {
+                falsePositives++;
+            }
+        }
+
+        // Assert: 1% ожидаемых, с запасом на разброс
+        assertTrue(falsePositives < 300, "False positives: " + falsePositives);
+    }
+}
@@ -0,0 +1,79 @@
+package com.miscroservice.transaction_service.service.impl.category;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class CategoryRegistryTest extends BaseCategoryTest {
+
+    @Test
+    void contains_LooksUpSnapshotWithoutQueryingByName() {
+        // Arrange
+        when(categoryRepository.findAll()).thenReturn(List.of(category));
+
+        // Act & Assert
+        assertTrue(categoryRegistry.contains("Salary"));
+        assertFalse(categoryRegistry.contains("InvalidCategory"));
+        assertFalse(categoryRegistry.contains(null));
+        verify(categoryRepository, times(1)).findAll();
+        verify(categoryRepository, never()).findByName(anyString());
+    }
+
+    @Test
+    void refreshIfChanged_SameFingerprint_KeepsSnapshot() {
+        // Arrange
+        when(categoryRepository.fingerprint()).thenReturn("v1");
+        when(categoryRepository.findAll()).thenReturn(List.of(category));
+        categoryRegistry.refresh();
+
+        // Act
+        categoryRegistry.refreshIfChanged();
+
+        // Assert
+        verify(categoryRepository, times(1)).findAll();
+    }
+
+    @Test
+    void refreshIfChanged_NewFingerprint_SwapsSnapshot() {
+        // Arrange
+        when(categoryRepository.fingerprint()).thenReturn("v1", "v2", "v2");
+        when(categoryRepository.findAll())
+                .thenReturn(List.of(category))
+                .thenReturn(List.of(category, category(2, "Crypto", "INCOME")));
+        categoryRegistry.refresh();
+        assertFalse(categoryRegistry.contains("Crypto"));
+
+        // Act
+        categoryRegistry.refreshIfChanged();
+
+        // Assert
+        assertTrue(categoryRegistry.contains("Crypto"));
+        assertEquals(2, categoryRegistry.findByType("INCOME").size());
+    }
+
+    @Test
+    void refreshIfChanged_DatabaseFailure_KeepsCurrentSnapshot() {
+        // Arrange
+        when(categoryRepository.findAll()).thenReturn(List.of(category));
+        categoryRegistry.refresh();
+        when(categoryRepository.fingerprint()).thenThrow(new RuntimeException("DB unavailable"));
+
+        // Act
+        categoryRegistry.refreshIfChanged();
+
+        // Assert
+        assertTrue(categoryRegistry.contains("Salary"));
+    }
+
+    @Test
+    void findAll_SnapshotIsImmutable() {
+        // Arrange
+        when(categoryRepository.findAll()).thenReturn(List.of(category));
+
+        // Act & Assert
+        assertThrows(UnsupportedOperationException.class, () -> categoryRegistry.findAll().clear());
+    }
+}
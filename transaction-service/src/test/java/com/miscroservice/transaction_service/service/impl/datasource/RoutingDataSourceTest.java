@@ -0,0 +1,104 @@
+package com.miscroservice.transaction_service.service.impl.datasource;
+
+import com.miscroservice.transaction_service.config.datasource.ReadYourWritesTracker;
+import com.miscroservice.transaction_service.config.datasource.RoutingDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+public class RoutingDataSourceTest {
+
+    @Mock
+    private ReadYourWritesTracker tracker;
+
+    private SimpleMeterRegistry meterRegistry;
+    private RoutingDataSource routingDataSource;
+    private UUID userId;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+        routingDataSource = new RoutingDataSource(List.of("replica-0", "replica-1"), tracker, meterRegistry);
+        userId = UUID.randomUUID();
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(userId.toString(), null, null));
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void readWriteTransaction_GoesToPrimary() {
+        // Act
+        Object key = lookupKey();
+
+        // Assert
+        assertEquals(RoutingDataSource.PRIMARY, key);
+        verifyNoInteractions(tracker);
+    }
+
+    @Test
+    void readOnlyTransaction_RoundRobinsReplicas() {
+        // Arrange
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        when(tracker.isCaughtUp(eq(userId), anyString())).thenReturn(true);
+
+        // Act & Assert
+        assertEquals("replica-0", lookupKey());
+        assertEquals("replica-1", lookupKey());
+        assertEquals("replica-0", lookupKey());
+        assertEquals(3.0, meterRegistry.counter("datasource.routes", "route", "replica").count());
+    }
+
+    @Test
+    void readOnlyTransaction_AfterRecentWrite_StaysOnPrimary() {
+        // Arrange
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        when(tracker.isCaughtUp(eq(userId), anyString())).thenReturn(false);
+
+        // Act
+        Object key = lookupKey();
+
+        // Assert
+        assertEquals(RoutingDataSource.PRIMARY, key);
+        assertEquals(1.0, meterRegistry.counter("datasource.routes", "route", "primary_fenced").count());
+    }
+
+    @Test
+    void callAs_OverridesSecurityContextUser() {
+        // Arrange
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        UUID exporter = UUID.randomUUID();
+        when(tracker.isCaughtUp(any(UUID.class), anyString())).thenReturn(true);
+
+        // Act
+        RoutingDataSource.callAs(exporter, this::lookupKey);
+
+        // Assert
+        verify(tracker).isCaughtUp(eq(exporter), anyString());
+        verify(tracker, never()).isCaughtUp(eq(userId), anyString());
+    }
+
+    private Object lookupKey() {
+        return ReflectionTestUtils.invokeMethod(routingDataSource, "determineCurrentLookupKey");
+    }
+}
@@ -0,0 +1,112 @@
+package com.miscroservice.transaction_service.service.impl.export;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.miscroservice.transaction_service.model.dto.ExportFormat;
+import com.miscroservice.transaction_service.model.entity.Transaction;
+import com.miscroservice.transaction_service.repository.TransactionRepository;
+import com.miscroservice.transaction_service.service.impl.TransactionExportServiceImpl;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class TransactionExportServiceTest {
+
+    @Mock
+    private TransactionRepository transactionRepository;
+    @Mock
+    private EntityManager entityManager;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionExportServiceImpl exportService;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final UUID userId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        exportService = new TransactionExportServiceImpl(transactionRepository, entityManager, objectMapper, transactionManager);
+        ReflectionTestUtils.setField(exportService, "fetchSize", 500);
+    }
+
+    @Test
+    void export_Ndjson_WritesOneObjectPerLineAndDetachesRows() throws Exception {
+        // Arrange
+        Transaction first = transaction("Salary", "Monthly salary");
+        Transaction second = transaction("Groceries", null);
+        when(transactionRepository.streamAll(any(), eq(500))).thenReturn(Stream.of(first, second));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        long written = exportService.export(userId, null, null, null, null, ExportFormat.NDJSON, out);
+
+        // Assert
+        assertEquals(2, written);
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        JsonNode node = objectMapper.readTree(lines[0]);
+        assertEquals(first.getId().toString(), node.get("id").asText());
+        assertEquals("Salary", node.get("category").asText());
+        assertEquals(0, new BigDecimal("100.50").compareTo(node.get("amount").decimalValue()));
+        verify(entityManager).detach(first);
+        verify(entityManager).detach(second);
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void export_Csv_EscapesFieldsAndClosesStream() throws Exception {
+        // Arrange
+        AtomicBoolean closed = new AtomicBoolean();
+        Transaction transaction = transaction("Salary", "Bonus, \"Q4\"");
+        when(transactionRepository.streamAll(any(), eq(500)))
+                .thenReturn(Stream.of(transaction).onClose(() -> closed.set(true)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        long written = exportService.export(userId, null, null, null, null, ExportFormat.CSV, out);
+
+        // Assert
+        assertEquals(1, written);
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals("id,date,type,category,amount,description,payment_method", lines[0]);
+        assertTrue(lines[1].endsWith(",INCOME,Salary,100.50,\"Bonus, \"\"Q4\"\"\",Card"));
+        assertTrue(closed.get());
+    }
+
+    @Test
+    void fromParameter_UnknownFormat_Throws() {
+        assertEquals(ExportFormat.CSV, ExportFormat.fromParameter("csv"));
+        assertThrows(IllegalArgumentException.class, () -> ExportFormat.fromParameter("xml"));
+    }
+
+    private Transaction transaction(String category, String description) {
+        Transaction transaction = new Transaction();
+        transaction.setId(UUID.randomUUID());
+        transaction.setUserId(userId);
+        transaction.setAmount(new BigDecimal("100.50"));
+        transaction.setType("INCOME");
+        transaction.setCategory(category);
+        transaction.setDescription(description);
+        transaction.setPaymentMethod("Card");
+        transaction.setDate(Instant.parse("2024-01-15T10:00:00Z"));
+        return transaction;
+    }
+}
@@ -0,0 +1,119 @@
+package com.miscroservice.transaction_service.service.impl.outbox;
+
+import com.miscroservice.transaction_service.model.entity.OutboxEvent;
+import com.miscroservice.transaction_service.repository.OutboxEventRepository;
+import com.miscroservice.transaction_service.service.outbox.OutboxRelay;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class OutboxRelayTest {
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+    @Mock
+    private KafkaTemplate<String, String> balanceKafkaTemplate;
+
+    private OutboxRelay outboxRelay;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        outboxRelay = new OutboxRelay(outboxEventRepository, balanceKafkaTemplate, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(outboxRelay, "batchSize", 100);
+        ReflectionTestUtils.setField(outboxRelay, "sendTimeoutMs", 1000L);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void relay_PublishesBatchWithOneFlushAndMarksSent() {
+        // Arrange
+        lock(event(1L, "user-a"), event(2L, "user-b"));
+        CompletableFuture<SendResult<String, String>> ok = CompletableFuture.completedFuture(mock(SendResult.class));
+        when(balanceKafkaTemplate.send(anyString(), anyString(), anyString())).thenReturn(ok);
+
+        // Act
+        outboxRelay.relay();
+
+        // Assert
+        verify(balanceKafkaTemplate).send("balance-update-topic", "user-a", "{\"id\":1}");
+        verify(balanceKafkaTemplate).send("balance-update-topic", "user-b", "{\"id\":2}");
+        verify(balanceKafkaTemplate, times(1)).flush();
+        verify(outboxEventRepository).markSent(eq(List.of(1L, 2L)), any(Instant.class));
+        verify(outboxEventRepository, never()).incrementAttempts(anyList());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void relay_FailedSend_StaysUnsentForNextRun() {
+        // Arrange
+        lock(event(1L, "user-a"), event(2L, "user-b"));
+        CompletableFuture<SendResult<String, String>> ok = CompletableFuture.completedFuture(mock(SendResult.class));
+        when(balanceKafkaTemplate.send(anyString(), eq("user-a"), anyString())).thenReturn(ok);
+        when(balanceKafkaTemplate.send(anyString(), eq("user-b"), anyString()))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("Broker unavailable")));
+
+        // Act
+        outboxRelay.relay();
+
+        // Assert
+        verify(outboxEventRepository).markSent(eq(List.of(1L)), any(Instant.class));
+        verify(outboxEventRepository).incrementAttempts(List.of(2L));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void relay_FailedSend_HoldsBackLaterEventsOfSameKey() {
+        // Arrange: 1 и 3 — события user-a; 1 не отправилось, значит 3 нельзя отмечать раньше него
+        lock(event(1L, "user-a"), event(2L, "user-b"), event(3L, "user-a"));
+        CompletableFuture<SendResult<String, String>> ok = CompletableFuture.completedFuture(mock(SendResult.class));
+        when(balanceKafkaTemplate.send(anyString(), anyString(), anyString())).thenReturn(ok);
+        when(balanceKafkaTemplate.send("balance-update-topic", "user-a", "{\"id\":1}"))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("Broker unavailable")));
+
+        // Act
+        outboxRelay.relay();
+
+        // Assert
+        verify(outboxEventRepository).markSent(eq(List.of(2L)), any(Instant.class));
+        verify(outboxEventRepository).incrementAttempts(List.of(1L));
+    }
+
+    @Test
+    void relay_NoFreeKeys_DoesNotTouchKafka() {
+        // Arrange: outbox пуст или все ключи разбирает другая реплика
+        when(outboxEventRepository.lockPendingKeys(100)).thenReturn(List.of());
+
+        // Act
+        outboxRelay.relay();
+
+        // Assert
+        verify(outboxEventRepository, never()).findUnsentByKeys(anyList(), anyInt());
+        verifyNoInteractions(balanceKafkaTemplate);
+    }
+
+    private void lock(OutboxEvent... events) {
+        List<String> keys = Arrays.stream(events).map(OutboxEvent::getEventKey).distinct().toList();
+        when(outboxEventRepository.lockPendingKeys(100)).thenReturn(keys);
+        when(outboxEventRepository.findUnsentByKeys(keys, 100)).thenReturn(List.of(events));
+    }
+
+    private OutboxEvent event(Long id, String key) {
+        OutboxEvent event = new OutboxEvent("balance-update-topic", key, "{\"id\":" + id + "}");
+        event.setId(id);
+        return event;
+    }
+}
@@ -0,0 +1,96 @@
+package com.miscroservice.transaction_service.service.impl.rollup;
+
+import com.miscroservice.transaction_service.repository.TransactionRepository;
+import com.miscroservice.transaction_service.repository.UserMonthlyRollupRepository;
+import com.miscroservice.transaction_service.service.impl.StatsRollupServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class StatsRollupServiceTest {
+
+    @Mock
+    private UserMonthlyRollupRepository rollupRepository;
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    private StatsRollupServiceImpl statsRollupService;
+    private UUID userId;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        statsRollupService = new StatsRollupServiceImpl(rollupRepository, transactionRepository);
+        userId = UUID.randomUUID();
+    }
+
+    @Test
+    void recordCreated_AppliesPositiveDeltaToUtcMonth() {
+        statsRollupService.recordCreated(userId, Instant.parse("2024-03-31T23:30:00Z"), "Groceries", "EXPENSE",
+                new BigDecimal("12.50"));
+
+        verify(rollupRepository).applyDelta(userId, LocalDate.of(2024, 3, 1), "Groceries", "EXPENSE",
+                new BigDecimal("12.50"), 1);
+    }
+
+    @Test
+    void recordDeleted_AppliesNegativeDelta() {
+        statsRollupService.recordDeleted(userId, Instant.parse("2024-04-01T00:00:00Z"), "Salary", "INCOME",
+                new BigDecimal("100.00"));
+
+        verify(rollupRepository).applyDelta(userId, LocalDate.of(2024, 4, 1), "Salary", "INCOME",
+                new BigDecimal("-100.00"), -1);
+    }
+
+    @Test
+    void getAggregates_NoRange_ReadsRollupsOnly() {
+        statsRollupService.getAggregates(userId, null, null);
+
+        verify(rollupRepository).findAggregates(userId);
+        verifyNoInteractions(transactionRepository);
+    }
+
+    @Test
+    void getAggregates_RangeWithinOneMonth_ReadsTransactionsOnly() {
+        Instant start = Instant.parse("2024-01-15T00:00:00Z");
+        Instant end = Instant.parse("2024-02-15T00:00:00Z");
+
+        statsRollupService.getAggregates(userId, start, end);
+
+        verify(transactionRepository).aggregateByUserBetween(userId, start, end);
+        verify(rollupRepository, never()).findAggregatesBetween(any(), any(), any());
+    }
+
+    @Test
+    void getAggregates_RangeSpanningMonths_CombinesRollupsAndPartialEdges() {
+        Instant start = Instant.parse("2024-01-15T00:00:00Z");
+        Instant end = Instant.parse("2024-04-10T00:00:00Z");
+
+        statsRollupService.getAggregates(userId, start, end);
+
+        verify(rollupRepository).findAggregatesBetween(userId, LocalDate.of(2024, 2, 1), LocalDate.of(2024, 3, 1));
+        verify(transactionRepository).aggregateByUserInRange(userId, start, Instant.parse("2024-02-01T00:00:00Z"));
+        verify(transactionRepository).aggregateByUserBetween(userId, Instant.parse("2024-04-01T00:00:00Z"), end);
+    }
+
+    @Test
+    void getAggregates_RangeAlignedToMonthStart_SkipsHeadQuery() {
+        Instant start = Instant.parse("2024-01-01T00:00:00Z");
+        Instant end = Instant.parse("2024-03-31T23:59:59Z");
+
+        statsRollupService.getAggregates(userId, start, end);
+
+        verify(rollupRepository).findAggregatesBetween(userId, LocalDate.of(2024, 1, 1), LocalDate.of(2024, 2, 1));
+        verify(transactionRepository, never()).aggregateByUserInRange(any(), any(), any());
+        verify(transactionRepository).aggregateByUserBetween(userId, Instant.parse("2024-03-01T00:00:00Z"), end);
+    }
+}
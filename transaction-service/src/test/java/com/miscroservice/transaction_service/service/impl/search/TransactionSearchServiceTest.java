@@ -0,0 +1,151 @@
+package com.miscroservice.transaction_service.service.impl.search;
+
+import com.miscroservice.transaction_service.exception.ValidationException;
+import com.miscroservice.transaction_service.model.dto.TransactionSearchResponse;
+import com.miscroservice.transaction_service.model.entity.Transaction;
+import com.miscroservice.transaction_service.model.projection.TransactionSearchHit;
+import com.miscroservice.transaction_service.repository.TransactionRepository;
+import com.miscroservice.transaction_service.service.impl.TransactionSearchServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class TransactionSearchServiceTest {
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    private TransactionSearchServiceImpl searchService;
+    private final UUID userId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        searchService = new TransactionSearchServiceImpl(transactionRepository);
+    }
+
+    @Test
+    void search_BuildsPrefixQueryAndKeepsRankOrder() {
+        // Arrange
+        Transaction uber = transaction("Uber trip");
+        Transaction eats = transaction("Uber Eats");
+        when(transactionRepository.search(eq(userId), eq("uber, eats!"), eq("uber:* & eats:*"),
+                any(Instant.class), any(Instant.class), isNull(), isNull(), eq(3), eq(0)))
+                .thenReturn(List.of(hit(eats, 0.9, "<mark>Uber</mark> <mark>Eats</mark>"),
+                        hit(uber, 0.4, "<mark>Uber</mark> trip")));
+
+        // Act
+        TransactionSearchResponse response = searchService.search(userId, "  Uber, Eats! ", null, null, null, null, 0, 2);
+
+        // Assert
+        assertEquals(2, response.getResults().size());
+        assertEquals(eats.getId(), response.getResults().get(0).getTransaction().getId());
+        assertEquals("<mark>Uber</mark> <mark>Eats</mark>", response.getResults().get(0).getHighlight());
+        assertEquals(uber.getId(), response.getResults().get(1).getTransaction().getId());
+        assertEquals("Uber trip", response.getResults().get(1).getTransaction().getDescription());
+        assertFalse(response.isHasNext());
+        // Строки страницы приходят из поискового запроса, без повторного чтения по id
+        verify(transactionRepository, never()).findAllById(any());
+    }
+
+    @Test
+    void search_ExtraRow_SetsHasNextAndIsDropped() {
+        // Arrange
+        Transaction first = transaction("Netflix");
+        Transaction second = transaction("Netflix family");
+        when(transactionRepository.search(eq(userId), anyString(), eq("netfl:*"), any(), any(), eq("Entertainment"),
+                eq("EXPENSE"), eq(2), eq(1)))
+                .thenReturn(List.of(hit(first, 0.5, null), hit(second, 0.3, null)));
+
+        // Act
+        TransactionSearchResponse response = searchService.search(userId, "netfl", null, null, "Entertainment",
+                "EXPENSE", 1, 1);
+
+        // Assert
+        assertTrue(response.isHasNext());
+        assertEquals(1, response.getResults().size());
+        assertEquals(first.getId(), response.getResults().get(0).getTransaction().getId());
+    }
+
+    @Test
+    void search_QueryWithoutTerms_ThrowsValidationException() {
+        // Act & Assert
+        assertThrows(ValidationException.class,
+                () -> searchService.search(userId, " &|!:* ", null, null, null, null, 0, 20));
+        verifyNoInteractions(transactionRepository);
+    }
+
+    @Test
+    void search_SizeOutOfRange_ThrowsValidationException() {
+        // Act & Assert
+        assertThrows(ValidationException.class,
+                () -> searchService.search(userId, "uber", null, null, null, null, 0, 101));
+        verifyNoInteractions(transactionRepository);
+    }
+
+    private Transaction transaction(String description) {
+        Transaction transaction = new Transaction();
+        transaction.setId(UUID.randomUUID());
+        transaction.setUserId(userId);
+        transaction.setAmount(new BigDecimal("12.50"));
+        transaction.setType("EXPENSE");
+        transaction.setCategory("Transport");
+        transaction.setDescription(description);
+        transaction.setDate(Instant.now());
+        return transaction;
+    }
+
+    private TransactionSearchHit hit(Transaction transaction, double rank, String highlight) {
+        return new TransactionSearchHit() {
+            @Override
+            public UUID getId() {
+                return transaction.getId();
+            }
+
+            @Override
+            public BigDecimal getAmount() {
+                return transaction.getAmount();
+            }
+
+            @Override
+            public String getType() {
+                return transaction.getType();
+            }
+
+            @Override
+            public String getCategory() {
+                return transaction.getCategory();
+            }
+
+            @Override
+            public String getDescription() {
+                return transaction.getDescription();
+            }
+
+            @Override
+            public Instant getDate() {
+                return transaction.getDate();
+            }
+
+            @Override
+            public Double getRank() {
+                return rank;
+            }
+
+            @Override
+            public String getHighlight() {
+                return highlight;
+            }
+        };
+    }
+}
@@ -1,15 +1,26 @@
 package com.miscroservice.transaction_service.service.impl.transaction;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.miscroservice.transaction_service.config.datasource.ReadYourWritesTracker;
 import com.miscroservice.transaction_service.model.dto.TransactionRequest;
 import com.miscroservice.transaction_service.model.entity.Transaction;
-import com.miscroservice.transaction_service.repository.CategoryRepository;
 import com.miscroservice.transaction_service.repository.TransactionRepository;
+import com.miscroservice.transaction_service.service.OutboxService;
+import com.miscroservice.transaction_service.service.StatsRollupService;
+import com.miscroservice.transaction_service.service.cache.SingleFlight;
+import com.miscroservice.transaction_service.service.cache.TwoTierCache;
+import com.miscroservice.transaction_service.service.category.CategoryRegistry;
 import com.miscroservice.transaction_service.service.impl.TransactionServiceImpl;
+import com.miscroservice.transaction_service.service.stats.StatsRefreshScheduler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.validation.BindingResult;
 
 import java.math.BigDecimal;
@@ -22,29 +33,47 @@ abstract class BaseTransactionTest {
 
     @Mock
     protected TransactionRepository transactionRepository;
-    @Mock protected CategoryRepository categoryRepository;
+    @Mock protected CategoryRegistry categoryRegistry;
+    @Mock protected StatsRollupService statsRollupService;
     @Mock protected RedisTemplate<String, Object> redisTemplate;
+    @Mock protected StringRedisTemplate stringRedisTemplate;
+    @Mock protected OutboxService outboxService;
     @Mock protected KafkaTemplate<String, String> feedbackKafkaTemplate;
-    @Mock protected KafkaTemplate<String, String> balanceKafkaTemplate;
+    @Mock protected ReadYourWritesTracker readYourWritesTracker;
+    @Mock protected StatsRefreshScheduler statsRefreshScheduler;
     @Mock protected BindingResult bindingResult;
+    @Mock protected PlatformTransactionManager transactionManager;
 
     protected TransactionServiceImpl transactionService;
+    protected TwoTierCache twoTierCache;
+    protected SingleFlight singleFlight;
     protected UUID userId;
     protected Transaction transaction;
     protected TransactionRequest transactionRequest;
 
     protected static final String TRANSACTIONS_CACHE_PREFIX = "transactions:user:";
     protected static final String STATS_CACHE_PREFIX = "stats:user:";
+    protected static final String CACHE_VERSION_PREFIX = "cache:version:user:";
+    protected static final String BALANCE_UPDATE_TOPIC = "balance-update-topic";
 
     @BeforeEach
     void baseSetUp() {
         MockitoAnnotations.openMocks(this);
+        // Настоящий L1 поверх замоканного Redis (L2)
+        twoTierCache = new TwoTierCache(redisTemplate, stringRedisTemplate, new ObjectMapper(), new SimpleMeterRegistry());
+        singleFlight = new SingleFlight(new SimpleMeterRegistry(), 1.0, 5_000);
         transactionService = new TransactionServiceImpl(
                 transactionRepository,
-                categoryRepository,
+                categoryRegistry,
+                statsRollupService,
                 redisTemplate,
+                twoTierCache,
+                outboxService,
                 feedbackKafkaTemplate,
-                balanceKafkaTemplate
+                readYourWritesTracker,
+                statsRefreshScheduler,
+                singleFlight,
+                new TransactionTemplate(transactionManager)
         );
         userId = UUID.randomUUID();
         transaction = new Transaction();
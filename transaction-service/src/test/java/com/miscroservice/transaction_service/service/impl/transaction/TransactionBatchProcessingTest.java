@@ -0,0 +1,215 @@
+package com.miscroservice.transaction_service.service.impl.transaction;
+
+import com.miscroservice.transaction_service.model.dto.TransactionItemDto;
+import com.miscroservice.transaction_service.model.entity.Transaction;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class TransactionBatchProcessingTest extends BaseTransactionTest {
+
+    private ValueOperations<String, Object> valueOps;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        when(categoryRegistry.contains("Salary")).thenReturn(true);
+        when(categoryRegistry.contains("Groceries")).thenReturn(true);
+
+        when(transactionRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Transaction> rows = invocation.getArgument(0);
+            rows.forEach(row -> row.setId(UUID.randomUUID()));
+            return rows;
+        });
+
+        valueOps = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(valueOps);
+
+        CompletableFuture<SendResult<String, String>> future = CompletableFuture.completedFuture(mock(SendResult.class));
+        when(feedbackKafkaTemplate.send(any(ProducerRecord.class))).thenReturn(future);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void processTransactionBatch_SavesOnceAndQueuesEventsInOutbox() {
+        // Arrange: две позиции одного пользователя и одна — другого
+        UUID otherUser = UUID.randomUUID();
+        List<TransactionItemDto> items = List.of(
+                item(userId, "Salary", "INCOME"),
+                item(userId, "Groceries", "EXPENSE"),
+                item(otherUser, "Groceries", "EXPENSE"));
+
+        // Act
+        transactionService.processTransactionBatch(items);
+
+        // Assert
+        verify(categoryRegistry, times(3)).contains(anyString()); // Поиск по снимку, без запросов к БД
+        ArgumentCaptor<List<Transaction>> saved = ArgumentCaptor.forClass(List.class);
+        verify(transactionRepository, times(1)).saveAll(saved.capture());
+        assertEquals(3, saved.getValue().size());
+        verify(transactionRepository, never()).save(any());
+        verify(statsRollupService).recordCreatedAll(anyList());
+
+        verify(outboxService, times(3)).enqueue(eq(BALANCE_UPDATE_TOPIC), anyString(), contains("\"operation\":\"CREATE\""));
+        verify(valueOps, never()).get(anyString()); // Нет проверки event:sent: на каждое событие
+
+        verify(feedbackKafkaTemplate, times(3)).send(argThat((ProducerRecord<String, String> record) ->
+                record.value().contains("SUCCESS")));
+
+        // Кэш каждого пользователя инвалидируется один раз
+        verify(valueOps, times(1)).increment(CACHE_VERSION_PREFIX + userId);
+        verify(valueOps, times(1)).increment(CACHE_VERSION_PREFIX + otherUser);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void processTransactionBatch_InvalidItems_GetFailureFeedbackAndAreSkipped() {
+        // Arrange
+        List<TransactionItemDto> items = List.of(
+                item(userId, "Salary", "INCOME"),
+                item(userId, "InvalidCategory", "EXPENSE"),
+                item(userId, "Salary", "REFUND"));
+
+        // Act
+        transactionService.processTransactionBatch(items);
+
+        // Assert
+        ArgumentCaptor<List<Transaction>> saved = ArgumentCaptor.forClass(List.class);
+        verify(transactionRepository).saveAll(saved.capture());
+        assertEquals(1, saved.getValue().size());
+
+        ArgumentCaptor<ProducerRecord<String, String>> feedback = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(feedbackKafkaTemplate, times(3)).send(feedback.capture());
+        List<String> payloads = feedback.getAllValues().stream().map(ProducerRecord::value).toList();
+        assertEquals(2, payloads.stream().filter(p -> p.contains("FAILED")).count());
+        assertTrue(payloads.stream().anyMatch(p -> p.contains("Category 'InvalidCategory' does not exist")));
+        verify(outboxService, times(1)).enqueue(anyString(), anyString(), anyString());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void processTransactionBatch_ItemsBreakingColumnLimits_AreRejectedBeforeSave() {
+        // Arrange: способ оплаты длиннее VARCHAR(50) и сумма, не влезающая в DECIMAL(15, 2)
+        TransactionItemDto longPaymentMethod = item(userId, "Salary", "INCOME");
+        longPaymentMethod.setPaymentMethod("x".repeat(51));
+        TransactionItemDto hugeAmount = item(userId, "Salary", "INCOME");
+        hugeAmount.setPrice(new BigDecimal("10000000000000.00"));
+
+        // Act
+        transactionService.processTransactionBatch(List.of(item(userId, "Groceries", "EXPENSE"), longPaymentMethod, hugeAmount));
+
+        // Assert
+        ArgumentCaptor<List<Transaction>> saved = ArgumentCaptor.forClass(List.class);
+        verify(transactionRepository).saveAll(saved.capture());
+        assertEquals(1, saved.getValue().size());
+        verify(feedbackKafkaTemplate, times(2)).send(argThat((ProducerRecord<String, String> record) ->
+                record.value().contains("FAILED")));
+    }
+
+    @Test
+    void consumeTransactionBatch_SaveFails_SavesOneByOneAndReportsFailedIndex() {
+        // Arrange: строку с суммой 66.60 БД не принимает
+        TransactionItemDto poisoned = item(userId, "Salary", "INCOME");
+        poisoned.setPrice(new BigDecimal("66.60"));
+        when(transactionRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Transaction> rows = invocation.getArgument(0);
+            if (rows.stream().anyMatch(row -> row.getAmount().compareTo(new BigDecimal("66.60")) == 0)) {
+                throw new IllegalStateException("value violates constraint");
+            }
+            rows.forEach(row -> row.setId(UUID.randomUUID()));
+            return rows;
+        });
+
+        // Act
+        BatchListenerFailedException failure = assertThrows(BatchListenerFailedException.class, () ->
+                transactionService.consumeTransactionBatch(List.of(
+                        item(userId, "Salary", "INCOME"), poisoned, item(userId, "Groceries", "EXPENSE"))));
+
+        // Assert: пачка, затем первая позиция (успешно) и упавшая; третья придёт повторной доставкой
+        assertEquals(1, failure.getIndex());
+        verify(transactionRepository, times(3)).saveAll(anyList());
+        verify(feedbackKafkaTemplate, times(1)).send(any(ProducerRecord.class));
+    }
+
+    @Test
+    void processTransactionBatch_AllInvalid_DoesNotTouchDatabaseOrCache() {
+        // Act
+        transactionService.processTransactionBatch(List.of(item(null, "Salary", "INCOME")));
+
+        // Assert
+        verify(transactionRepository, never()).saveAll(anyList());
+        verifyNoInteractions(outboxService);
+        verify(valueOps, never()).increment(anyString());
+    }
+
+    @Test
+    void processTransactionBatch_InTransaction_SendsFeedbackOnlyAfterCommit() {
+        // Arrange
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // Act
+            transactionService.processTransactionBatch(List.of(item(userId, "Salary", "INCOME")));
+
+            // Assert: до коммита документ ничего не получил
+            verify(feedbackKafkaTemplate, never()).send(any(ProducerRecord.class));
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            verify(feedbackKafkaTemplate, times(1)).send(any(ProducerRecord.class));
+            verify(feedbackKafkaTemplate).flush();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void processTransactionBatch_SaveFails_RethrowsWithoutFeedback() {
+        // Arrange
+        when(transactionRepository.saveAll(anyList())).thenThrow(new IllegalStateException("connection reset"));
+
+        // Act & Assert: повтор и DLQ — забота обработчика ошибок контейнера
+        assertThrows(IllegalStateException.class, () -> transactionService.processTransactionBatch(
+                List.of(item(userId, "Salary", "INCOME"), item(userId, "InvalidCategory", "EXPENSE"))));
+        verify(feedbackKafkaTemplate, never()).send(any(ProducerRecord.class));
+        verifyNoInteractions(outboxService);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void reportTransactionItemFailed_SendsFailedFeedback() {
+        // Act
+        transactionService.reportTransactionItemFailed(item(userId, "Salary", "INCOME"), "connection reset");
+
+        // Assert
+        verify(feedbackKafkaTemplate).send(argThat((ProducerRecord<String, String> record) ->
+                record.value().contains("FAILED") && record.value().contains("connection reset")));
+    }
+
+    private TransactionItemDto item(UUID owner, String category, String type) {
+        TransactionItemDto item = new TransactionItemDto();
+        item.setUserId(owner);
+        item.setDocumentId(UUID.randomUUID());
+        item.setName("Receipt line");
+        item.setCategory(category);
+        item.setType(type);
+        item.setPrice(new BigDecimal("12.50"));
+        item.setDate(Instant.now());
+        return item;
+    }
+}
@@ -0,0 +1,199 @@
+package com.miscroservice.transaction_service.service.impl.transaction;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.miscroservice.transaction_service.exception.ValidationException;
+import com.miscroservice.transaction_service.model.dto.BulkOperation;
+import com.miscroservice.transaction_service.model.dto.BulkTransactionResponse;
+import com.miscroservice.transaction_service.model.dto.TransactionRequest;
+import com.miscroservice.transaction_service.model.entity.Transaction;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class TransactionBulkTest extends BaseTransactionTest {
+
+    private ValueOperations<String, Object> valueOps;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        when(categoryRegistry.contains("Salary")).thenReturn(true);
+        when(categoryRegistry.contains("Groceries")).thenReturn(true);
+
+        when(transactionRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Transaction> rows = invocation.getArgument(0);
+            rows.stream().filter(row -> row.getId() == null).forEach(row -> row.setId(UUID.randomUUID()));
+            return rows;
+        });
+
+        valueOps = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(valueOps);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void applyBulk_MixedOperations_PersistsOnceAndPublishesEventPerTransaction() {
+        // Arrange: существующая транзакция INCOME 100.00 обновляется до 150.00, вторая (EXPENSE 40.00) удаляется
+        Transaction expense = new Transaction();
+        expense.setId(UUID.randomUUID());
+        expense.setUserId(userId);
+        expense.setAmount(new BigDecimal("40.00"));
+        expense.setType("EXPENSE");
+        expense.setCategory("Groceries");
+        expense.setDate(Instant.now());
+        when(transactionRepository.findAllById(anySet())).thenReturn(List.of(transaction, expense));
+
+        List<BulkOperation> operations = List.of(
+                create("25.00", "EXPENSE", "Groceries"),
+                update(transaction.getId(), "150.00", "INCOME", "Salary"),
+                delete(expense.getId()));
+
+        // Act
+        BulkTransactionResponse response = transactionService.applyBulk(operations, userId);
+
+        // Assert
+        assertEquals(3, response.getApplied());
+        assertEquals(0, response.getRejected());
+        assertEquals(List.of("CREATED", "UPDATED", "DELETED"),
+                response.getResults().stream().map(r -> r.getStatus()).toList());
+        assertNotNull(response.getResults().get(0).getId());
+
+        ArgumentCaptor<List<Transaction>> saved = ArgumentCaptor.forClass(List.class);
+        verify(transactionRepository, times(1)).saveAll(saved.capture());
+        assertEquals(2, saved.getValue().size());
+        verify(transactionRepository).deleteAllInBatch(List.of(expense));
+        verify(transactionRepository, never()).save(any());
+        verify(statsRollupService).recordCreatedAll(anyList());
+        verify(statsRollupService).recordDeletedAll(argThat(rows -> rows.size() == 2));
+
+        // По событию на строку в порядке операций, с id реальных транзакций
+        ArgumentCaptor<String> payloads = ArgumentCaptor.forClass(String.class);
+        verify(outboxService, times(3)).enqueue(eq(BALANCE_UPDATE_TOPIC), eq(userId.toString()), payloads.capture());
+        List<JsonNode> events = payloads.getAllValues().stream().map(this::readJson).toList();
+        assertEquals(List.of("CREATE", "UPDATE", "DELETE"), events.stream().map(e -> e.get("operation").asText()).toList());
+        assertEquals(response.getResults().get(0).getId().toString(), events.get(0).get("transactionId").asText());
+        assertEquals(0, new BigDecimal("25.00").compareTo(events.get(0).get("amount").decimalValue()));
+        assertEquals(transaction.getId().toString(), events.get(1).get("transactionId").asText());
+        assertEquals(0, new BigDecimal("150.00").compareTo(events.get(1).get("amount").decimalValue()));
+        assertEquals(0, new BigDecimal("100.00").compareTo(events.get(1).get("oldAmount").decimalValue()));
+        assertEquals(expense.getId().toString(), events.get(2).get("transactionId").asText());
+        assertEquals(3, events.stream().map(e -> e.get("eventId").asText()).distinct().count());
+        verify(valueOps, times(1)).increment(CACHE_VERSION_PREFIX + userId);
+    }
+
+    @Test
+    void applyBulk_InvalidItems_AreRejectedIndividually() {
+        // Arrange
+        Transaction foreign = new Transaction();
+        foreign.setId(UUID.randomUUID());
+        foreign.setUserId(UUID.randomUUID());
+        foreign.setAmount(BigDecimal.TEN);
+        foreign.setType("INCOME");
+        foreign.setCategory("Salary");
+        foreign.setDate(Instant.now());
+        when(transactionRepository.findAllById(anySet())).thenReturn(List.of(foreign, transaction));
+
+        BulkOperation badDate = create("10.00", "INCOME", "Salary");
+        badDate.getTransaction().setDate("yesterday");
+        List<BulkOperation> operations = List.of(
+                create("10.00", "INCOME", "Salary"),
+                create("10.00", "INCOME", "Unknown"),
+                badDate,
+                delete(foreign.getId()),
+                delete(UUID.randomUUID()),
+                delete(transaction.getId()),
+                update(transaction.getId(), "1.00", "INCOME", "Salary"));
+
+        // Act
+        BulkTransactionResponse response = transactionService.applyBulk(operations, userId);
+
+        // Assert
+        assertEquals(2, response.getApplied());
+        assertEquals(5, response.getRejected());
+        assertEquals(List.of("CREATED", "REJECTED", "REJECTED", "REJECTED", "REJECTED", "DELETED", "REJECTED"),
+                response.getResults().stream().map(r -> r.getStatus()).toList());
+        assertEquals("Category 'Unknown' does not exist", response.getResults().get(1).getError());
+        assertEquals("You can only modify your own transactions", response.getResults().get(3).getError());
+        assertEquals("Transaction not found", response.getResults().get(4).getError());
+        verify(transactionRepository).deleteAllInBatch(List.of(transaction));
+    }
+
+    @Test
+    void applyBulk_NetDeltaZero_StillRecordsEachTransaction() {
+        // Arrange: доход и расход на одинаковую сумму взаимно гасятся, но в журнале баланса нужны обе строки
+        List<BulkOperation> operations = List.of(
+                create("30.00", "INCOME", "Salary"),
+                create("30.00", "EXPENSE", "Groceries"));
+
+        // Act
+        BulkTransactionResponse response = transactionService.applyBulk(operations, userId);
+
+        // Assert
+        assertEquals(2, response.getApplied());
+        verify(transactionRepository, never()).findAllById(any());
+        verify(outboxService, times(2)).enqueue(eq(BALANCE_UPDATE_TOPIC), eq(userId.toString()), anyString());
+        verify(valueOps, times(1)).increment(CACHE_VERSION_PREFIX + userId);
+    }
+
+    @Test
+    void applyBulk_TooManyOperations_ThrowsValidationException() {
+        List<BulkOperation> operations = new ArrayList<>(Collections.nCopies(5_001, create("1.00", "INCOME", "Salary")));
+
+        assertThrows(ValidationException.class, () -> transactionService.applyBulk(operations, userId));
+        verifyNoInteractions(transactionRepository);
+    }
+
+    private JsonNode readJson(String json) {
+        try {
+            return new ObjectMapper().readTree(json);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private BulkOperation create(String amount, String type, String category) {
+        BulkOperation operation = new BulkOperation();
+        operation.setOp("CREATE");
+        operation.setTransaction(request(amount, type, category));
+        return operation;
+    }
+
+    private BulkOperation update(UUID id, String amount, String type, String category) {
+        BulkOperation operation = new BulkOperation();
+        operation.setOp("UPDATE");
+        operation.setId(id);
+        operation.setTransaction(request(amount, type, category));
+        return operation;
+    }
+
+    private BulkOperation delete(UUID id) {
+        BulkOperation operation = new BulkOperation();
+        operation.setOp("DELETE");
+        operation.setId(id);
+        return operation;
+    }
+
+    private TransactionRequest request(String amount, String type, String category) {
+        TransactionRequest request = new TransactionRequest();
+        request.setAmount(new BigDecimal(amount));
+        request.setType(type);
+        request.setCategory(category);
+        request.setDescription("bulk item");
+        request.setDate(Instant.now().toString());
+        return request;
+    }
+}
@@ -1,25 +1,33 @@
 package com.miscroservice.transaction_service.service.impl.transaction;
 
+import com.miscroservice.transaction_service.model.entity.Transaction;
 import com.miscroservice.transaction_service.service.impl.TransactionServiceImpl;
 import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.redis.core.ValueOperations;
 
 import java.lang.reflect.Method;
-import java.util.Collections;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.fail;
-import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
 public class TransactionCacheTest extends BaseTransactionTest {
 
     @Test
-    void invalidateCache_NoKeysToDelete() {
+    void invalidateCache_BumpsVersionWithoutScanningKeys() {
         // Arrange
-        when(redisTemplate.keys(TRANSACTIONS_CACHE_PREFIX + userId + "*")).thenReturn(Collections.emptySet());
-        when(redisTemplate.keys(STATS_CACHE_PREFIX + userId + "*")).thenReturn(Collections.emptySet());
+        @SuppressWarnings("unchecked")
+        ValueOperations<String, Object> valueOps = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(valueOps);
+        when(valueOps.increment(CACHE_VERSION_PREFIX + userId)).thenReturn(2L);
 
-        // Используем рефлексию для вызова private метода или создаем вспомогательный метод
+        // Используем рефлексию для вызова private метода
         try {
             Method invalidateCacheMethod = TransactionServiceImpl.class.getDeclaredMethod("invalidateCache", UUID.class);
             invalidateCacheMethod.setAccessible(true);
@@ -29,18 +37,19 @@ public class TransactionCacheTest extends BaseTransactionTest {
         }
 
         // Assert
-        verify(redisTemplate).keys(TRANSACTIONS_CACHE_PREFIX + userId + "*");
-        verify(redisTemplate).keys(STATS_CACHE_PREFIX + userId + "*");
+        verify(valueOps).increment(CACHE_VERSION_PREFIX + userId);
+        verify(stringRedisTemplate).convertAndSend(anyString(), eq("versions|" + CACHE_VERSION_PREFIX + userId));
+        verify(redisTemplate, never()).keys(anyString());
         verify(redisTemplate, never()).delete(anyCollection());
     }
 
     @Test
     void invalidateCache_RedisFailure_ContinuesExecution() throws Exception {
         // Arrange
-        when(redisTemplate.keys(TRANSACTIONS_CACHE_PREFIX + userId + "*"))
-                .thenThrow(new RuntimeException("Redis unavailable"));
-        when(redisTemplate.keys(STATS_CACHE_PREFIX + userId + "*"))
-                .thenReturn(Collections.emptySet());
+        @SuppressWarnings("unchecked")
+        ValueOperations<String, Object> valueOps = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(valueOps);
+        when(valueOps.increment(anyString())).thenThrow(new RuntimeException("Redis unavailable"));
 
         // Act
         Method method = TransactionServiceImpl.class.getDeclaredMethod("invalidateCache", UUID.class);
@@ -48,25 +57,64 @@ public class TransactionCacheTest extends BaseTransactionTest {
         method.invoke(transactionService, userId);
 
         // Assert
-        verify(redisTemplate).keys(TRANSACTIONS_CACHE_PREFIX + userId + "*");
-        verify(redisTemplate).keys(STATS_CACHE_PREFIX + userId + "*");
-        verify(redisTemplate, never()).delete(anyCollection());
+        verify(valueOps).increment(CACHE_VERSION_PREFIX + userId);
+        verify(redisTemplate, never()).keys(anyString());
     }
 
     @Test
-    void invalidateCache_RedisFailureForBoth_ContinuesExecution() throws Exception {
+    void getTransactions_CacheKeyEmbedsCurrentVersion() {
         // Arrange
-        when(redisTemplate.keys(anyString())).thenThrow(new RuntimeException("Redis unavailable"));
+        Pageable pageable = PageRequest.of(0, 10);
+        when(transactionRepository.findByFilters(userId, null, null, null, null, pageable))
+                .thenReturn(new PageImpl<Transaction>(List.of(transaction)));
+
+        @SuppressWarnings("unchecked")
+        ValueOperations<String, Object> valueOps = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(valueOps);
+        when(valueOps.get(CACHE_VERSION_PREFIX + userId)).thenReturn(7);
 
         // Act
-        Method method = TransactionServiceImpl.class.getDeclaredMethod("invalidateCache", UUID.class);
-        method.setAccessible(true);
-        method.invoke(transactionService, userId);
+        transactionService.getTransactions(userId, null, null, null, null, pageable);
 
         // Assert
-        verify(redisTemplate).keys(TRANSACTIONS_CACHE_PREFIX + userId + "*");
-        verify(redisTemplate).keys(STATS_CACHE_PREFIX + userId + "*");
-        verify(redisTemplate, never()).delete(anyCollection());
+        verify(valueOps).set(startsWith(TRANSACTIONS_CACHE_PREFIX + userId + ":v7:"), any(), eq(10L), eq(TimeUnit.MINUTES));
     }
 
+    @Test
+    void getStats_MissingVersion_UsesGenerationZero() {
+        // Arrange
+        @SuppressWarnings("unchecked")
+        ValueOperations<String, Object> valueOps = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(valueOps);
+        when(valueOps.get(CACHE_VERSION_PREFIX + userId)).thenReturn(null);
+        when(statsRollupService.getAggregates(userId, null, null)).thenReturn(List.of());
+
+        // Act
+        transactionService.getStats(userId, null, null);
+
+        // Assert
+        verify(valueOps).get(STATS_CACHE_PREFIX + userId + ":v0:null:null");
+        verify(valueOps).set(eq(STATS_CACHE_PREFIX + userId + ":v0:null:null"), any(), eq(10L), eq(TimeUnit.MINUTES));
+    }
+
+    @Test
+    void getTransactions_WarmRead_ServedFromL1WithoutRedis() {
+        // Arrange
+        Pageable pageable = PageRequest.of(0, 10);
+        when(transactionRepository.findByFilters(userId, null, null, null, null, pageable))
+                .thenReturn(new PageImpl<Transaction>(List.of(transaction)));
+
+        @SuppressWarnings("unchecked")
+        ValueOperations<String, Object> valueOps = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(valueOps);
+        when(valueOps.get(anyString())).thenReturn(null);
+
+        // Act
+        transactionService.getTransactions(userId, null, null, null, null, pageable);
+        transactionService.getTransactions(userId, null, null, null, null, pageable);
+
+        // Assert: версия и страница берутся из L1 при повторном чтении
+        verify(valueOps, times(2)).get(anyString());
+        verify(transactionRepository, times(1)).findByFilters(userId, null, null, null, null, pageable);
+    }
 }
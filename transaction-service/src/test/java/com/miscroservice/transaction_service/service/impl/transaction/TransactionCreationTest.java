@@ -2,19 +2,13 @@ package com.miscroservice.transaction_service.service.impl.transaction;
 
 import com.miscroservice.transaction_service.exception.ValidationException;
 import com.miscroservice.transaction_service.model.dto.TransactionResponse;
-import com.miscroservice.transaction_service.model.entity.Category;
 import com.miscroservice.transaction_service.model.entity.Transaction;
-import org.apache.kafka.clients.producer.ProducerRecord;
 import org.junit.jupiter.api.Test;
 import org.springframework.data.redis.core.ValueOperations;
-import org.springframework.kafka.support.SendResult;
 import org.springframework.validation.FieldError;
 
 import java.time.format.DateTimeParseException;
 import java.util.List;
-import java.util.Optional;
-import java.util.Set;
-import java.util.concurrent.CompletableFuture;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -25,63 +19,59 @@ public class TransactionCreationTest extends BaseTransactionTest {
     @Test
     void createTransaction_Success() {
         // Existing mocks
-        when(categoryRepository.findByName("Salary")).thenReturn(Optional.of(new Category()));
+        when(categoryRegistry.contains("Salary")).thenReturn(true);
         when(transactionRepository.save(any(Transaction.class))).thenReturn(transaction);
-        when(redisTemplate.keys(anyString())).thenReturn(Set.of("mockedKey"));
 
         @SuppressWarnings("unchecked")
         ValueOperations<String, Object> valueOps = mock(ValueOperations.class);
         when(redisTemplate.opsForValue()).thenReturn(valueOps);
-        when(valueOps.get(anyString())).thenReturn(null);
-
-        CompletableFuture<SendResult<String, String>> future = CompletableFuture.completedFuture(mock(SendResult.class));
-        when(balanceKafkaTemplate.send(any(ProducerRecord.class))).thenReturn(future);
 
         TransactionResponse response = transactionService.createTransaction(transactionRequest, userId, bindingResult);
 
         assertNotNull(response);
         assertEquals(transaction.getId(), response.getId());
         assertEquals(transaction.getAmount(), response.getAmount());
-        verify(categoryRepository).findByName("Salary");
+        verify(categoryRegistry).contains("Salary");
         verify(transactionRepository).save(any(Transaction.class));
-        verify(balanceKafkaTemplate).send(any(ProducerRecord.class));
-        verify(redisTemplate).keys(TRANSACTIONS_CACHE_PREFIX + userId + "*");
-        verify(redisTemplate).keys(STATS_CACHE_PREFIX + userId + "*");
-        verify(redisTemplate).delete(anyCollection());
+        verify(statsRollupService).recordCreated(userId, transaction.getDate(), "Salary", "INCOME", transaction.getAmount());
+        verify(outboxService).enqueue(eq(BALANCE_UPDATE_TOPIC), eq(userId.toString()), contains("\"operation\":\"CREATE\""));
+        verify(valueOps).increment(CACHE_VERSION_PREFIX + userId);
+        verify(redisTemplate, never()).keys(anyString());
     }
 
     @Test
     void createTransaction_InvalidCategory_ThrowsIllegalArgumentException() {
-        when(categoryRepository.findByName("InvalidCategory")).thenReturn(Optional.empty());
+        when(categoryRegistry.contains("InvalidCategory")).thenReturn(false);
         transactionRequest.setCategory("InvalidCategory");
 
         IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
                 () -> transactionService.createTransaction(transactionRequest, userId, bindingResult));
         assertEquals("Category 'InvalidCategory' does not exist", exception.getMessage());
-        verify(categoryRepository).findByName("InvalidCategory");
+        verify(categoryRegistry).contains("InvalidCategory");
         verify(transactionRepository, never()).save(any());
+        verifyNoInteractions(statsRollupService);
     }
 
     @Test
     void createTransaction_InvalidType_ThrowsIllegalArgumentException() {
-        when(categoryRepository.findByName("Salary")).thenReturn(Optional.of(new Category()));
+        when(categoryRegistry.contains("Salary")).thenReturn(true);
         transactionRequest.setType("INVALID_TYPE");
 
         IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
                 () -> transactionService.createTransaction(transactionRequest, userId, bindingResult));
         assertEquals("Type must be either 'INCOME' or 'EXPENSE'", exception.getMessage());
-        verify(categoryRepository).findByName("Salary");
+        verify(categoryRegistry).contains("Salary");
         verify(transactionRepository, never()).save(any());
     }
 
     @Test
     void createTransaction_InvalidDateFormat_ThrowsException() {
-        when(categoryRepository.findByName("Salary")).thenReturn(Optional.of(new Category()));
+        when(categoryRegistry.contains("Salary")).thenReturn(true);
         transactionRequest.setDate("invalid-date-format"); // Некорректный формат
 
         assertThrows(DateTimeParseException.class,
                 () -> transactionService.createTransaction(transactionRequest, userId, bindingResult));
-        verify(categoryRepository).findByName("Salary");
+        verify(categoryRegistry).contains("Salary");
         verify(transactionRepository, never()).save(any());
     }
 
@@ -99,6 +89,6 @@ public class TransactionCreationTest extends BaseTransactionTest {
         assertTrue(exception.getMessage().contains("amount: Amount cannot be null"));
         assertTrue(exception.getMessage().contains("type: Type cannot be blank"));
         verify(transactionRepository, never()).save(any());
-        verify(categoryRepository, never()).findByName(anyString());
+        verify(categoryRegistry, never()).contains(anyString());
     }
 }
\ No newline at end of file
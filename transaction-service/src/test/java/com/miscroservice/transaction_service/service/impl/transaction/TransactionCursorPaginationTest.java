@@ -0,0 +1,107 @@
+package com.miscroservice.transaction_service.service.impl.transaction;
+
+import com.miscroservice.transaction_service.exception.ValidationException;
+import com.miscroservice.transaction_service.model.dto.TransactionCursorPage;
+import com.miscroservice.transaction_service.model.entity.Transaction;
+import com.miscroservice.transaction_service.service.pagination.TransactionCursor;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+public class TransactionCursorPaginationTest extends BaseTransactionTest {
+
+    @Test
+    void getTransactionsAfter_FirstPage_ReturnsCursorOfLastRow() {
+        // Arrange: size + 1 строк означает, что есть следующая страница
+        List<Transaction> rows = transactions(3);
+        when(transactionRepository.findFirstByFilters(userId, null, null, null, null, 3))
+                .thenReturn(rows);
+
+        // Act
+        TransactionCursorPage page = transactionService.getTransactionsAfter(userId, null, null, null, null, null, 2, false);
+
+        // Assert
+        assertEquals(2, page.getContent().size());
+        assertTrue(page.isHasNext());
+        TransactionCursor cursor = TransactionCursor.decode(page.getNextCursor());
+        assertEquals(rows.get(1).getDate(), cursor.date());
+        assertEquals(rows.get(1).getId(), cursor.id());
+        assertNull(page.getTotalElements());
+        verify(transactionRepository, never()).countByFilters(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void getTransactionsAfter_WithCursor_SeeksAfterPosition() {
+        // Arrange
+        Instant date = Instant.parse("2024-03-01T10:00:00Z");
+        UUID id = UUID.randomUUID();
+        String token = new TransactionCursor(date, id).encode();
+        when(transactionRepository.findNextByFilters(userId, null, null, "Salary", null, date, id, 11))
+                .thenReturn(transactions(1));
+
+        // Act
+        TransactionCursorPage page = transactionService.getTransactionsAfter(userId, null, null, "Salary", null, token, 10, false);
+
+        // Assert
+        assertEquals(1, page.getContent().size());
+        assertFalse(page.isHasNext());
+        assertNull(page.getNextCursor());
+        verify(transactionRepository, never()).findFirstByFilters(any(), any(), any(), any(), any(), anyInt());
+    }
+
+    @Test
+    void getTransactionsAfter_IncludeTotal_RunsCount() {
+        // Arrange
+        when(transactionRepository.findFirstByFilters(userId, null, null, null, null, 11))
+                .thenReturn(transactions(1));
+        when(transactionRepository.countByFilters(userId, null, null, null, null)).thenReturn(1L);
+
+        // Act
+        TransactionCursorPage page = transactionService.getTransactionsAfter(userId, null, null, null, null, null, 10, true);
+
+        // Assert
+        assertEquals(1L, page.getTotalElements());
+    }
+
+    @Test
+    void getTransactionsAfter_InvalidCursor_ThrowsValidationException() {
+        ValidationException ex = assertThrows(ValidationException.class, () ->
+                transactionService.getTransactionsAfter(userId, null, null, null, null, "not-a-cursor", 10, false));
+
+        assertEquals("Invalid cursor", ex.getMessage());
+        verifyNoInteractions(transactionRepository);
+    }
+
+    @Test
+    void getTransactionsAfter_SizeOutOfRange_ThrowsValidationException() {
+        assertThrows(ValidationException.class, () ->
+                transactionService.getTransactionsAfter(userId, null, null, null, null, null, 0, false));
+        assertThrows(ValidationException.class, () ->
+                transactionService.getTransactionsAfter(userId, null, null, null, null, null, 501, false));
+    }
+
+    private List<Transaction> transactions(int count) {
+        List<Transaction> rows = new ArrayList<>();
+        Instant date = Instant.parse("2024-03-10T12:00:00Z");
+        for (int i = 0; i < count; i++) {
+            Transaction row = new Transaction();
+            row.setId(UUID.randomUUID());
+            row.setUserId(userId);
+            row.setAmount(new BigDecimal("10.00"));
+            row.setType("EXPENSE");
+            row.setCategory("Groceries");
+            row.setDate(date.minusSeconds(3600L * i));
+            rows.add(row);
+        }
+        return rows;
+    }
+}
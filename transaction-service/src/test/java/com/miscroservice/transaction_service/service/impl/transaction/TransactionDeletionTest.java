@@ -2,15 +2,11 @@ package com.miscroservice.transaction_service.service.impl.transaction;
 
 import com.miscroservice.transaction_service.exception.AccessDeniedException;
 import com.miscroservice.transaction_service.exception.TransactionNotFoundException;
-import org.apache.kafka.clients.producer.ProducerRecord;
 import org.junit.jupiter.api.Test;
 import org.springframework.data.redis.core.ValueOperations;
-import org.springframework.kafka.support.SendResult;
 
 import java.util.Optional;
-import java.util.Set;
 import java.util.UUID;
-import java.util.concurrent.CompletableFuture;
 
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
@@ -22,18 +18,11 @@ public class TransactionDeletionTest extends BaseTransactionTest{
     void deleteTransaction_Success() {
         // Arrange
         when(transactionRepository.findById(transaction.getId())).thenReturn(Optional.of(transaction));
-        when(redisTemplate.keys(anyString())).thenReturn(Set.of("mockedKey"));
 
         // Mock redisTemplate.opsForValue()
         @SuppressWarnings("unchecked")
         ValueOperations<String, Object> valueOps = mock(ValueOperations.class);
         when(redisTemplate.opsForValue()).thenReturn(valueOps);
-        when(valueOps.get(anyString())).thenReturn(null); // Event not processed yet
-        doNothing().when(valueOps).set(anyString(), any(), anyLong(), any());
-
-        // Mock KafkaTemplate.send to return a CompletableFuture
-        CompletableFuture<SendResult<String, String>> future = CompletableFuture.completedFuture(mock(SendResult.class));
-        when(balanceKafkaTemplate.send(any(ProducerRecord.class))).thenReturn(future);
 
         // Act
         transactionService.deleteTransaction(transaction.getId(), userId);
@@ -41,12 +30,11 @@ public class TransactionDeletionTest extends BaseTransactionTest{
         // Assert
         verify(transactionRepository).findById(transaction.getId());
         verify(transactionRepository).delete(transaction);
-        verify(balanceKafkaTemplate).send(any(ProducerRecord.class));
-        verify(redisTemplate).keys(TRANSACTIONS_CACHE_PREFIX + userId + "*");
-        verify(redisTemplate).keys(STATS_CACHE_PREFIX + userId + "*");
-        verify(redisTemplate).delete(anyCollection());
-        verify(valueOps).get(anyString());
-        verify(valueOps).set(anyString(), eq("true"), anyLong(), any());
+        verify(statsRollupService).recordDeleted(userId, transaction.getDate(), "Salary", "INCOME", transaction.getAmount());
+        verify(outboxService).enqueue(eq(BALANCE_UPDATE_TOPIC), eq(userId.toString()), contains("\"operation\":\"DELETE\""));
+        verify(valueOps).increment(CACHE_VERSION_PREFIX + userId);
+        verify(redisTemplate, never()).keys(anyString());
+        verify(valueOps, never()).get(anyString()); // Redis больше не участвует в отправке событий
     }
 
     @Test
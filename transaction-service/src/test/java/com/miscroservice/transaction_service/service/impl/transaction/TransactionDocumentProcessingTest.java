@@ -1,7 +1,6 @@
 package com.miscroservice.transaction_service.service.impl.transaction;
 
 import com.miscroservice.transaction_service.model.dto.TransactionItemDto;
-import com.miscroservice.transaction_service.model.entity.Category;
 import com.miscroservice.transaction_service.model.entity.Transaction;
 import org.apache.kafka.clients.producer.ProducerRecord;
 import org.junit.jupiter.api.Test;
@@ -10,18 +9,17 @@ import org.mockito.MockedStatic;
 import org.shared.utils.KafkaUtils;
 import org.springframework.data.redis.core.ValueOperations;
 import org.springframework.kafka.support.SendResult;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.math.BigDecimal;
 import java.time.Instant;
-import java.util.Optional;
-import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
@@ -41,27 +39,23 @@ public class TransactionDocumentProcessingTest extends BaseTransactionTest{
         item.setPaymentMethod("Card");
         UUID documentId = UUID.randomUUID();
 
-        when(categoryRepository.findByName("Salary")).thenReturn(Optional.of(new Category()));
+        when(categoryRegistry.contains("Salary")).thenReturn(true);
         when(transactionRepository.save(any(Transaction.class))).thenReturn(transaction);
-        when(redisTemplate.keys(anyString())).thenReturn(Set.of("mockedKey"));
 
         // Mock redisTemplate.opsForValue()
         @SuppressWarnings("unchecked")
         ValueOperations<String, Object> valueOps = mock(ValueOperations.class);
         when(redisTemplate.opsForValue()).thenReturn(valueOps);
-        when(valueOps.get(anyString())).thenReturn(null); // Event not processed yet
-        doNothing().when(valueOps).set(anyString(), any(), anyLong(), any());
 
-        // Mock KafkaTemplate.send for both feedback and balance updates
+        // Mock KafkaTemplate.send for feedback
         CompletableFuture<SendResult<String, String>> future = CompletableFuture.completedFuture(mock(SendResult.class));
         when(feedbackKafkaTemplate.send(any(ProducerRecord.class))).thenReturn(future);
-        when(balanceKafkaTemplate.send(any(ProducerRecord.class))).thenReturn(future);
 
         // Act
         transactionService.processTransactionFromDocument(item, userId, documentId);
 
         // Assert
-        verify(categoryRepository).findByName("Salary");
+        verify(categoryRegistry).contains("Salary");
         verify(transactionRepository).save(any(Transaction.class));
 
         ArgumentCaptor<ProducerRecord<String, String>> captor = ArgumentCaptor.forClass(ProducerRecord.class);
@@ -72,17 +66,15 @@ public class TransactionDocumentProcessingTest extends BaseTransactionTest{
         assertTrue(sentRecord.value().contains("SUCCESS"));
         assertTrue(sentRecord.value().contains("Test Transaction"));
 
-        verify(balanceKafkaTemplate).send(any(ProducerRecord.class));
-        verify(redisTemplate).keys(TRANSACTIONS_CACHE_PREFIX + userId + "*");
-        verify(redisTemplate).keys(STATS_CACHE_PREFIX + userId + "*");
-        verify(redisTemplate).delete(anyCollection());
-        verify(valueOps).get(anyString());
-        verify(valueOps).set(anyString(), eq("true"), anyLong(), any());
+        verify(outboxService).enqueue(eq(BALANCE_UPDATE_TOPIC), eq(userId.toString()), contains("\"operation\":\"CREATE\""));
+        verify(valueOps).increment(CACHE_VERSION_PREFIX + userId);
+        verify(redisTemplate, never()).keys(anyString());
+        verify(valueOps, never()).get(anyString()); // Redis больше не участвует в отправке событий
     }
 
 
     @Test
-    void processTransactionFromDocument_InvalidCategory_ThrowsException() {
+    void processTransactionFromDocument_InvalidCategory_ReportsFailedWithoutThrowing() {
         // Arrange
         TransactionItemDto item = new TransactionItemDto();
         item.setName("Test Transaction");
@@ -98,26 +90,80 @@ public class TransactionDocumentProcessingTest extends BaseTransactionTest{
             mockedKafkaUtils.when(() -> KafkaUtils.sendFeedback(any(), anyString(), any()))
                     .thenReturn(CompletableFuture.completedFuture(null));
 
-            when(categoryRepository.findByName("InvalidCategory")).thenReturn(Optional.empty());
+            when(categoryRegistry.contains("InvalidCategory")).thenReturn(false);
 
-            // Act & Assert
-            IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, () ->
+            // Act: отказ валидации окончателен, повторять запись нечего
+            assertDoesNotThrow(() ->
                     transactionService.processTransactionFromDocument(item, userId, item.getDocumentId())
             );
 
-            assertEquals("Category 'InvalidCategory' does not exist", ex.getMessage());
-
-            verify(categoryRepository).findByName("InvalidCategory");
+            // Assert
+            verify(categoryRegistry).contains("InvalidCategory");
 
             mockedKafkaUtils.verify(() ->
                     KafkaUtils.sendFeedback(any(), eq("document-feedback-queue"),
                             argThat(msg -> msg.getStatus().equals("FAILED") &&
-                                    msg.getDetails().contains("InvalidCategory")))
+                                    msg.getDetails().equals("Category 'InvalidCategory' does not exist")))
             );
 
             verify(transactionRepository, never()).save(any());
-            verify(redisTemplate, never()).keys(anyString());
-            verify(redisTemplate, never()).delete(anyCollection());
+            verify(redisTemplate, never()).opsForValue(); // Версия кэша не поднимается
+        }
+    }
+
+    @Test
+    void processTransactionFromDocument_SaveFails_RethrowsWithoutFeedback() {
+        // Arrange
+        TransactionItemDto item = new TransactionItemDto();
+        item.setName("Test Transaction");
+        item.setCategory("Salary");
+        item.setType("INCOME");
+        item.setPrice(new BigDecimal("200.00"));
+        item.setDate(Instant.now());
+        UUID documentId = UUID.randomUUID();
+
+        when(categoryRegistry.contains("Salary")).thenReturn(true);
+        when(transactionRepository.save(any(Transaction.class))).thenThrow(new IllegalStateException("connection reset"));
+
+        // Act & Assert: FAILED отправит только recoverer после исчерпания повторов
+        assertThrows(IllegalStateException.class, () ->
+                transactionService.processTransactionFromDocument(item, userId, documentId));
+
+        verify(feedbackKafkaTemplate, never()).send(any(ProducerRecord.class));
+        verify(outboxService, never()).enqueue(anyString(), anyString(), anyString());
+    }
+
+    @Test
+    void processTransactionFromDocument_SendsSuccessOnlyAfterCommit() {
+        // Arrange
+        TransactionItemDto item = new TransactionItemDto();
+        item.setName("Test Transaction");
+        item.setCategory("Salary");
+        item.setType("INCOME");
+        item.setPrice(new BigDecimal("200.00"));
+        item.setDate(Instant.now());
+        UUID documentId = UUID.randomUUID();
+
+        when(categoryRegistry.contains("Salary")).thenReturn(true);
+        when(transactionRepository.save(any(Transaction.class))).thenReturn(transaction);
+        @SuppressWarnings("unchecked")
+        ValueOperations<String, Object> valueOps = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(valueOps);
+        CompletableFuture<SendResult<String, String>> future = CompletableFuture.completedFuture(mock(SendResult.class));
+        when(feedbackKafkaTemplate.send(any(ProducerRecord.class))).thenReturn(future);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // Act
+            transactionService.processTransactionFromDocument(item, userId, documentId);
+
+            // Assert: до коммита фидбек не уходит
+            verify(feedbackKafkaTemplate, never()).send(any(ProducerRecord.class));
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            verify(feedbackKafkaTemplate).send(any(ProducerRecord.class));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
         }
     }
 }
@@ -49,8 +49,8 @@ public class TransactionFetchingTest extends BaseTransactionTest{
         TransactionResponse response = result.getContent().get(0);
         assertEquals(transaction.getId(), response.getId());
         verify(transactionRepository, never()).findByFilters(any(), any(), any(), any(), any(), any()); // Repository not called
-        verify(redisTemplate, times(1)).opsForValue(); // Only one call to opsForValue
-        verify(valueOperations).get(anyString());
+        verify(redisTemplate, times(2)).opsForValue(); // Version lookup + cache read
+        verify(valueOperations, times(2)).get(anyString());
         verify(valueOperations, never()).set(anyString(), any(), anyLong(), any());
     }
 
@@ -76,8 +76,8 @@ public class TransactionFetchingTest extends BaseTransactionTest{
         TransactionResponse response = result.getContent().get(0);
         assertEquals(transaction.getId(), response.getId());
         verify(transactionRepository).findByFilters(userId, null, null, null, null, pageable);
-        verify(redisTemplate, times(2)).opsForValue(); // Ожидаем два вызова opsForValue
-        verify(valueOperations).get(anyString()); // Проверяем попытку чтения из кэша
+        verify(redisTemplate, times(3)).opsForValue(); // Версия кэша, чтение и запись
+        verify(valueOperations, times(2)).get(anyString()); // Версия кэша и попытка чтения из кэша
         verify(valueOperations).set(anyString(), any(), eq(10L), eq(TimeUnit.MINUTES)); // Проверяем запись в кэш
     }
 
@@ -100,8 +100,8 @@ public class TransactionFetchingTest extends BaseTransactionTest{
         assertNotNull(result);
         assertEquals(0, result.getTotalElements());
         verify(transactionRepository).findByFilters(userId, null, null, null, null, pageable);
-        verify(redisTemplate, times(2)).opsForValue();
-        verify(valueOperations).get(anyString());
+        verify(redisTemplate, times(3)).opsForValue();
+        verify(valueOperations, times(2)).get(anyString());
         verify(valueOperations).set(anyString(), any(), eq(10L), eq(TimeUnit.MINUTES));
     }
 
@@ -143,8 +143,8 @@ public class TransactionFetchingTest extends BaseTransactionTest{
         TransactionResponse response = result.getContent().get(0);
         assertEquals(transaction.getId(), response.getId());
         verify(transactionRepository).findByFilters(userId, from, to, "Salary", "INCOME", pageable);
-        verify(redisTemplate, times(2)).opsForValue();
-        verify(valueOperations).get(anyString());
+        verify(redisTemplate, times(3)).opsForValue();
+        verify(valueOperations, times(2)).get(anyString());
         verify(valueOperations).set(anyString(), any(), eq(10L), eq(TimeUnit.MINUTES));
     }
 }
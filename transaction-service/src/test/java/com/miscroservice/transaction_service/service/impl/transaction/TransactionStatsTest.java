@@ -1,16 +1,20 @@
 package com.miscroservice.transaction_service.service.impl.transaction;
 
+import com.miscroservice.transaction_service.model.dto.StatsRange;
 import com.miscroservice.transaction_service.model.dto.TransactionStatsResponse;
-import com.miscroservice.transaction_service.model.entity.Transaction;
+import com.miscroservice.transaction_service.model.projection.TransactionAggregate;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.springframework.data.redis.core.ValueOperations;
 
 import java.math.BigDecimal;
 import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.UUID;
+import java.util.Optional;
 import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -26,7 +30,8 @@ public class TransactionStatsTest extends BaseTransactionTest{
     @Test
     void getStats_Success() {
         // Arrange
-        when(transactionRepository.findByUserId(userId)).thenReturn(List.of(transaction));
+        when(statsRollupService.getAggregates(userId, null, null))
+                .thenReturn(List.of(aggregate("INCOME", "Salary", "2024-03", "100.00", 1)));
 
         ValueOperations<String, Object> valueOperations = mock(ValueOperations.class);
         when(redisTemplate.opsForValue()).thenReturn(valueOperations);
@@ -42,9 +47,11 @@ public class TransactionStatsTest extends BaseTransactionTest{
         assertEquals(BigDecimal.ZERO, stats.getTotalExpense());
         assertEquals(1, stats.getByCategory().size());
         assertEquals(new BigDecimal("100.00"), stats.getByCategory().get("Salary"));
-        verify(transactionRepository).findByUserId(userId);
-        verify(redisTemplate, times(2)).opsForValue(); // Ожидаем два вызова opsForValue
-        verify(valueOperations).get(anyString());
+        assertEquals(new BigDecimal("100.00"), stats.getByMonth().get("MARCH"));
+        verify(statsRollupService).getAggregates(userId, null, null);
+        verify(transactionRepository, never()).findByUserId(any());
+        verify(redisTemplate, times(3)).opsForValue(); // Версия кэша, чтение и запись
+        verify(valueOperations, times(2)).get(anyString());
         verify(valueOperations).set(anyString(), any(), eq(10L), eq(TimeUnit.MINUTES));
     }
 
@@ -71,9 +78,9 @@ public class TransactionStatsTest extends BaseTransactionTest{
         assertEquals(BigDecimal.ZERO, stats.getTotalExpense());
         assertEquals(1, stats.getByCategory().size());
         assertEquals(new BigDecimal("100.00"), stats.getByCategory().get("Salary"));
-        verify(transactionRepository, never()).findByUserId(any()); // Репозиторий не вызывается
-        verify(redisTemplate, times(1)).opsForValue(); // Только один вызов opsForValue
-        verify(valueOperations).get(anyString());
+        verify(statsRollupService, never()).getAggregates(any(), any(), any()); // Роллапы не читаются
+        verify(redisTemplate, times(2)).opsForValue(); // Версия кэша + чтение значения
+        verify(valueOperations, times(2)).get(anyString());
         verify(valueOperations, never()).set(anyString(), any(), anyLong(), any());
     }
 
@@ -81,17 +88,9 @@ public class TransactionStatsTest extends BaseTransactionTest{
     void getStats_WithDateFilter_Success() {
         // Arrange
         Instant now = Instant.now();
-        Transaction oldTransaction = new Transaction();
-        oldTransaction.setId(UUID.randomUUID());
-        oldTransaction.setUserId(userId);
-        oldTransaction.setAmount(new BigDecimal("50.00"));
-        oldTransaction.setType("EXPENSE");
-        oldTransaction.setCategory("Groceries");
-        oldTransaction.setDate(now.minusSeconds(3600)); // 1 час назад
-        oldTransaction.setCreatedAt(now);
-        oldTransaction.setUpdatedAt(now);
-
-        when(transactionRepository.findByUserId(userId)).thenReturn(List.of(transaction, oldTransaction));
+        // Фильтрация по датам выполняется в БД — возвращаются только агрегаты из диапазона
+        when(statsRollupService.getAggregates(eq(userId), any(Instant.class), any(Instant.class)))
+                .thenReturn(List.of(aggregate("INCOME", "Salary", "2024-03", "100.00", 1)));
 
         ValueOperations<String, Object> valueOperations = mock(ValueOperations.class);
         when(redisTemplate.opsForValue()).thenReturn(valueOperations);
@@ -107,12 +106,111 @@ public class TransactionStatsTest extends BaseTransactionTest{
         // Assert
         assertNotNull(stats);
         assertEquals(new BigDecimal("100.00"), stats.getTotalIncome()); // Только текущая транзакция попадает в диапазон
-        assertEquals(BigDecimal.ZERO, stats.getTotalExpense()); // oldTransaction вне диапазона
+        assertEquals(BigDecimal.ZERO, stats.getTotalExpense()); // Расходов в диапазоне нет
         assertEquals(1, stats.getByCategory().size());
         assertEquals(new BigDecimal("100.00"), stats.getByCategory().get("Salary"));
-        verify(transactionRepository).findByUserId(userId);
-        verify(redisTemplate, times(2)).opsForValue();
-        verify(valueOperations).get(anyString());
+        verify(statsRollupService).getAggregates(userId, Instant.parse(startDate), Instant.parse(endDate));
+        verify(redisTemplate, times(3)).opsForValue();
+        verify(valueOperations, times(2)).get(anyString());
         verify(valueOperations).set(anyString(), any(), eq(10L), eq(TimeUnit.MINUTES));
     }
+
+    @Test
+    void getStats_MultipleBuckets_FoldsByTypeCategoryAndMonth() {
+        // Arrange
+        when(statsRollupService.getAggregates(userId, null, null)).thenReturn(List.of(
+                aggregate("INCOME", "Salary", "2024-01", "1000.00", 1),
+                aggregate("INCOME", "Salary", "2024-02", "1000.00", 1),
+                aggregate("EXPENSE", "Groceries", "2024-01", "120.50", 7),
+                aggregate("EXPENSE", "Groceries", "2023-01", "30.00", 2)
+        ));
+
+        ValueOperations<String, Object> valueOperations = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.get(anyString())).thenReturn(null);
+
+        // Act
+        TransactionStatsResponse stats = transactionService.getStats(userId, null, null);
+
+        // Assert
+        assertEquals(new BigDecimal("2000.00"), stats.getTotalIncome());
+        assertEquals(new BigDecimal("150.50"), stats.getTotalExpense());
+        assertEquals(new BigDecimal("2000.00"), stats.getByCategory().get("Salary"));
+        assertEquals(new BigDecimal("150.50"), stats.getByCategory().get("Groceries"));
+        assertEquals(new BigDecimal("1150.50"), stats.getByMonth().get("JANUARY"));
+        assertEquals(new BigDecimal("1000.00"), stats.getByMonth().get("FEBRUARY"));
+    }
+
+    @Test
+    void getStats_WithRange_UsesDayGranularBounds() {
+        // Arrange
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        when(statsRollupService.getAggregates(eq(userId), any(Instant.class), any(Instant.class)))
+                .thenReturn(List.of(aggregate("EXPENSE", "Groceries", today.toString().substring(0, 7), "42.00", 3)));
+
+        ValueOperations<String, Object> valueOperations = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.get(anyString())).thenReturn(null);
+
+        // Act
+        TransactionStatsResponse stats = transactionService.getStats(userId, StatsRange.CURRENT_MONTH);
+
+        // Assert
+        assertEquals(new BigDecimal("42.00"), stats.getTotalExpense());
+        verify(statsRollupService).getAggregates(userId,
+                today.withDayOfMonth(1).atStartOfDay(ZoneOffset.UTC).toInstant(),
+                today.plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant().minusSeconds(1));
+    }
+
+    @Test
+    void write_SchedulesPrecomputeThatWarmsDashboardRanges() {
+        // Arrange
+        when(transactionRepository.findById(transaction.getId())).thenReturn(Optional.of(transaction));
+        when(statsRollupService.getAggregates(eq(userId), any(), any()))
+                .thenReturn(List.of(aggregate("INCOME", "Salary", "2024-03", "100.00", 1)));
+
+        ValueOperations<String, Object> valueOperations = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.get(anyString())).thenReturn(null);
+        ArgumentCaptor<Runnable> task = ArgumentCaptor.forClass(Runnable.class);
+
+        // Act
+        transactionService.deleteTransaction(transaction.getId(), userId);
+        verify(statsRefreshScheduler).schedule(eq(userId), task.capture());
+        task.getValue().run();
+
+        // Assert: три диапазона дашборда и вся история, каждый под своим ключом
+        verify(statsRollupService, times(3)).getAggregates(eq(userId), any(Instant.class), any(Instant.class));
+        verify(statsRollupService).getAggregates(userId, null, null);
+        verify(valueOperations, times(4)).set(anyString(), any(), eq(10L), eq(TimeUnit.MINUTES));
+    }
+
+    private TransactionAggregate aggregate(String type, String category, String month, String total, long count) {
+        return new TransactionAggregate() {
+            @Override
+            public String getType() {
+                return type;
+            }
+
+            @Override
+            public String getCategory() {
+                return category;
+            }
+
+            @Override
+            public String getMonth() {
+                return month;
+            }
+
+            @Override
+            public BigDecimal getTotal() {
+                return new BigDecimal(total);
+            }
+
+            @Override
+            public Long getCount() {
+                return count;
+            }
+        };
+    }
 }
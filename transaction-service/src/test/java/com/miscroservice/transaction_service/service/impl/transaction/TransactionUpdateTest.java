@@ -4,19 +4,14 @@ import com.miscroservice.transaction_service.exception.AccessDeniedException;
 import com.miscroservice.transaction_service.exception.TransactionNotFoundException;
 import com.miscroservice.transaction_service.exception.ValidationException;
 import com.miscroservice.transaction_service.model.dto.TransactionResponse;
-import com.miscroservice.transaction_service.model.entity.Category;
 import com.miscroservice.transaction_service.model.entity.Transaction;
-import org.apache.kafka.clients.producer.ProducerRecord;
 import org.junit.jupiter.api.Test;
 import org.springframework.data.redis.core.ValueOperations;
-import org.springframework.kafka.support.SendResult;
 import org.springframework.validation.FieldError;
 
 import java.util.List;
 import java.util.Optional;
-import java.util.Set;
 import java.util.UUID;
-import java.util.concurrent.CompletableFuture;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -28,20 +23,13 @@ public class TransactionUpdateTest extends BaseTransactionTest {
     void updateTransaction_Success() {
         // Arrange
         when(transactionRepository.findById(transaction.getId())).thenReturn(Optional.of(transaction));
-        when(categoryRepository.findByName("Salary")).thenReturn(Optional.of(new Category()));
+        when(categoryRegistry.contains("Salary")).thenReturn(true);
         when(transactionRepository.save(any(Transaction.class))).thenReturn(transaction);
-        when(redisTemplate.keys(anyString())).thenReturn(Set.of("mockedKey"));
 
         // Mock redisTemplate.opsForValue()
         @SuppressWarnings("unchecked")
         ValueOperations<String, Object> valueOps = mock(ValueOperations.class);
         when(redisTemplate.opsForValue()).thenReturn(valueOps);
-        when(valueOps.get(anyString())).thenReturn(null); // Event not processed yet
-        doNothing().when(valueOps).set(anyString(), any(), anyLong(), any());
-
-        // Mock KafkaTemplate.send to return a CompletableFuture
-        CompletableFuture<SendResult<String, String>> future = CompletableFuture.completedFuture(mock(SendResult.class));
-        when(balanceKafkaTemplate.send(any(ProducerRecord.class))).thenReturn(future);
 
         // Act
         TransactionResponse response = transactionService.updateTransaction(transaction.getId(), transactionRequest, userId, bindingResult);
@@ -51,12 +39,12 @@ public class TransactionUpdateTest extends BaseTransactionTest {
         assertEquals(transaction.getId(), response.getId());
         verify(transactionRepository).findById(transaction.getId());
         verify(transactionRepository).save(any(Transaction.class));
-        verify(balanceKafkaTemplate).send(any(ProducerRecord.class));
-        verify(redisTemplate).keys(TRANSACTIONS_CACHE_PREFIX + userId + "*");
-        verify(redisTemplate).keys(STATS_CACHE_PREFIX + userId + "*");
-        verify(redisTemplate).delete(anyCollection());
-        verify(valueOps).get(anyString());
-        verify(valueOps).set(anyString(), eq("true"), anyLong(), any());
+        verify(statsRollupService).recordDeleted(userId, transaction.getDate(), "Salary", "INCOME", transaction.getAmount());
+        verify(statsRollupService).recordCreated(userId, transaction.getDate(), "Salary", "INCOME", transaction.getAmount());
+        verify(outboxService).enqueue(eq(BALANCE_UPDATE_TOPIC), eq(userId.toString()), contains("\"operation\":\"UPDATE\""));
+        verify(valueOps).increment(CACHE_VERSION_PREFIX + userId);
+        verify(redisTemplate, never()).keys(anyString());
+        verify(valueOps, never()).get(anyString()); // Redis больше не участвует в отправке событий
     }
 
     @Test
@@ -83,14 +71,14 @@ public class TransactionUpdateTest extends BaseTransactionTest {
     @Test
     void updateTransaction_InvalidCategory_ThrowsIllegalArgumentException() {
         when(transactionRepository.findById(transaction.getId())).thenReturn(Optional.of(transaction));
-        when(categoryRepository.findByName("InvalidCategory")).thenReturn(Optional.empty());
+        when(categoryRegistry.contains("InvalidCategory")).thenReturn(false);
         transactionRequest.setCategory("InvalidCategory");
 
         IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
                 () -> transactionService.updateTransaction(transaction.getId(), transactionRequest, userId, bindingResult));
         assertEquals("Category 'InvalidCategory' does not exist", exception.getMessage());
         verify(transactionRepository).findById(transaction.getId());
-        verify(categoryRepository).findByName("InvalidCategory");
+        verify(categoryRegistry).contains("InvalidCategory");
         verify(transactionRepository, never()).save(any());
     }
 
@@ -114,6 +102,6 @@ public class TransactionUpdateTest extends BaseTransactionTest {
         // Verify: No repository interactions should occur
         verify(transactionRepository, never()).findById(any());
         verify(transactionRepository, never()).save(any());
-        verify(categoryRepository, never()).findByName(anyString());
+        verify(categoryRegistry, never()).contains(anyString());
     }
 }
\ No newline at end of file
@@ -0,0 +1,102 @@
+package com.miscroservice.transaction_service.service.stats;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StatsRefreshSchedulerTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private StatsRefreshScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        scheduler = new StatsRefreshScheduler(meterRegistry, 1);
+        ReflectionTestUtils.setField(scheduler, "enabled", true);
+        ReflectionTestUtils.setField(scheduler, "debounceMs", 100L);
+        ReflectionTestUtils.setField(scheduler, "maxPending", 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdown();
+    }
+
+    @Test
+    void schedule_BurstForOneUser_RunsOnce() throws Exception {
+        // Arrange
+        UUID userId = UUID.randomUUID();
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(1);
+
+        // Act: 50 позиций одного чека
+        for (int i = 0; i < 50; i++) {
+            scheduler.schedule(userId, () -> {
+                runs.incrementAndGet();
+                done.countDown();
+            });
+        }
+
+        // Assert
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        Thread.sleep(200);
+        assertEquals(1, runs.get());
+        assertEquals(49.0, meterRegistry.counter("stats.precompute", "result", "coalesced").count());
+        assertEquals(0, scheduler.pendingCount());
+    }
+
+    @Test
+    void schedule_AfterRunStarted_SchedulesAgain() throws Exception {
+        // Arrange
+        UUID userId = UUID.randomUUID();
+        CountDownLatch first = new CountDownLatch(1);
+        CountDownLatch second = new CountDownLatch(1);
+
+        // Act
+        scheduler.schedule(userId, first::countDown);
+        assertTrue(first.await(5, TimeUnit.SECONDS));
+        scheduler.schedule(userId, second::countDown);
+
+        // Assert
+        assertTrue(second.await(5, TimeUnit.SECONDS));
+        assertEquals(2.0, meterRegistry.counter("stats.precompute", "result", "scheduled").count());
+    }
+
+    @Test
+    void schedule_QueueFull_DropsNewUsers() {
+        // Act
+        scheduler.schedule(UUID.randomUUID(), () -> { });
+        scheduler.schedule(UUID.randomUUID(), () -> { });
+        scheduler.schedule(UUID.randomUUID(), () -> { });
+
+        // Assert
+        assertEquals(1.0, meterRegistry.counter("stats.precompute", "result", "dropped").count());
+    }
+
+    @Test
+    void schedule_FailingTask_DoesNotBlockUser() throws Exception {
+        // Arrange
+        UUID userId = UUID.randomUUID();
+        CountDownLatch recovered = new CountDownLatch(1);
+
+        // Act
+        scheduler.schedule(userId, () -> {
+            throw new IllegalStateException("Redis down");
+        });
+        Thread.sleep(300);
+        scheduler.schedule(userId, recovered::countDown);
+
+        // Assert
+        assertTrue(recovered.await(5, TimeUnit.SECONDS));
+    }
+}